@@ -88,7 +88,21 @@ public interface PartyProvider {
     @NotNull Optional<Party> getParty(final @NotNull UUID id) throws JsonProcessingException;
 
     /**
-     * Creates a new party with the given leader.
+     * Gets the party associated with a given ID for a lookup that doesn't depend on a change that was just made, e.g. to display the party.
+     * The party may be read from a read replica, so it can lag behind the latest changes.
+     *
+     * @param id the {@link UUID} of the party
+     *
+     * @return an optional containing the party, or empty if the party does not exist
+     *
+     * @see #getParty(UUID)
+     */
+    default @NotNull Optional<Party> getPartyFromReplica(final @NotNull UUID id) throws JsonProcessingException {
+        return this.getParty(id);
+    }
+
+    /**
+     * Creates a new party with the given leader and sets the party id of the leader.
      *
      * @param leader     the {@link UUID} of the party leader
      * @param maxMembers limit of party members (can't be negative!)
@@ -96,8 +110,12 @@ public interface PartyProvider {
      * @return the new {@link Party}
      *
      * @throws IllegalArgumentException if {@code maxMembers} is negative
+     * @throws IllegalStateException    if the leader is offline or already in a party, in which case no party is stored
      */
-    @NotNull Party createParty(final @NotNull UUID leader, final int maxMembers) throws JsonProcessingException, IllegalArgumentException;
+    @NotNull Party createParty(
+            final @NotNull UUID leader,
+            final int maxMembers
+    ) throws JsonProcessingException, IllegalArgumentException, IllegalStateException;
 
     /**
      * Sends a message to all members and leader of a party.
@@ -182,4 +200,13 @@ public interface PartyProvider {
      * @return true if a request exists, false otherwise
      */
     boolean existsPartyRequest(final @NotNull String source, final @NotNull String target);
+
+    /**
+     * Gets the names of all players who have a pending party request from the specified player.
+     *
+     * @param source the username of the player who sent the requests
+     *
+     * @return a {@link List} of the usernames of the players who received a request
+     */
+    @NotNull List<String> getPartyRequests(final @NotNull String source);
 }
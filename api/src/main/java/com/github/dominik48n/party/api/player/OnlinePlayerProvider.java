@@ -18,10 +18,15 @@ package com.github.dominik48n.party.api.player;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -64,6 +69,32 @@ public interface OnlinePlayerProvider {
      */
     @NotNull List<PartyPlayer> all() throws JsonProcessingException;
 
+    /**
+     * Returns an {@link Iterator} that walks over all {@link PartyPlayer} objects in Redis page by page.
+     * Only the current page is held in memory, so this is the preferred way to visit every online player on large networks.
+     * Players whose data can't be read are skipped and a player may be returned more than once while Redis is rehashing.
+     *
+     * @param batchSize the number of players that should be fetched per round trip (only a hint for Redis)
+     *
+     * @return an {@link Iterator} over all online {@link PartyPlayer} objects
+     *
+     * @throws IllegalArgumentException if {@code batchSize} isn't positive
+     */
+    @NotNull Iterator<PartyPlayer> iterator(final int batchSize) throws IllegalArgumentException;
+
+    /**
+     * Returns a sequential {@link Stream} over all {@link PartyPlayer} objects in Redis, backed by {@link #iterator(int)}.
+     *
+     * @param batchSize the number of players that should be fetched per round trip (only a hint for Redis)
+     *
+     * @return a lazy {@link Stream} of all online {@link PartyPlayer} objects
+     *
+     * @throws IllegalArgumentException if {@code batchSize} isn't positive
+     */
+    default @NotNull Stream<PartyPlayer> stream(final int batchSize) throws IllegalArgumentException {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this.iterator(batchSize), Spliterator.NONNULL), false);
+    }
+
     /**
      * Creates a new {@link PartyPlayer} in Redis using the specified {@link PartyPlayer}.
      *
@@ -73,11 +104,23 @@ public interface OnlinePlayerProvider {
 
     /**
      * Removes a {@link PartyPlayer} from Redis using the specified {@link UUID}.
+     * The player also leaves their party and all party requests sent by the player are cleared.
      *
      * @param uniqueId The {@link UUID} of the {@link PartyPlayer} to remove.
      */
     void logout(final @NotNull UUID uniqueId);
 
+    /**
+     * Removes many {@link PartyPlayer}s from Redis at once, e.g. when a proxy shuts down.
+     * Unlike calling {@link #logout(UUID)} for every player, the players are loaded in batches and the
+     * players of the same party leave it together, so the number of round trips grows with the number of parties.
+     *
+     * @param uniqueIds The {@link UUID}s of the {@link PartyPlayer}s to remove.
+     */
+    default void logout(final @NotNull Collection<UUID> uniqueIds) {
+        uniqueIds.forEach(this::logout);
+    }
+
     /**
      * Updates the party ID of the {@link PartyPlayer} with the given {@link UUID} to the specified party ID.
      * If the player's current party ID already matches the specified party ID, no update is performed.
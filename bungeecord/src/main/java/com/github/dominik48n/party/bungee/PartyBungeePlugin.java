@@ -25,6 +25,7 @@ import com.github.dominik48n.party.bungee.listener.UpdateCheckerListener;
 import com.github.dominik48n.party.config.ProxyPluginConfig;
 import com.github.dominik48n.party.database.DatabaseAdapter;
 import com.github.dominik48n.party.redis.RedisManager;
+import com.github.dominik48n.party.storage.PartyStorageType;
 import com.github.dominik48n.party.util.Constants;
 import com.github.dominik48n.party.util.UpdateChecker;
 import java.io.File;
@@ -80,7 +81,13 @@ public class PartyBungeePlugin extends Plugin {
         this.audiences = BungeeAudiences.create(this);
 
         final BungeeUserManager userManager = new BungeeUserManager(this);
-        this.partyProvider = new DefaultPartyProvider<>(this.redisManager, userManager, this.config.messageConfig());
+        this.partyProvider = new DefaultPartyProvider<>(
+                this.redisManager,
+                userManager,
+                this.config.messageConfig(),
+                this.config.redisConfig()
+        );
+        this.migratePartyStorage(this.partyProvider);
 
         this.redisManager.subscribes(userManager);
 
@@ -96,6 +103,21 @@ public class PartyBungeePlugin extends Plugin {
         if (this.config.updateChecker()) this.registerUpdateChecker();
     }
 
+    /**
+     * Converts parties that are still stored in an older layout into the configured one.
+     * This runs in the background, because the parties are also converted the first time they are accessed.
+     *
+     * @param partyProvider the {@link DefaultPartyProvider} that owns the parties
+     */
+    private void migratePartyStorage(final @NotNull DefaultPartyProvider<ProxiedPlayer> partyProvider) {
+        if (this.config.redisConfig().partyStorage() != PartyStorageType.HASH) return;
+
+        super.getProxy().getScheduler().runAsync(this, () -> {
+            final int migrated = partyProvider.migratePartyStorage();
+            if (migrated > 0) PartyBungeePlugin.super.getLogger().log(Level.INFO, "Converted {0} parties to the new storage layout.", migrated);
+        });
+    }
+
     /**
      * Registers the update checker for the PartyBungeePlugin.
      * The update checker checks for the latest version of the party system and logs a message if a new version is available.
@@ -123,10 +145,8 @@ public class PartyBungeePlugin extends Plugin {
 
     @Override
     public void onDisable() {
-        for (final ProxiedPlayer player : super.getProxy().getPlayers()) {
-            PartyAPI.get().onlinePlayerProvider().logout(player.getUniqueId());
-            PartyAPI.get().clearPartyRequest(player.getName());
-        }
+        PartyAPI.get().onlinePlayerProvider().logout(super.getProxy().getPlayers().stream().map(ProxiedPlayer::getUniqueId).toList());
+        if (this.partyProvider != null) this.partyProvider.close();
 
         if (this.redisManager != null) {
             super.getLogger().info("Close connection to redis...");
@@ -66,7 +66,6 @@ public class OnlinePlayersListener implements Listener {
         final ProxiedPlayer player = event.getPlayer();
 
         PartyAPI.get().onlinePlayerProvider().logout(player.getUniqueId());
-        PartyAPI.get().clearPartyRequest(player.getName());
 
         this.userManager.removePlayerFromCache(player);
     }
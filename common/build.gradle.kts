@@ -1,5 +1,6 @@
 plugins {
     id("java")
+    id("me.champeau.jmh") version "0.7.1"
 }
 
 group = "com.github.dominik48n.party"
@@ -36,8 +37,20 @@ dependencies {
     testImplementation("org.mockito:mockito-core:5.3.1")
     testImplementation("org.junit.jupiter:junit-jupiter-api:5.9.2")
     testRuntimeOnly("org.junit.jupiter:junit-jupiter-engine:5.9.2")
+
+    jmh("com.google.guava:guava:31.1-jre")
+    jmh("org.jetbrains:annotations:24.0.1")
 }
 
 tasks.withType<Test> {
     useJUnitPlatform()
 }
+
+// Run with ./gradlew :common:jmh, the gc profiler reports the allocated bytes per operation (gc.alloc.rate.norm).
+jmh {
+    jmhVersion.set("1.36")
+    profilers.add("gc")
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2023 Dominik48N
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.dominik48n.party.codec;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.dominik48n.party.api.Party;
+import com.github.dominik48n.party.api.player.PartyPlayer;
+import com.github.dominik48n.party.config.Document;
+import com.github.dominik48n.party.user.UserDeserializer;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares reading players and parties the way older versions did (JsonNode tree, record deserialization),
+ * the streaming JSON deserializers and the binary codec.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PartyCodecBenchmark {
+
+    private final ObjectMapper recordMapper = new ObjectMapper();
+    private final PartyCodec jsonCodec = new JsonPartyCodec();
+    private final PartyCodec binaryCodec = new BinaryPartyCodec();
+
+    private byte[] jsonPlayer;
+    private byte[] binaryPlayer;
+    private byte[] jsonParty;
+    private byte[] binaryParty;
+
+    @Setup
+    public void setup() throws JsonProcessingException {
+        final PartyPlayer player = new UserDeserializer.DeserializedUser(UUID.randomUUID(), "Dominik48N", UUID.randomUUID(), 8);
+        final Party party = new Party(
+                UUID.randomUUID(),
+                UUID.randomUUID(),
+                List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID()),
+                8
+        );
+
+        this.jsonPlayer = this.jsonCodec.encodePlayer(player);
+        this.binaryPlayer = this.binaryCodec.encodePlayer(player);
+        this.jsonParty = this.jsonCodec.encodeParty(party);
+        this.binaryParty = this.binaryCodec.encodeParty(party);
+    }
+
+    @Benchmark
+    public PartyPlayer readPlayerTree() throws Exception {
+        // The implementation of UserDeserializer before it read the tokens directly
+        final JsonNode node = Document.MAPPER.readTree(this.jsonPlayer);
+        return new UserDeserializer.DeserializedUser(
+                UUID.fromString(node.get("uuid").asText()),
+                node.get("name").asText(),
+                node.hasNonNull("party_id") ? UUID.fromString(node.get("party_id").asText()) : null,
+                node.get("member_limit").asInt()
+        );
+    }
+
+    @Benchmark
+    public PartyPlayer readPlayerStreaming() throws JsonProcessingException {
+        return this.jsonCodec.decodePlayer(this.jsonPlayer);
+    }
+
+    @Benchmark
+    public PartyPlayer readPlayerBinary() throws JsonProcessingException {
+        return this.binaryCodec.decodePlayer(this.binaryPlayer);
+    }
+
+    @Benchmark
+    public Party readPartyRecord() throws Exception {
+        // Parties were read by the reflection based record deserialization of Jackson before
+        return this.recordMapper.readValue(this.jsonParty, Party.class);
+    }
+
+    @Benchmark
+    public Party readPartyStreaming() throws JsonProcessingException {
+        return this.jsonCodec.decodeParty(this.jsonParty);
+    }
+
+    @Benchmark
+    public Party readPartyBinary() throws JsonProcessingException {
+        return this.binaryCodec.decodeParty(this.binaryParty);
+    }
+
+    @Benchmark
+    public byte[] writePlayerJson() throws JsonProcessingException {
+        return this.jsonCodec.encodePlayer(this.jsonCodec.decodePlayer(this.jsonPlayer));
+    }
+
+    @Benchmark
+    public byte[] writePlayerBinary() throws JsonProcessingException {
+        return this.binaryCodec.encodePlayer(this.binaryCodec.decodePlayer(this.binaryPlayer));
+    }
+}
@@ -19,190 +19,149 @@ package com.github.dominik48n.party.api;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.github.dominik48n.party.api.player.OnlinePlayerProvider;
 import com.github.dominik48n.party.api.player.PartyPlayer;
-import com.github.dominik48n.party.config.Document;
+import com.github.dominik48n.party.codec.PartyCodec;
+import com.github.dominik48n.party.codec.PartyCodecType;
 import com.github.dominik48n.party.database.DatabaseAdapter;
 import com.github.dominik48n.party.database.settings.DatabaseSettingsType;
 import com.github.dominik48n.party.redis.RedisManager;
+import com.github.dominik48n.party.storage.JsonPartyStore;
+import com.github.dominik48n.party.storage.PartyLogout;
+import com.github.dominik48n.party.storage.PartyStore;
+import com.github.dominik48n.party.storage.PlayerStore;
+import com.github.dominik48n.party.storage.RedisPlayerStore;
 import com.github.dominik48n.party.user.NetworkUser;
 import com.github.dominik48n.party.user.UserManager;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.Set;
 import java.util.UUID;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
-import redis.clients.jedis.UnifiedJedis;
 
 public class DefaultOnlinePlayersProvider<TUser> implements OnlinePlayerProvider {
 
-    private final @NotNull RedisManager redisManager;
+    private static final int ALL_BATCH_SIZE = 500;
+
     private final @NotNull UserManager<TUser> userManager;
+    private final @NotNull PlayerStore playerStore;
+    private final @NotNull PartyStore partyStore;
 
     private @Nullable DatabaseAdapter databaseAdapter;
 
     public DefaultOnlinePlayersProvider(final @NotNull RedisManager redisManager, final @NotNull UserManager<TUser> userManager) {
-        this.redisManager = redisManager;
+        this(redisManager, userManager, PartyCodecType.JSON.create());
+    }
+
+    private DefaultOnlinePlayersProvider(
+            final @NotNull RedisManager redisManager,
+            final @NotNull UserManager<TUser> userManager,
+            final @NotNull PartyCodec codec
+    ) {
+        this(userManager, new RedisPlayerStore(redisManager, codec), new JsonPartyStore(redisManager, codec));
+    }
+
+    public DefaultOnlinePlayersProvider(
+            final @NotNull UserManager<TUser> userManager,
+            final @NotNull PlayerStore playerStore,
+            final @NotNull PartyStore partyStore
+    ) {
         this.userManager = userManager;
+        this.playerStore = playerStore;
+        this.partyStore = partyStore;
     }
 
     @Override
     public @NotNull Optional<PartyPlayer> get(final @NotNull String username) throws JsonProcessingException {
-        final Set<String> keys = this.redisManager.jedis().keys("party_player:*");
-        for (final String key : keys) {
-            final String json = this.redisManager.jedis().get(key);
-            if (json == null) continue;
+        final Optional<UUID> uniqueId = this.playerStore.uniqueId(username);
+        if (uniqueId.isEmpty()) return Optional.empty();
 
-            final PartyPlayer player = Document.MAPPER.readValue(json, PartyPlayer.class);
-            if (player.name().equalsIgnoreCase(username)) return Optional.of(new NetworkUser<>(player, this.userManager));
-        }
-        return Optional.empty();
+        // The index entry may be left over from a session that was not logged out cleanly.
+        return this.get(uniqueId.get()).filter(partyPlayer -> partyPlayer.name().equalsIgnoreCase(username));
     }
 
     @Override
     public @NotNull Optional<PartyPlayer> get(final @NotNull UUID uniqueId) throws JsonProcessingException {
-        final String json = this.redisManager.jedis().get("party_player:" + uniqueId);
-        if (json == null) return Optional.empty();
-
-        final PartyPlayer player = Document.MAPPER.readValue(json, PartyPlayer.class);
-        return Optional.of(new NetworkUser<>(player, this.userManager));
+        return this.playerStore.get(uniqueId).map(player -> new NetworkUser<>(player, this.userManager));
     }
 
     @Override
     public @NotNull Map<UUID, PartyPlayer> get(final @NotNull Collection<UUID> uniqueIds) throws JsonProcessingException {
-        final Map<UUID, PartyPlayer> players = Maps.newHashMap();
-        final String[] keys = uniqueIds.stream()
-                .map(uuid -> "party_player:" + uuid.toString())
-                .toArray(String[]::new);
-
-        for (final String json : this.redisManager.jedis().mget(keys)) {
-            if (json == null) continue;
+        return this.playerStore.get(uniqueIds);
+    }
 
-            final PartyPlayer player = Document.MAPPER.readValue(json, PartyPlayer.class);
-            players.put(player.uniqueId(), player);
-        }
-        return players;
+    @Override
+    public @NotNull List<PartyPlayer> all() {
+        // SCAN can return a key more than once, which is why the players are collected by their unique id.
+        final Map<UUID, PartyPlayer> partyPlayers = Maps.newLinkedHashMap();
+        this.iterator(ALL_BATCH_SIZE).forEachRemaining(player -> partyPlayers.put(player.uniqueId(), player));
+        return Lists.newArrayList(partyPlayers.values());
     }
 
     @Override
-    public @NotNull List<PartyPlayer> all() throws JsonProcessingException {
-        final List<PartyPlayer> partyPlayers = Lists.newArrayList();
-        final Set<String> keys = this.redisManager.jedis().keys("party_player:*");
-        for (final String key : keys) {
-            final String json = this.redisManager.jedis().get(key);
-            if (json == null) continue;
-
-            final PartyPlayer player = Document.MAPPER.readValue(json, PartyPlayer.class);
-            partyPlayers.add(new NetworkUser<>(player, this.userManager));
-        }
-        return partyPlayers;
+    public @NotNull Iterator<PartyPlayer> iterator(final int batchSize) throws IllegalArgumentException {
+        Preconditions.checkArgument(batchSize > 0, "batchSize must be positive!");
+        return Iterators.transform(this.playerStore.iterator(batchSize), player -> new NetworkUser<>(player, this.userManager));
     }
 
     @Override
     public void login(final @NotNull PartyPlayer player) throws JsonProcessingException {
-        this.redisManager.jedis().set("party_player:" + player.uniqueId(), Document.MAPPER.writeValueAsString(player));
+        this.playerStore.save(player);
     }
 
     @Override
     public void logout(final @NotNull UUID uniqueId) {
-        final String playerKey = "party_player:" + uniqueId;
-
-        // Check if player is logged in
-        final String json = this.redisManager.jedis().get(playerKey);
-        if (json == null) return;
-
-        // Deserialize player object
-        final PartyPlayer player;
-        try {
-            player = Document.MAPPER.readValue(json, PartyPlayer.class);
-        } catch (final JsonProcessingException e) {
-            this.redisManager.jedis().del(playerKey);
-            return;
-        }
+        this.logout(List.of(uniqueId));
+    }
 
-        // Check if player is in a party
-        if (player.partyId().isPresent()) try {
-            PartyAPI.get().getParty(player.partyId().get()).ifPresent(party -> {
-                if (party.allMembers().size() <= 1) {
-                    // Last member leaving the party, delete the party
-                    PartyAPI.get().deleteParty(party.id());
-                } else {
-                    // Player is in a party with multiple members
-                    if (party.isLeader(player.uniqueId())) {
-                        // Player is the leader of the party, transfer leadership to another member
-                        final Optional<PartyPlayer> newLeader = party.members().stream().findAny().map(uuid -> {
-                            try {
-                                return PartyAPI.get().onlinePlayerProvider().get(uuid).orElse(null);
-                            } catch (final JsonProcessingException e) {
-                                return null;
-                            }
-                        });
-
-                        if (newLeader.isPresent()) {
-                            try {
-                                // Change party leader
-                                PartyAPI.get().changePartyLeader(
-                                        party.id(),
-                                        player.uniqueId(),
-                                        newLeader.get().uniqueId(),
-                                        newLeader.get().memberLimit()
-                                );
-
-                                final List<UUID> playersToMessage = this.databaseAdapter != null ?
-                                        this.databaseAdapter.getPlayersWithEnabledSetting(party.members(), DatabaseSettingsType.NOTIFICATIONS) :
-                                        party.members();
-                                PartyAPI.get().sendMessageToPlayers(playersToMessage, "party.left", player.name());
-
-                                PartyAPI.get().sendMessageToMembers(party, "party.new_leader", newLeader.get().name());
-                            } catch (final JsonProcessingException ignored) {
-                            }
-                        } else {
-                            // Party has no more members, delete the party
-                            PartyAPI.get().deleteParty(party.id());
-                        }
-                    } else {
-                        // Player is not the leader of the party, remove player from party
-                        party.members().remove(player.uniqueId());
-
-                        final List<UUID> playersToMessage = this.databaseAdapter != null ?
-                                this.databaseAdapter.getPlayersWithEnabledSetting(party.allMembers(), DatabaseSettingsType.NOTIFICATIONS) :
-                                party.allMembers();
-                        PartyAPI.get().sendMessageToPlayers(playersToMessage, "party.left", player.name());
-                    }
-
-                    // Save updated party to Redis
-                    try {
-                        this.redisManager.jedis().set("party:" + party.id(), Document.MAPPER.writeValueAsString(party));
-                    } catch (final JsonProcessingException ignored) {
-                    }
-                }
-            });
-        } catch (final JsonProcessingException ignored) {
+    @Override
+    public void logout(final @NotNull Collection<UUID> uniqueIds) {
+        final Map<UUID, List<PartyPlayer>> playersByParty = Maps.newHashMap();
+        final List<PartyPlayer> playersWithoutParty = Lists.newArrayList();
+        for (final PartyPlayer player : this.playerStore.loadForLogout(uniqueIds)) {
+            if (player.partyId().isPresent()) {
+                playersByParty.computeIfAbsent(player.partyId().get(), partyId -> Lists.newArrayList()).add(player);
+            } else {
+                playersWithoutParty.add(player);
+            }
         }
 
-        // Delete player object from Redis
-        this.redisManager.jedis().del(playerKey);
+        // Delete the player objects, name indexes and requests of all players without a party
+        if (!playersWithoutParty.isEmpty()) this.playerStore.delete(playersWithoutParty);
+
+        // Players of the same party leave it together in a single script
+        playersByParty.forEach(this::logoutFromParty);
     }
 
-    boolean updatePartyId(final @NotNull UnifiedJedis jedis, final @NotNull UUID uniqueId, final @Nullable UUID partyId) throws JsonProcessingException {
-        final String key = "party_player:" + uniqueId;
-        final String json = jedis.get(key);
-        if (json == null) return false;
+    private void logoutFromParty(final @NotNull UUID partyId, final @NotNull List<PartyPlayer> players) {
+        final PartyLogout logout = this.partyStore.logout(partyId, players);
+        if (logout.outcome() != PartyLogout.Outcome.LEFT && logout.outcome() != PartyLogout.Outcome.LEADER) return;
 
-        final PartyPlayer existingPlayer = Document.MAPPER.readValue(json, PartyPlayer.class);
-        if (existingPlayer.partyId().isPresent() && existingPlayer.partyId().get().equals(partyId)) return false;
+        final List<UUID> playersToMessage = this.playersToNotify(logout.remainingMembers());
+        for (final PartyPlayer player : players) {
+            PartyAPI.get().sendMessageToPlayers(playersToMessage, "party.left", player.name());
+        }
 
-        existingPlayer.partyId(partyId);
-        jedis.set(key, Document.MAPPER.writeValueAsString(existingPlayer));
-        return true;
+        if (logout.outcome() == PartyLogout.Outcome.LEADER) {
+            PartyAPI.get().sendMessageToPlayers(logout.remainingMembers(), "party.new_leader", Objects.requireNonNull(logout.newLeaderName()));
+        }
     }
 
     @Override
-    public boolean updatePartyId(final @NotNull UUID uniqueId, final @Nullable UUID partyId) throws JsonProcessingException {
-        return this.updatePartyId(this.redisManager.jedis(), uniqueId, partyId);
+    public boolean updatePartyId(final @NotNull UUID uniqueId, final @Nullable UUID partyId) {
+        return this.playerStore.updatePartyId(uniqueId, partyId);
+    }
+
+    private @NotNull List<UUID> playersToNotify(final @NotNull List<UUID> players) {
+        return this.databaseAdapter != null ?
+                this.databaseAdapter.getPlayersWithEnabledSetting(players, DatabaseSettingsType.NOTIFICATIONS) :
+                players;
     }
 
     void databaseAdapter(final @NotNull DatabaseAdapter databaseAdapter) {
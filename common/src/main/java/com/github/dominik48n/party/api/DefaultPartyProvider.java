@@ -19,24 +19,45 @@ package com.github.dominik48n.party.api;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.github.dominik48n.party.api.player.OnlinePlayerProvider;
 import com.github.dominik48n.party.api.player.PartyPlayer;
+import com.github.dominik48n.party.codec.PartyCodec;
+import com.github.dominik48n.party.codec.PartyCodecType;
 import com.github.dominik48n.party.config.Document;
 import com.github.dominik48n.party.config.MessageConfig;
+import com.github.dominik48n.party.config.PartyCacheConfig;
+import com.github.dominik48n.party.config.PlayerLeaseConfig;
+import com.github.dominik48n.party.config.PubSubConfig;
+import com.github.dominik48n.party.config.RedisConfig;
 import com.github.dominik48n.party.database.DatabaseAdapter;
 import com.github.dominik48n.party.redis.RedisManager;
 import com.github.dominik48n.party.redis.RedisMessageSub;
 import com.github.dominik48n.party.redis.RedisSwitchServerSub;
+import com.github.dominik48n.party.storage.CachedPartyStore;
+import com.github.dominik48n.party.storage.HashPartyStore;
+import com.github.dominik48n.party.storage.InMemoryPartyStore;
+import com.github.dominik48n.party.storage.InMemoryPlayerStore;
+import com.github.dominik48n.party.storage.JsonPartyStore;
+import com.github.dominik48n.party.storage.PartyCreation;
+import com.github.dominik48n.party.storage.PartyStorageType;
+import com.github.dominik48n.party.storage.PartyStore;
+import com.github.dominik48n.party.storage.PlayerLeases;
+import com.github.dominik48n.party.storage.PlayerStore;
+import com.github.dominik48n.party.storage.RedisPlayerStore;
 import com.github.dominik48n.party.user.UserManager;
 import com.github.dominik48n.party.util.Constants;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import java.text.MessageFormat;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
 import java.util.UUID;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.minimessage.MiniMessage;
 import org.jetbrains.annotations.NotNull;
-import redis.clients.jedis.UnifiedJedis;
+import org.jetbrains.annotations.Nullable;
 
 public class DefaultPartyProvider<TUser> implements PartyProvider {
 
@@ -44,17 +65,61 @@ public class DefaultPartyProvider<TUser> implements PartyProvider {
 
     private final @NotNull RedisManager redisManager;
     private final @NotNull MessageConfig messageConfig;
+    private final @NotNull PartyStore partyStore;
+    private final @NotNull PlayerStore playerStore;
+    private final @Nullable PlayerLeases playerLeases;
+    private final boolean renderOnReceiver;
 
     public DefaultPartyProvider(
             final @NotNull RedisManager redisManager,
             final @NotNull UserManager<TUser> userManager,
             final @NotNull MessageConfig messageConfig
     ) {
-        this.onlinePlayerProvider = new DefaultOnlinePlayersProvider<>(redisManager, userManager);
+        this(redisManager, userManager, messageConfig, PartyStorageType.JSON, PartyCodecType.JSON, PartyCacheConfig.DEFAULT, PlayerLeaseConfig.DEFAULT, PubSubConfig.DEFAULT);
+    }
+
+    public DefaultPartyProvider(
+            final @NotNull RedisManager redisManager,
+            final @NotNull UserManager<TUser> userManager,
+            final @NotNull MessageConfig messageConfig,
+            final @NotNull RedisConfig redisConfig
+    ) {
+        this(redisManager, userManager, messageConfig, redisConfig.partyStorage(), redisConfig.codec(), redisConfig.partyCache(), redisConfig.playerLeases(), redisConfig.pubSub());
+    }
+
+    private DefaultPartyProvider(
+            final @NotNull RedisManager redisManager,
+            final @NotNull UserManager<TUser> userManager,
+            final @NotNull MessageConfig messageConfig,
+            final @NotNull PartyStorageType storageType,
+            final @NotNull PartyCodecType codecType,
+            final @NotNull PartyCacheConfig partyCache,
+            final @NotNull PlayerLeaseConfig playerLeases,
+            final @NotNull PubSubConfig pubSub
+    ) {
+        final PartyCodec codec = codecType.create();
         this.redisManager = redisManager;
         this.messageConfig = messageConfig;
+        this.renderOnReceiver = pubSub.renderOnReceiver();
+        if (storageType == PartyStorageType.MEMORY) {
+            final InMemoryPlayerStore playerStore = new InMemoryPlayerStore();
+            this.playerStore = playerStore;
+            this.partyStore = new InMemoryPartyStore(playerStore);
+            this.playerLeases = null;
+        } else {
+            final PartyStore partyStore = storageType == PartyStorageType.HASH ?
+                    new HashPartyStore(redisManager, codec) :
+                    new JsonPartyStore(redisManager, codec);
+            // The players of a single proxy can't outlive it in memory, so only Redis needs leases.
+            this.playerLeases = playerLeases.enabled() ? new PlayerLeases(redisManager, playerLeases) : null;
+            this.playerStore = new RedisPlayerStore(redisManager, codec, this.playerLeases);
+            this.partyStore = partyCache.enabled() ? new CachedPartyStore(partyStore, redisManager, partyCache) : partyStore;
+        }
+        this.onlinePlayerProvider = new DefaultOnlinePlayersProvider<>(userManager, this.playerStore, this.partyStore);
 
         PartyAPI.set(this);
+        if (this.playerLeases != null) this.playerLeases.start(this.onlinePlayerProvider::logout, players -> this.restorePlayers(userManager, players));
+        if (storageType != PartyStorageType.MEMORY) redisManager.registerResyncHook(() -> this.resyncPartyIds(userManager));
     }
 
     @Override
@@ -68,34 +133,14 @@ public class DefaultPartyProvider<TUser> implements PartyProvider {
     }
 
     @Override
-    public void addPlayerToParty(final @NotNull UUID partyId, final @NotNull UUID player) throws JsonProcessingException {
-        final String partyKey = "party:" + partyId;
-        final String partyJson = this.redisManager.jedis().get(partyKey);
-        if (partyJson != null) {
-            final Party party = Document.MAPPER.readValue(partyJson, Party.class);
-            party.members().add(player);
-            this.redisManager.jedis().set(partyKey, Document.MAPPER.writeValueAsString(party));
-        }
-
-        this.onlinePlayerProvider.updatePartyId(this.redisManager.jedis(), player, partyId);
+    public void addPlayerToParty(final @NotNull UUID partyId, final @NotNull UUID player) {
+        this.partyStore.addMember(partyId, player);
     }
 
     @Override
-    public void removePlayerFromParty(
-            final @NotNull UUID partyId,
-            final @NotNull UUID player,
-            final @NotNull String username
-    ) throws JsonProcessingException {
-        final String partyKey = "party:" + partyId;
-        final String partyJson = this.redisManager.jedis().get(partyKey);
-        if (partyJson != null) {
-            final Party party = Document.MAPPER.readValue(partyJson, Party.class);
-            party.members().remove(player);
-            this.redisManager.jedis().set(partyKey, Document.MAPPER.writeValueAsString(party));
-        }
-
-        this.clearPartyRequest(this.redisManager.jedis(), username);
-        this.onlinePlayerProvider.updatePartyId(this.redisManager.jedis(), player, null);
+    public void removePlayerFromParty(final @NotNull UUID partyId, final @NotNull UUID player, final @NotNull String username) {
+        this.partyStore.removeMember(partyId, player);
+        this.clearPartyRequest(username);
     }
 
     @Override
@@ -104,93 +149,185 @@ public class DefaultPartyProvider<TUser> implements PartyProvider {
             final @NotNull UUID oldLeader,
             final @NotNull UUID newLeader,
             final int maxMembers
-    ) throws JsonProcessingException {
+    ) {
         Preconditions.checkArgument(
                 maxMembers >= 0 && maxMembers <= Constants.MAXIMUM_MEMBER_LIMIT,
                 "maxMembers cannot be negative!"
         );
-        final String json = this.redisManager.jedis().get("party:" + partyId);
-        if (json == null) return; // Party isn't exist.
-
-        final Party party = Document.MAPPER.readValue(json, Party.class);
-        party.members().remove(newLeader);
-        party.members().add(oldLeader);
-        this.redisManager.jedis().set("party:" + partyId, Document.MAPPER.writeValueAsString(new Party(partyId, newLeader, party.members(), maxMembers)));
+        this.partyStore.changeLeader(partyId, oldLeader, newLeader, maxMembers);
     }
 
     @Override
     public @NotNull Optional<Party> getParty(final @NotNull UUID id) throws JsonProcessingException {
-        final String json = this.redisManager.jedis().get("party:" + id);
-        if (json == null) return Optional.empty();
+        return this.partyStore.get(id);
+    }
 
-        final Party party = Document.MAPPER.readValue(json, Party.class);
-        return Optional.of(party);
+    @Override
+    public @NotNull Optional<Party> getPartyFromReplica(final @NotNull UUID id) throws JsonProcessingException {
+        return this.partyStore.getFromReplica(id);
     }
 
     @Override
-    public @NotNull Party createParty(final @NotNull UUID leader, final int maxMembers) throws JsonProcessingException, IllegalArgumentException {
+    public @NotNull Party createParty(
+            final @NotNull UUID leader,
+            final int maxMembers
+    ) throws JsonProcessingException, IllegalArgumentException, IllegalStateException {
         Preconditions.checkArgument(maxMembers >= 0, "maxMembers cannot be negative!");
-        UUID partyId;
+        // The party is only stored if its id is still free, so a collision just rolls a new id.
+        Party party;
+        PartyCreation creation;
         do {
-            partyId = UUID.randomUUID();
-        } while (this.redisManager.jedis().exists("party:" + partyId));
-
-        final Party party = new Party(partyId, leader, Lists.newArrayList(), maxMembers);
-        this.redisManager.jedis().set("party:" + partyId, Document.MAPPER.writeValueAsString(party));
+            party = new Party(UUID.randomUUID(), leader, Lists.newArrayList(), maxMembers);
+            creation = this.partyStore.create(party);
+        } while (creation == PartyCreation.ID_TAKEN);
+        Preconditions.checkState(creation == PartyCreation.CREATED, "The leader is offline or already in a party!");
         return party;
     }
 
     @Override
     public void sendMessageToPlayers(final @NotNull List<UUID> players, final @NotNull String messageKey, final @NotNull Object... replacements) {
-        final Component component = this.messageConfig.getMessage(messageKey, replacements);
-        final String message = MiniMessage.miniMessage().serialize(component);
-       players.forEach(uuid -> this.redisManager.publish(
-                RedisMessageSub.CHANNEL,
-                new Document().append("unique_id", uuid.toString()).append("message", message))
-        );
+        // The receiving proxies render a keyed message themselves, so it is neither rendered nor serialized here.
+        // Its replacements are formatted like MessageFormat would, so the receivers render the same message from strings.
+        final String message = this.renderOnReceiver ?
+                null :
+                MiniMessage.miniMessage().serialize(this.messageConfig.getMessage(messageKey, replacements));
+        final List<String> arguments = this.renderOnReceiver ?
+                Arrays.stream(replacements).map(replacement -> MessageFormat.format("{0}", replacement)).toList() :
+                List.of();
+
+        // One message per proxy carries all of its recipients, so a party-wide message costs one publish per proxy.
+        this.playersByProxy(players).forEach((proxyId, recipients) -> {
+            final Document document = new Document().append("unique_ids", recipients.stream().map(UUID::toString).toList());
+            if (message != null) {
+                document.append("message", message);
+            } else {
+                document.append("message_key", messageKey).append("replacements", arguments);
+            }
+            this.redisManager.publish(RedisMessageSub.CHANNEL, proxyId, document);
+        });
     }
 
     @Override
     public void connectPartyToServer(final @NotNull Party party, final @NotNull String serverName) {
         final Component component = this.messageConfig.getMessage("party.connect_to_server", serverName);
         final String message = MiniMessage.miniMessage().serialize(component);
-        party.allMembers().forEach(uuid -> {
-            this.redisManager.publish(RedisSwitchServerSub.CHANNEL, new Document().append("unique_id", uuid.toString()).append("server", serverName));
-            this.redisManager.publish(RedisMessageSub.CHANNEL, new Document().append("unique_id", uuid.toString()).append("message", message));
-        });
+        // Every proxy receives one warp with its members, the target server and the notice for them.
+        this.playersByProxy(party.allMembers()).forEach((proxyId, members) -> this.redisManager.publish(
+                RedisSwitchServerSub.CHANNEL,
+                proxyId,
+                new Document()
+                        .append("unique_ids", members.stream().map(UUID::toString).toList())
+                        .append("server", serverName)
+                        .append("message", message)
+        ));
     }
 
     @Override
     public void deleteParty(final @NotNull UUID id) {
-        this.redisManager.jedis().del("party:" + id);
+        this.partyStore.delete(id);
     }
 
     @Override
     public void removePartyRequest(final @NotNull String source, final @NotNull String target) {
-        this.redisManager.jedis().del("request:" + source + ":" + target);
+        this.playerStore.removeRequest(source, target);
     }
 
     @Override
     public void createPartyRequest(final @NotNull String source, final @NotNull String target, final int expires) {
-        this.redisManager.jedis().setex("request:" + source + ":" + target, expires, "");
-    }
-
-    private void clearPartyRequest(final @NotNull UnifiedJedis jedis, final @NotNull String source) {
-        final Set<String> keys = jedis.keys("request:" + source + ":*");
-        if (!keys.isEmpty()) jedis.del(keys.toArray(String[]::new));
+        this.playerStore.createRequest(source, target, expires);
     }
 
     @Override
     public void clearPartyRequest(final @NotNull String source) {
-        this.clearPartyRequest(this.redisManager.jedis(), source);
+        this.playerStore.clearRequests(source);
     }
 
     @Override
     public boolean existsPartyRequest(final @NotNull String source, final @NotNull String target) {
-        return this.redisManager.jedis().exists("request:" + source + ":" + target);
+        return this.playerStore.existsRequest(source, target);
+    }
+
+    @Override
+    public @NotNull List<String> getPartyRequests(final @NotNull String source) {
+        return this.playerStore.requests(source);
+    }
+
+    /**
+     * Converts all parties that are still stored in an older layout into the configured {@link PartyStorageType}.
+     *
+     * @return the number of converted parties
+     */
+    public int migratePartyStorage() {
+        final PartyStore partyStore = this.partyStore instanceof final CachedPartyStore cachedPartyStore ? cachedPartyStore.delegate() : this.partyStore;
+        return partyStore instanceof final HashPartyStore hashPartyStore ? hashPartyStore.migrate() : 0;
+    }
+
+    /**
+     * Stops the heartbeats of this proxy. The players of this proxy should be logged out before, otherwise another proxy logs them out
+     * once their leases run out.
+     */
+    public void close() {
+        if (this.playerLeases != null) this.playerLeases.close();
     }
 
     public void databaseAdapter(final @NotNull DatabaseAdapter databaseAdapter) {
         this.onlinePlayerProvider.databaseAdapter(databaseAdapter);
     }
+
+    /**
+     * Reads the party ids of the players of this proxy from Redis again, because their updates may have been published while the subscriber
+     * was disconnected.
+     *
+     * @param userManager the {@link UserManager} that caches the players of this proxy
+     */
+    private void resyncPartyIds(final @NotNull UserManager<TUser> userManager) {
+        final Collection<PartyPlayer> players = List.copyOf(userManager.cachedPlayers());
+        final Map<UUID, PartyPlayer> stored;
+        try {
+            stored = this.playerStore.get(players.stream().map(PartyPlayer::uniqueId).toList());
+        } catch (final JsonProcessingException ignored) {
+            return; // The cached party ids are kept, they are still updated by the messages of other proxies.
+        }
+
+        for (final PartyPlayer player : players) {
+            final PartyPlayer storedPlayer = stored.get(player.uniqueId());
+            if (storedPlayer != null) player.partyId(storedPlayer.partyId().orElse(null));
+        }
+    }
+
+    /**
+     * Saves players of this proxy again after another proxy took this proxy for dead and logged them out.
+     *
+     * @param userManager the {@link UserManager} that caches the players of this proxy
+     * @param uniqueIds   the {@link UUID}s of the players who were logged out
+     */
+    private void restorePlayers(final @NotNull UserManager<TUser> userManager, final @NotNull Collection<UUID> uniqueIds) {
+        for (final PartyPlayer player : List.copyOf(userManager.cachedPlayers())) {
+            if (!uniqueIds.contains(player.uniqueId())) continue;
+
+            // The logout removed the player from its party
+            player.partyId(null);
+            try {
+                this.playerStore.save(player);
+            } catch (final JsonProcessingException ignored) {
+                // The player couldn't have logged in either
+            }
+        }
+    }
+
+    /**
+     * Groups players by the proxy that hosts them, see {@link RedisManager#proxies(Collection)}.
+     *
+     * @param players the {@link UUID}s of the players
+     *
+     * @return the players of every proxy, players without a known proxy are grouped under null
+     */
+    private @NotNull Map<String, List<UUID>> playersByProxy(final @NotNull Collection<UUID> players) {
+        final Map<UUID, String> proxies = this.redisManager.proxies(players);
+        final Map<String, List<UUID>> playersByProxy = Maps.newHashMap();
+        for (final UUID player : players) {
+            playersByProxy.computeIfAbsent(proxies.get(player), proxyId -> Lists.newArrayList()).add(player);
+        }
+        return playersByProxy;
+    }
 }
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2023 Dominik48N
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.dominik48n.party.codec;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.github.dominik48n.party.api.Party;
+import com.github.dominik48n.party.api.player.PartyPlayer;
+import com.github.dominik48n.party.user.UserDeserializer;
+import com.google.common.collect.Lists;
+import com.google.common.io.ByteArrayDataOutput;
+import com.google.common.io.ByteStreams;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Stores players and parties without field names, UUIDs as 16 bytes and numbers as varints.
+ * <p>
+ * Player: {@code 0x01 | unique id | 0x00 or 0x01 followed by the party id | member limit | name length | name}
+ * <br>
+ * Party: {@code 0x01 | id | leader | member limit | member count | members}
+ * <p>
+ * Numbers are written as unsigned varints, limits are zigzag encoded first because they can be negative.
+ * The Lua scripts in {@code redis/codec.lua} read and write the same layout.
+ */
+public class BinaryPartyCodec implements PartyCodec {
+
+    static final byte MAGIC = 0x01;
+
+    @Override
+    public byte @NotNull [] encodePlayer(final @NotNull PartyPlayer player) {
+        final byte[] name = player.name().getBytes(StandardCharsets.UTF_8);
+        final ByteArrayDataOutput output = ByteStreams.newDataOutput(38 + name.length);
+        output.writeByte(MAGIC);
+        writeUniqueId(output, player.uniqueId());
+        if (player.partyId().isPresent()) {
+            output.writeByte(1);
+            writeUniqueId(output, player.partyId().get());
+        } else {
+            output.writeByte(0);
+        }
+        writeVarInt(output, zigzag(player.memberLimit()));
+        writeVarInt(output, name.length);
+        output.write(name);
+        return output.toByteArray();
+    }
+
+    @Override
+    public @NotNull PartyPlayer decodePlayer(final byte @NotNull [] value) throws JsonProcessingException {
+        final ByteBuffer buffer = this.open(value);
+        try {
+            final UUID uniqueId = readUniqueId(buffer);
+            final UUID partyId = buffer.get() == 1 ? readUniqueId(buffer) : null;
+            final int memberLimit = unzigzag(readVarInt(buffer));
+            final int nameLength = readVarInt(buffer);
+            if (nameLength < 0 || nameLength > buffer.remaining()) throw new IllegalArgumentException("Invalid name length: " + nameLength);
+
+            final byte[] name = new byte[nameLength];
+            buffer.get(name);
+            return new UserDeserializer.DeserializedUser(uniqueId, new String(name, StandardCharsets.UTF_8), partyId, memberLimit);
+        } catch (final BufferUnderflowException | IllegalArgumentException e) {
+            throw new MalformedValueException("Failed to read player.", e);
+        }
+    }
+
+    @Override
+    public byte @NotNull [] encodeParty(final @NotNull Party party) {
+        final ByteArrayDataOutput output = ByteStreams.newDataOutput(43 + party.members().size() * 16);
+        output.writeByte(MAGIC);
+        writeUniqueId(output, party.id());
+        writeUniqueId(output, party.leader());
+        writeVarInt(output, zigzag(party.maxMembers()));
+        writeVarInt(output, party.members().size());
+        party.members().forEach(member -> writeUniqueId(output, member));
+        return output.toByteArray();
+    }
+
+    @Override
+    public @NotNull Party decodeParty(final byte @NotNull [] value) throws JsonProcessingException {
+        final ByteBuffer buffer = this.open(value);
+        try {
+            final UUID id = readUniqueId(buffer);
+            final UUID leader = readUniqueId(buffer);
+            final int maxMembers = unzigzag(readVarInt(buffer));
+            final int memberCount = readVarInt(buffer);
+            if (memberCount > buffer.remaining() / 16) throw new IllegalArgumentException("Invalid member count: " + memberCount);
+
+            final List<UUID> members = Lists.newArrayListWithCapacity(memberCount);
+            for (int i = 0; i < memberCount; i++) members.add(readUniqueId(buffer));
+            return new Party(id, leader, members, maxMembers);
+        } catch (final BufferUnderflowException | IllegalArgumentException e) {
+            throw new MalformedValueException("Failed to read party.", e);
+        }
+    }
+
+    @Override
+    public boolean canDecode(final byte @NotNull [] value) {
+        return value.length > 0 && value[0] == MAGIC;
+    }
+
+    private @NotNull ByteBuffer open(final byte @NotNull [] value) throws MalformedValueException {
+        if (!this.canDecode(value)) throw new MalformedValueException("The value is not in the binary format.", null);
+        return ByteBuffer.wrap(value, 1, value.length - 1);
+    }
+
+    private static void writeUniqueId(final @NotNull ByteArrayDataOutput output, final @NotNull UUID uniqueId) {
+        output.writeLong(uniqueId.getMostSignificantBits());
+        output.writeLong(uniqueId.getLeastSignificantBits());
+    }
+
+    private static @NotNull UUID readUniqueId(final @NotNull ByteBuffer buffer) {
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    private static void writeVarInt(final @NotNull ByteArrayDataOutput output, int value) {
+        while ((value & ~0x7F) != 0) {
+            output.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        output.writeByte(value);
+    }
+
+    private static int readVarInt(final @NotNull ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            final byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IllegalArgumentException("VarInt is too long");
+    }
+
+    private static int zigzag(final int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int unzigzag(final int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2023 Dominik48N
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.dominik48n.party.codec;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.github.dominik48n.party.api.Party;
+import com.github.dominik48n.party.api.player.PartyPlayer;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Encodes with one codec and decodes values of another codec as well.
+ */
+class FallbackPartyCodec implements PartyCodec {
+
+    private final @NotNull PartyCodec primary;
+    private final @NotNull PartyCodec fallback;
+
+    FallbackPartyCodec(final @NotNull PartyCodec primary, final @NotNull PartyCodec fallback) {
+        this.primary = primary;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public byte @NotNull [] encodePlayer(final @NotNull PartyPlayer player) throws JsonProcessingException {
+        return this.primary.encodePlayer(player);
+    }
+
+    @Override
+    public @NotNull PartyPlayer decodePlayer(final byte @NotNull [] value) throws JsonProcessingException {
+        return this.codec(value).decodePlayer(value);
+    }
+
+    @Override
+    public byte @NotNull [] encodeParty(final @NotNull Party party) throws JsonProcessingException {
+        return this.primary.encodeParty(party);
+    }
+
+    @Override
+    public @NotNull Party decodeParty(final byte @NotNull [] value) throws JsonProcessingException {
+        return this.codec(value).decodeParty(value);
+    }
+
+    @Override
+    public boolean canDecode(final byte @NotNull [] value) {
+        return this.primary.canDecode(value) || this.fallback.canDecode(value);
+    }
+
+    private @NotNull PartyCodec codec(final byte @NotNull [] value) {
+        return this.fallback.canDecode(value) && !this.primary.canDecode(value) ? this.fallback : this.primary;
+    }
+}
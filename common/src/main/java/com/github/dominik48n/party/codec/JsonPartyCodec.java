@@ -0,0 +1,65 @@
+/*
+ * Copyright 2023 Dominik48N
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.dominik48n.party.codec;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.github.dominik48n.party.api.Party;
+import com.github.dominik48n.party.api.player.PartyPlayer;
+import com.github.dominik48n.party.config.Document;
+import java.io.IOException;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Stores players and parties as JSON objects. This is the format of all older versions.
+ */
+public class JsonPartyCodec implements PartyCodec {
+
+    @Override
+    public byte @NotNull [] encodePlayer(final @NotNull PartyPlayer player) throws JsonProcessingException {
+        return Document.MAPPER.writeValueAsBytes(player);
+    }
+
+    @Override
+    public @NotNull PartyPlayer decodePlayer(final byte @NotNull [] value) throws JsonProcessingException {
+        return read(value, PartyPlayer.class);
+    }
+
+    @Override
+    public byte @NotNull [] encodeParty(final @NotNull Party party) throws JsonProcessingException {
+        return Document.MAPPER.writeValueAsBytes(party);
+    }
+
+    @Override
+    public @NotNull Party decodeParty(final byte @NotNull [] value) throws JsonProcessingException {
+        return read(value, Party.class);
+    }
+
+    @Override
+    public boolean canDecode(final byte @NotNull [] value) {
+        return value.length > 0 && value[0] == '{';
+    }
+
+    private static <T> @NotNull T read(final byte @NotNull [] value, final @NotNull Class<T> type) throws JsonProcessingException {
+        try {
+            return Document.MAPPER.readValue(value, type);
+        } catch (final JsonProcessingException e) {
+            throw e;
+        } catch (final IOException e) {
+            throw new MalformedValueException("Failed to read " + type.getSimpleName() + ".", e);
+        }
+    }
+}
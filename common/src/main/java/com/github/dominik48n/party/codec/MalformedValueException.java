@@ -0,0 +1,32 @@
+/*
+ * Copyright 2023 Dominik48N
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.dominik48n.party.codec;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Thrown if a value in Redis cannot be decoded by a {@link PartyCodec}.
+ * It extends {@link JsonProcessingException}, because the API reports all serialization problems with that type.
+ */
+public class MalformedValueException extends JsonProcessingException {
+
+    public MalformedValueException(final @NotNull String message, final @Nullable Throwable cause) {
+        super(message, cause);
+    }
+}
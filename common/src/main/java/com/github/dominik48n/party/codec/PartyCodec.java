@@ -0,0 +1,81 @@
+/*
+ * Copyright 2023 Dominik48N
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.dominik48n.party.codec;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.github.dominik48n.party.api.Party;
+import com.github.dominik48n.party.api.player.PartyPlayer;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Converts {@link PartyPlayer}s and {@link Party}s into the values that are stored in Redis and back.
+ */
+public interface PartyCodec {
+
+    /**
+     * Encodes a player.
+     *
+     * @param player the {@link PartyPlayer} to encode
+     *
+     * @return the encoded player
+     *
+     * @throws JsonProcessingException if the player could not be encoded
+     */
+    byte @NotNull [] encodePlayer(final @NotNull PartyPlayer player) throws JsonProcessingException;
+
+    /**
+     * Decodes a player.
+     *
+     * @param value the value that was stored in Redis
+     *
+     * @return the decoded {@link PartyPlayer}
+     *
+     * @throws JsonProcessingException if the value is not a valid player
+     */
+    @NotNull PartyPlayer decodePlayer(final byte @NotNull [] value) throws JsonProcessingException;
+
+    /**
+     * Encodes a party.
+     *
+     * @param party the {@link Party} to encode
+     *
+     * @return the encoded party
+     *
+     * @throws JsonProcessingException if the party could not be encoded
+     */
+    byte @NotNull [] encodeParty(final @NotNull Party party) throws JsonProcessingException;
+
+    /**
+     * Decodes a party.
+     *
+     * @param value the value that was stored in Redis
+     *
+     * @return the decoded {@link Party}
+     *
+     * @throws JsonProcessingException if the value is not a valid party
+     */
+    @NotNull Party decodeParty(final byte @NotNull [] value) throws JsonProcessingException;
+
+    /**
+     * Checks whether a value was written by this codec.
+     *
+     * @param value the value that was stored in Redis
+     *
+     * @return true if this codec can decode the value, false otherwise
+     */
+    boolean canDecode(final byte @NotNull [] value);
+}
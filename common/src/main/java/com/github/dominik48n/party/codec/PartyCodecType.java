@@ -0,0 +1,44 @@
+/*
+ * Copyright 2023 Dominik48N
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.dominik48n.party.codec;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The formats in which players and parties can be stored in Redis.
+ * Values are always decoded by the codec that wrote them, so the format can be changed while players are online.
+ */
+public enum PartyCodecType {
+
+    /* Human-readable JSON objects */
+    JSON,
+
+    /* Compact binary values with 16 byte UUIDs and varint numbers, see BinaryPartyCodec */
+    BINARY;
+
+    /**
+     * Creates the {@link PartyCodec} that writes values in this format.
+     *
+     * @return the {@link PartyCodec}
+     */
+    public @NotNull PartyCodec create() {
+        return switch (this) {
+            case JSON -> new FallbackPartyCodec(new JsonPartyCodec(), new BinaryPartyCodec());
+            case BINARY -> new FallbackPartyCodec(new BinaryPartyCodec(), new JsonPartyCodec());
+        };
+    }
+}
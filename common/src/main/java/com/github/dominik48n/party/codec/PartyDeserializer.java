@@ -0,0 +1,65 @@
+/*
+ * Copyright 2023 Dominik48N
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.dominik48n.party.codec;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.github.dominik48n.party.api.Party;
+import com.google.common.collect.Lists;
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Reads a {@link Party} token by token instead of going through the reflection based record deserialization.
+ */
+public class PartyDeserializer extends JsonDeserializer<Party> {
+
+    @Override
+    public Party deserialize(final JsonParser parser, final DeserializationContext ctx) throws IOException {
+        UUID id = null;
+        UUID leader = null;
+        List<UUID> members = null;
+        Integer maxMembers = null;
+
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.START_OBJECT) token = parser.nextToken();
+        for (; token == JsonToken.FIELD_NAME; token = parser.nextToken()) {
+            final String field = parser.currentName();
+            final JsonToken value = parser.nextToken();
+            switch (field) {
+                case "id" -> id = UUID.fromString(parser.getValueAsString());
+                case "leader" -> leader = UUID.fromString(parser.getValueAsString());
+                case "members" -> {
+                    if (value != JsonToken.START_ARRAY) return ctx.reportInputMismatch(this, "The members of a party must be an array.");
+
+                    members = Lists.newArrayList();
+                    while (parser.nextToken() != JsonToken.END_ARRAY) members.add(UUID.fromString(parser.getValueAsString()));
+                }
+                case "maxMembers" -> maxMembers = parser.getValueAsInt();
+                default -> parser.skipChildren();
+            }
+        }
+
+        if (id == null || leader == null || members == null || maxMembers == null) {
+            return ctx.reportInputMismatch(this, "A party needs the fields id, leader, members and maxMembers.");
+        }
+        return new Party(id, leader, members, maxMembers);
+    }
+}
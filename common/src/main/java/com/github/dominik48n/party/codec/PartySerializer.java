@@ -0,0 +1,46 @@
+/*
+ * Copyright 2023 Dominik48N
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.dominik48n.party.codec;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.github.dominik48n.party.api.Party;
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Writes a {@link Party} field by field in the same layout as the record serialization of older versions.
+ */
+public class PartySerializer extends StdSerializer<Party> {
+
+    public PartySerializer() {
+        super(Party.class);
+    }
+
+    @Override
+    public void serialize(final Party value, final JsonGenerator gen, final SerializerProvider provider) throws IOException {
+        gen.writeStartObject();
+        gen.writeStringField("id", value.id().toString());
+        gen.writeStringField("leader", value.leader().toString());
+        gen.writeArrayFieldStart("members");
+        for (final UUID member : value.members()) gen.writeString(member.toString());
+        gen.writeEndArray();
+        gen.writeNumberField("maxMembers", value.maxMembers());
+        gen.writeEndObject();
+    }
+}
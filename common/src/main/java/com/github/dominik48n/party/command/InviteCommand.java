@@ -89,12 +89,7 @@ public class InviteCommand extends PartyCommand {
             final Party createdParty;
             try {
                 createdParty = PartyAPI.get().createParty(player.uniqueId(), player.memberLimit());
-                if (!PartyAPI.get().onlinePlayerProvider().updatePartyId(player.uniqueId(), createdParty.id())) {
-                    player.sendMessage("general.error");
-                    PartyAPI.get().deleteParty(createdParty.id());
-                    return;
-                }
-            } catch (final JsonProcessingException e) {
+            } catch (final JsonProcessingException | IllegalStateException e) {
                 player.sendMessage("general.error");
                 return;
             }
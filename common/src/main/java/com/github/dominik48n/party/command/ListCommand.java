@@ -40,7 +40,7 @@ public class ListCommand extends PartyCommand {
     public void execute(final @NotNull PartyPlayer player, final @NotNull String[] args) {
         Optional<Party> party;
         try {
-            party = player.partyId().isPresent() ? PartyAPI.get().getParty(player.partyId().get()) : Optional.empty();
+            party = player.partyId().isPresent() ? PartyAPI.get().getPartyFromReplica(player.partyId().get()) : Optional.empty();
         } catch (final JsonProcessingException e) {
             party = Optional.empty();
         }
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2023 Dominik48N
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.dominik48n.party.config;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Configures the server-assisted client-side cache of player and party values, see {@code ClientSideCache}.
+ *
+ * @param enabled      whether values are cached on this proxy, only supported by a standalone Redis server
+ * @param maximumBytes the maximum size of the cached keys and values in bytes
+ * @param maxStalenessMillis the time after which a cached value is read from Redis again, in case an invalidation was missed
+ */
+public record ClientSideCacheConfig(boolean enabled, long maximumBytes, long maxStalenessMillis) {
+
+    public static final @NotNull ClientSideCacheConfig DEFAULT = new ClientSideCacheConfig(false, 16L * 1024 * 1024, 60_000L);
+
+    static @NotNull ClientSideCacheConfig fromDocument(final @NotNull Document document) {
+        return new ClientSideCacheConfig(
+                document.getBoolean("enabled", DEFAULT.enabled()),
+                document.getLong("maximum_bytes", DEFAULT.maximumBytes()),
+                document.getLong("max_staleness_millis", DEFAULT.maxStalenessMillis())
+        );
+    }
+
+    @NotNull Document toDocument() {
+        return new Document()
+                .append("enabled", this.enabled)
+                .append("maximum_bytes", this.maximumBytes)
+                .append("max_staleness_millis", this.maxStalenessMillis);
+    }
+}
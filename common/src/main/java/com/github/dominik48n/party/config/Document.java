@@ -25,7 +25,10 @@ import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.dominik48n.party.api.Party;
 import com.github.dominik48n.party.api.player.PartyPlayer;
+import com.github.dominik48n.party.codec.PartyDeserializer;
+import com.github.dominik48n.party.codec.PartySerializer;
 import com.github.dominik48n.party.user.UserDeserializer;
 import com.github.dominik48n.party.user.UserSerializer;
 import com.google.common.collect.Sets;
@@ -51,6 +54,8 @@ public class Document {
             .registerModule(new SimpleModule()
                     .addSerializer(PartyPlayer.class, new UserSerializer(PartyPlayer.class))
                     .addDeserializer(PartyPlayer.class, new UserDeserializer())
+                    .addSerializer(Party.class, new PartySerializer())
+                    .addDeserializer(Party.class, new PartyDeserializer())
             );
 
     static @NotNull Document read(final File file) throws IOException {
@@ -96,7 +101,7 @@ public class Document {
         return this;
     }
 
-    @NotNull Document append(final @NotNull String key, final @NotNull List<String> value) {
+    public @NotNull Document append(final @NotNull String key, final @NotNull List<String> value) {
         final ArrayNode arrayNode = this.objectNode.putArray(key);
         for (final String s : value) {
             arrayNode.add(s);
@@ -124,7 +129,7 @@ public class Document {
         return this.contains(key) ? new Document((ObjectNode) this.objectNode.get(key)) : new Document();
     }
 
-    @NotNull List<String> getStringList(final @NotNull String key) throws IOException {
+    public @NotNull List<String> getStringList(final @NotNull String key) throws IOException {
         final JsonNode node = this.objectNode.get(key);
         if (node == null || !node.isArray()) return Collections.emptyList();
 
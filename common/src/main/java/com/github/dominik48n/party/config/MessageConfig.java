@@ -16,15 +16,20 @@
 
 package com.github.dominik48n.party.config;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Maps;
 import java.text.MessageFormat;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.minimessage.MiniMessage;
 import org.jetbrains.annotations.NotNull;
 
 public class MessageConfig {
 
+    private static final int PARSED_MESSAGES = 1024;
+
     static @NotNull MessageConfig fromDocument(final @NotNull Document document) {
         final MessageConfig config = new MessageConfig();
 
@@ -50,12 +55,24 @@ public class MessageConfig {
     }
 
     private final @NotNull Map<String, MessageFormat> messages = Maps.newHashMap();
+    private final @NotNull Map<String, MessageTemplate> templates = new ConcurrentHashMap<>();
+    // Components are immutable, so a message that is sent to many players, e.g. a party-wide message, is only parsed once.
+    private final @NotNull Cache<String, Component> parsedMessages = CacheBuilder.newBuilder().maximumSize(PARSED_MESSAGES).build();
     private @NotNull String prefix = "<gray>[<gradient:#d896ff:#be29ec>Party</gradient>]";
 
     public @NotNull Component getMessage(final @NotNull String key, final @NotNull Object... replacements) {
-        final MessageFormat messageFormat = this.messages.getOrDefault(key, new MessageFormat(key));
-        final String messageString = messageFormat.format(replacements);
-        return MiniMessage.miniMessage().deserialize(messageString.replace("%prefix%", this.prefix));
+        final MessageFormat messageFormat = this.messages.get(key);
+        final MessageTemplate template = messageFormat != null ?
+                this.templates.computeIfAbsent(key, ignored -> MessageTemplate.compile(messageFormat)) :
+                MessageTemplate.compile(new MessageFormat(key));
+
+        final String message = template.format(replacements);
+        // The arguments can't be MiniMessage placeholders, because they are used in tag arguments like click commands
+        // and some replacements contain tags themselves, e.g. the member list.
+        return this.parsedMessages.asMap().computeIfAbsent(
+                message,
+                ignored -> MiniMessage.miniMessage().deserialize(message.replace("%prefix%", this.prefix))
+        );
     }
 
     @NotNull Document toDocument() {
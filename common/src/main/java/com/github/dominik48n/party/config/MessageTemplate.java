@@ -0,0 +1,95 @@
+/*
+ * Copyright 2023 Dominik48N
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.dominik48n.party.config;
+
+import java.text.DateFormat;
+import java.text.MessageFormat;
+import java.text.NumberFormat;
+import java.util.Arrays;
+import java.util.Date;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A {@link MessageFormat} that was split into its text and its arguments once, so it can be formatted by several threads at the same time.
+ * <p>
+ * Arguments are formatted like a plain {@code {0}} of a {@link MessageFormat}. Patterns with format types like {@code {0,number,#}} keep
+ * their {@link MessageFormat}, which is copied for every message because it isn't thread-safe.
+ */
+final class MessageTemplate {
+
+    private static final char MARKER = '\0';
+
+    private final @NotNull String[] texts;
+    private final int @NotNull [] arguments;
+    private final @Nullable MessageFormat messageFormat;
+
+    private MessageTemplate(final @NotNull String[] texts, final int @NotNull [] arguments, final @Nullable MessageFormat messageFormat) {
+        this.texts = texts;
+        this.arguments = arguments;
+        this.messageFormat = messageFormat;
+    }
+
+    static @NotNull MessageTemplate compile(final @NotNull MessageFormat messageFormat) {
+        if (Arrays.stream(messageFormat.getFormats()).anyMatch(format -> format != null)) {
+            return new MessageTemplate(new String[0], new int[0], messageFormat);
+        }
+
+        // Every argument is replaced by its index between two markers, so the formatted pattern splits into texts and argument indexes.
+        final Object[] markers = new Object[messageFormat.getFormatsByArgumentIndex().length];
+        for (int i = 0; i < markers.length; i++) markers[i] = MARKER + String.valueOf(i) + MARKER;
+        final String[] parts = messageFormat.format(markers).split(String.valueOf(MARKER), -1);
+
+        final String[] texts = new String[parts.length / 2 + 1];
+        final int[] arguments = new int[parts.length / 2];
+        for (int i = 0; i < parts.length; i++) {
+            if (i % 2 == 0) {
+                texts[i / 2] = parts[i];
+            } else {
+                arguments[i / 2] = Integer.parseInt(parts[i]);
+            }
+        }
+        return new MessageTemplate(texts, arguments, null);
+    }
+
+    boolean hasArguments() {
+        return this.arguments.length > 0 || this.messageFormat != null;
+    }
+
+    @NotNull String format(final @NotNull Object... replacements) {
+        if (this.messageFormat != null) return ((MessageFormat) this.messageFormat.clone()).format(replacements);
+
+        final StringBuilder builder = new StringBuilder(this.texts[0]);
+        for (int i = 0; i < this.arguments.length; i++) {
+            final int argument = this.arguments[i];
+            if (argument < replacements.length) {
+                builder.append(formatArgument(replacements[argument]));
+            } else {
+                // MessageFormat keeps arguments without a replacement as they are
+                builder.append('{').append(argument).append('}');
+            }
+            builder.append(this.texts[i + 1]);
+        }
+        return builder.toString();
+    }
+
+    private static @NotNull String formatArgument(final @Nullable Object replacement) {
+        if (replacement instanceof final Number number) return NumberFormat.getInstance().format(number);
+        if (replacement instanceof final Date date) return DateFormat.getDateTimeInstance(DateFormat.SHORT, DateFormat.SHORT).format(date);
+        return String.valueOf(replacement);
+    }
+}
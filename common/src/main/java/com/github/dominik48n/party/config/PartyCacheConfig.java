@@ -0,0 +1,46 @@
+/*
+ * Copyright 2023 Dominik48N
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.dominik48n.party.config;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Configures the proxy-local cache of parties.
+ *
+ * @param enabled            whether parties are cached on this proxy
+ * @param maximumSize        the maximum number of cached parties, the least recently used ones are evicted first
+ * @param maxStalenessMillis the time after which a cached party is read from Redis again, even if no invalidation was received
+ */
+public record PartyCacheConfig(boolean enabled, int maximumSize, long maxStalenessMillis) {
+
+    public static final @NotNull PartyCacheConfig DEFAULT = new PartyCacheConfig(false, 1000, 5000L);
+
+    static @NotNull PartyCacheConfig fromDocument(final @NotNull Document document) {
+        return new PartyCacheConfig(
+                document.getBoolean("enabled", DEFAULT.enabled()),
+                document.getInt("maximum_size", DEFAULT.maximumSize()),
+                document.getLong("max_staleness_millis", DEFAULT.maxStalenessMillis())
+        );
+    }
+
+    @NotNull Document toDocument() {
+        return new Document()
+                .append("enabled", this.enabled)
+                .append("maximum_size", this.maximumSize)
+                .append("max_staleness_millis", this.maxStalenessMillis);
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2023 Dominik48N
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.dominik48n.party.config;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Configures the leases of the players in Redis, see {@code PlayerLeases}.
+ *
+ * @param enabled                 whether the keys of the players expire unless the proxy of the players keeps sending heartbeats
+ * @param leaseMillis             the time without a heartbeat after which a proxy is dead and its players are logged out
+ * @param heartbeatIntervalMillis the interval of the heartbeats, which must be shorter than the lease
+ */
+public record PlayerLeaseConfig(boolean enabled, long leaseMillis, long heartbeatIntervalMillis) {
+
+    public static final @NotNull PlayerLeaseConfig DEFAULT = new PlayerLeaseConfig(false, 30_000L, 10_000L);
+
+    static @NotNull PlayerLeaseConfig fromDocument(final @NotNull Document document) {
+        return new PlayerLeaseConfig(
+                document.getBoolean("enabled", DEFAULT.enabled()),
+                document.getLong("lease_millis", DEFAULT.leaseMillis()),
+                document.getLong("heartbeat_interval_millis", DEFAULT.heartbeatIntervalMillis())
+        );
+    }
+
+    @NotNull Document toDocument() {
+        return new Document()
+                .append("enabled", this.enabled)
+                .append("lease_millis", this.leaseMillis)
+                .append("heartbeat_interval_millis", this.heartbeatIntervalMillis);
+    }
+}
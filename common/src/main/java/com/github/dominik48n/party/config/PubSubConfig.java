@@ -0,0 +1,51 @@
+/*
+ * Copyright 2023 Dominik48N
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.dominik48n.party.config;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Configures the messages that the proxies exchange over Redis pub/sub.
+ *
+ * @param renderOnReceiver whether party messages only carry their message key and replacements and are rendered by the receiving proxy,
+ *                         which must run a version that understands them
+ * @param handlerThreads   the number of threads that handle received messages, the messages of a player are always handled by the same
+ *                         thread in order, 0 handles all messages on the subscriber thread
+ * @param reconnectMinBackoffMillis the time to wait before the subscriber reconnects after its connection was lost
+ * @param reconnectMaxBackoffMillis the longest time to wait between two attempts to reconnect, the time doubles with every failed attempt
+ */
+public record PubSubConfig(boolean renderOnReceiver, int handlerThreads, long reconnectMinBackoffMillis, long reconnectMaxBackoffMillis) {
+
+    public static final @NotNull PubSubConfig DEFAULT = new PubSubConfig(false, 4, 500L, 30_000L);
+
+    static @NotNull PubSubConfig fromDocument(final @NotNull Document document) {
+        return new PubSubConfig(
+                document.getBoolean("render_on_receiver", DEFAULT.renderOnReceiver()),
+                document.getInt("handler_threads", DEFAULT.handlerThreads()),
+                document.getLong("reconnect_min_backoff_millis", DEFAULT.reconnectMinBackoffMillis()),
+                document.getLong("reconnect_max_backoff_millis", DEFAULT.reconnectMaxBackoffMillis())
+        );
+    }
+
+    @NotNull Document toDocument() {
+        return new Document()
+                .append("render_on_receiver", this.renderOnReceiver)
+                .append("handler_threads", this.handlerThreads)
+                .append("reconnect_min_backoff_millis", this.reconnectMinBackoffMillis)
+                .append("reconnect_max_backoff_millis", this.reconnectMaxBackoffMillis);
+    }
+}
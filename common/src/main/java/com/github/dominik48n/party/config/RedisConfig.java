@@ -16,28 +16,65 @@
 
 package com.github.dominik48n.party.config;
 
+import com.github.dominik48n.party.codec.PartyCodecType;
+import com.github.dominik48n.party.redis.KeyLayout;
+import com.github.dominik48n.party.storage.PartyStorageType;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import org.jetbrains.annotations.NotNull;
 import redis.clients.jedis.HostAndPort;
 import redis.clients.jedis.Protocol;
 
-public record RedisConfig(@NotNull List<HostAndPort> hosts, @NotNull String username, @NotNull String password) {
+public record RedisConfig(
+        @NotNull List<HostAndPort> hosts,
+        @NotNull String username,
+        @NotNull String password,
+        @NotNull PartyStorageType partyStorage,
+        @NotNull PartyCodecType codec,
+        @NotNull KeyLayout keyLayout,
+        @NotNull PartyCacheConfig partyCache,
+        @NotNull ClientSideCacheConfig clientSideCache,
+        @NotNull RedisPoolConfig pool,
+        @NotNull ReplicaConfig replicas,
+        @NotNull PlayerLeaseConfig playerLeases,
+        @NotNull PubSubConfig pubSub
+) {
+
+    public RedisConfig(final @NotNull List<HostAndPort> hosts, final @NotNull String username, final @NotNull String password) {
+        this(hosts, username, password, PartyStorageType.JSON, PartyCodecType.JSON, KeyLayout.AUTO, PartyCacheConfig.DEFAULT, ClientSideCacheConfig.DEFAULT, RedisPoolConfig.DEFAULT, ReplicaConfig.DEFAULT, PlayerLeaseConfig.DEFAULT, PubSubConfig.DEFAULT);
+    }
 
     static @NotNull RedisConfig fromDocument(final @NotNull Document document) throws IOException {
+        return new RedisConfig(
+                parseHosts(document.getStringList("hosts")),
+                document.getString("username", ""),
+                document.getString("password", "secret"),
+                enumValue(PartyStorageType.class, document.getString("party_storage", ""), PartyStorageType.JSON),
+                enumValue(PartyCodecType.class, document.getString("codec", ""), PartyCodecType.JSON),
+                enumValue(KeyLayout.class, document.getString("key_layout", ""), KeyLayout.AUTO),
+                PartyCacheConfig.fromDocument(document.getDocument("party_cache")),
+                ClientSideCacheConfig.fromDocument(document.getDocument("client_side_cache")),
+                RedisPoolConfig.fromDocument(document.getDocument("pool")),
+                ReplicaConfig.fromDocument(document.getDocument("replicas")),
+                PlayerLeaseConfig.fromDocument(document.getDocument("player_leases")),
+                PubSubConfig.fromDocument(document.getDocument("pub_sub"))
+        );
+    }
+
+    private static <T extends Enum<T>> @NotNull T enumValue(final @NotNull Class<T> type, final @NotNull String name, final @NotNull T defaultValue) {
+        return Arrays.stream(type.getEnumConstants()).filter(constant -> constant.name().equalsIgnoreCase(name)).findAny().orElse(defaultValue);
+    }
+
+    static @NotNull List<HostAndPort> parseHosts(final @NotNull List<String> addresses) {
         final List<HostAndPort> hosts = new ArrayList<>();
-        for (final String addresses : document.getStringList("hosts")) {
-            final String[] split = addresses.split(":");
+        for (final String address : addresses) {
+            final String[] split = address.split(":");
             final int port = split.length > 1 ? Integer.parseInt(split[1]) : Protocol.DEFAULT_PORT;
             hosts.add(new HostAndPort(split[0], port));
         }
-
-        return new RedisConfig(
-                hosts,
-                document.getString("username", ""),
-                document.getString("password", "secret")
-        );
+        return hosts;
     }
 
     static @NotNull List<String> hostsToStringList(final @NotNull List<HostAndPort> hosts) {
@@ -48,6 +85,15 @@ public record RedisConfig(@NotNull List<HostAndPort> hosts, @NotNull String user
         return new Document()
                 .append("hosts", hostsToStringList(this.hosts))
                 .append("username", this.username)
-                .append("password", this.password);
+                .append("password", this.password)
+                .append("party_storage", this.partyStorage.name())
+                .append("codec", this.codec.name())
+                .append("key_layout", this.keyLayout.name())
+                .append("party_cache", this.partyCache.toDocument())
+                .append("client_side_cache", this.clientSideCache.toDocument())
+                .append("pool", this.pool.toDocument())
+                .append("replicas", this.replicas.toDocument())
+                .append("player_leases", this.playerLeases.toDocument())
+                .append("pub_sub", this.pubSub.toDocument());
     }
 }
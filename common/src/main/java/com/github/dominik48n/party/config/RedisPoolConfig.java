@@ -0,0 +1,66 @@
+/*
+ * Copyright 2023 Dominik48N
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.dominik48n.party.config;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Configures the connection pools and timeouts of the Redis client. In a Redis Cluster every node has its own pool.
+ *
+ * @param maxTotal             the maximum number of connections per pool
+ * @param maxIdle              the maximum number of idle connections per pool
+ * @param minIdle              the number of idle connections that are kept open per pool
+ * @param maxWaitMillis        how long a command waits for a free connection before it fails, or -1 to wait forever
+ * @param connectTimeoutMillis the timeout for opening a connection
+ * @param socketTimeoutMillis  the timeout for reading a reply
+ * @param maxAttempts          how often a command is attempted in a Redis Cluster, e.g. after a redirect or a failover
+ */
+public record RedisPoolConfig(
+        int maxTotal,
+        int maxIdle,
+        int minIdle,
+        long maxWaitMillis,
+        int connectTimeoutMillis,
+        int socketTimeoutMillis,
+        int maxAttempts
+) {
+
+    public static final @NotNull RedisPoolConfig DEFAULT = new RedisPoolConfig(16, 16, 2, 2000L, 2000, 2000, 5);
+
+    static @NotNull RedisPoolConfig fromDocument(final @NotNull Document document) {
+        return new RedisPoolConfig(
+                document.getInt("max_total", DEFAULT.maxTotal()),
+                document.getInt("max_idle", DEFAULT.maxIdle()),
+                document.getInt("min_idle", DEFAULT.minIdle()),
+                document.getLong("max_wait_millis", DEFAULT.maxWaitMillis()),
+                document.getInt("connect_timeout_millis", DEFAULT.connectTimeoutMillis()),
+                document.getInt("socket_timeout_millis", DEFAULT.socketTimeoutMillis()),
+                document.getInt("max_attempts", DEFAULT.maxAttempts())
+        );
+    }
+
+    @NotNull Document toDocument() {
+        return new Document()
+                .append("max_total", this.maxTotal)
+                .append("max_idle", this.maxIdle)
+                .append("min_idle", this.minIdle)
+                .append("max_wait_millis", this.maxWaitMillis)
+                .append("connect_timeout_millis", this.connectTimeoutMillis)
+                .append("socket_timeout_millis", this.socketTimeoutMillis)
+                .append("max_attempts", this.maxAttempts);
+    }
+}
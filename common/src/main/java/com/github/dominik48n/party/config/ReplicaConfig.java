@@ -0,0 +1,50 @@
+/*
+ * Copyright 2023 Dominik48N
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.dominik48n.party.config;
+
+import java.io.IOException;
+import java.util.List;
+import org.jetbrains.annotations.NotNull;
+import redis.clients.jedis.HostAndPort;
+
+/**
+ * Configures the read replicas of a standalone Redis server, see {@code ReplicaRouter}.
+ *
+ * @param hosts              the replicas that serve reads, no reads are routed to replicas if this is empty
+ * @param maxStalenessMillis how far a replica may lag behind the primary before its reads go to the primary again
+ */
+public record ReplicaConfig(@NotNull List<HostAndPort> hosts, long maxStalenessMillis) {
+
+    public static final @NotNull ReplicaConfig DEFAULT = new ReplicaConfig(List.of(), 1000L);
+
+    static @NotNull ReplicaConfig fromDocument(final @NotNull Document document) throws IOException {
+        return new ReplicaConfig(
+                RedisConfig.parseHosts(document.getStringList("hosts")),
+                document.getLong("max_staleness_millis", DEFAULT.maxStalenessMillis())
+        );
+    }
+
+    public boolean enabled() {
+        return !this.hosts.isEmpty();
+    }
+
+    @NotNull Document toDocument() {
+        return new Document()
+                .append("hosts", RedisConfig.hostsToStringList(this.hosts))
+                .append("max_staleness_millis", this.maxStalenessMillis);
+    }
+}
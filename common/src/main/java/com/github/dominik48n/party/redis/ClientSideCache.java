@@ -0,0 +1,270 @@
+/*
+ * Copyright 2023 Dominik48N
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.dominik48n.party.redis;
+
+import com.github.dominik48n.party.config.ClientSideCacheConfig;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisClientConfig;
+import redis.clients.jedis.JedisPubSub;
+import redis.clients.jedis.Protocol;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.exceptions.JedisException;
+
+/**
+ * Caches values of the party system on this proxy, while Redis tells the proxy which keys were changed.
+ * <p>
+ * Jedis 4 doesn't speak RESP3, so the cache uses the RESP2 variant of client-side caching: a connection enables
+ * {@code CLIENT TRACKING ON REDIRECT <id> BCAST} for the given key prefixes with its own id, and then subscribes to {@code __redis__:invalidate},
+ * where Redis publishes every changed key of these prefixes. Tracking and subscription share the connection, so tracking can't be turned off
+ * while the subscription stays active. Values are only served while that subscription is active.
+ * <p>
+ * The connection is pinged regularly, because a subscription doesn't notice a connection that silently stopped working. If a ping isn't answered
+ * in time, the connection is closed and opened again. After a reconnect the whole cache is dropped, because invalidations may have been missed.
+ * Values are also read again after {@link ClientSideCacheConfig#maxStalenessMillis()}, in case an invalidation is lost anyway.
+ */
+public class ClientSideCache implements AutoCloseable {
+
+    static final @NotNull String INVALIDATE_CHANNEL = "__redis__:invalidate";
+
+    private static final long RECONNECT_DELAY_MILLIS = 1000L;
+    private static final long PING_INTERVAL_MILLIS = 5000L;
+
+    // One thread keeps the subscription, the other one pings it.
+    private final @NotNull ScheduledExecutorService executor = Executors.newScheduledThreadPool(
+            2,
+            new ThreadFactoryBuilder().setNameFormat("party-redis-tracking-%d").setDaemon(true).build()
+    );
+
+    private final @NotNull Cache<String, Entry> cache;
+    private final @NotNull List<String> prefixes;
+    private final @NotNull Invalidations invalidations = new Invalidations();
+
+    private volatile @Nullable Jedis connection;
+    private volatile boolean tracking = false;
+    private volatile boolean awaitingPong = false;
+    private volatile boolean running = true;
+
+    public ClientSideCache(final @NotNull ClientSideCacheConfig config, final @NotNull List<String> prefixes) {
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(config.maximumBytes())
+                .weigher((String key, Entry entry) -> key.length() + (entry.value != null ? entry.value.length : 0))
+                .expireAfterWrite(Duration.ofMillis(config.maxStalenessMillis()))
+                .recordStats()
+                .build();
+        this.prefixes = prefixes;
+    }
+
+    /**
+     * Connects the tracking connection in the background. It is reconnected until this cache is closed.
+     *
+     * @param host         the Redis server
+     * @param clientConfig the {@link JedisClientConfig} of the connections
+     */
+    public void start(final @NotNull HostAndPort host, final @NotNull JedisClientConfig clientConfig) {
+        this.executor.execute(() -> {
+            while (this.running) {
+                try (final Jedis jedis = new Jedis(host, clientConfig)) {
+                    this.connection = jedis;
+                    final List<String> args = Lists.newArrayList("TRACKING", "ON", "REDIRECT", String.valueOf(jedis.clientId()), "BCAST");
+                    this.prefixes.forEach(prefix -> {
+                        args.add("PREFIX");
+                        args.add(prefix);
+                    });
+                    jedis.sendCommand(Protocol.Command.CLIENT, args.toArray(String[]::new));
+
+                    // Blocks until the connection is lost or the cache is closed
+                    jedis.subscribe(this.invalidations, INVALIDATE_CHANNEL);
+                } catch (final JedisDataException e) {
+                    // The server doesn't support client-side caching (Redis 6 or newer is required), so the cache is never used.
+                    this.running = false;
+                } catch (final JedisException ignored) {
+                    // The connection was lost or Redis sent a message that Jedis can't read, e.g. that tracking was turned off.
+                } finally {
+                    this.connection = null;
+                    this.tracking = false;
+                    this.cache.invalidateAll();
+                }
+
+                if (this.running) this.sleepBeforeReconnect();
+            }
+        });
+        this.executor.scheduleAtFixedRate(this::checkConnection, PING_INTERVAL_MILLIS, PING_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Pings the tracking connection. If the previous ping wasn't answered or the ping can't be sent, no value is served anymore
+     * and the connection is closed, so that it is opened again.
+     */
+    void checkConnection() {
+        if (!this.tracking) return;
+
+        final Jedis connection = this.connection;
+        if (connection != null && !this.awaitingPong) {
+            this.awaitingPong = true;
+            try {
+                this.invalidations.ping();
+                return;
+            } catch (final RuntimeException ignored) {
+                // The connection is lost, it is closed below
+            }
+        }
+
+        this.tracking = false;
+        this.cache.invalidateAll();
+        if (connection != null) connection.close();
+    }
+
+    /**
+     * Returns the cached value of a key or loads it. Values are only cached while Redis tracks the keys of this proxy.
+     *
+     * @param key    the key of the value
+     * @param loader loads the value from Redis
+     *
+     * @return the value or null if the key doesn't exist
+     */
+    public byte @Nullable [] get(final @NotNull String key, final @NotNull Supplier<byte[]> loader) {
+        if (!this.tracking || !this.tracked(key)) return loader.get();
+
+        final Entry cached = this.cache.getIfPresent(key);
+        if (cached != null && cached.loaded) return cached.value;
+
+        // A placeholder is stored before the value is loaded. If the key is invalidated during the load, the placeholder is removed
+        // and the loaded value, which might already be outdated, isn't cached.
+        final ConcurrentMap<String, Entry> map = this.cache.asMap();
+        final Entry placeholder = new Entry(null, false);
+        final boolean loading = map.putIfAbsent(key, placeholder) == null;
+
+        final byte[] value;
+        try {
+            value = loader.get();
+        } catch (final RuntimeException e) {
+            // Otherwise the placeholder would keep the key from being cached until it is evicted
+            if (loading) map.remove(key, placeholder);
+            throw e;
+        }
+        if (loading) map.replace(key, placeholder, new Entry(value, true));
+        return value;
+    }
+
+    /**
+     * Drops the value of a key, e.g. after this proxy changed it.
+     *
+     * @param key the key to drop
+     */
+    public void invalidate(final @NotNull String key) {
+        this.cache.invalidate(key);
+    }
+
+    /**
+     * Returns the hit and miss counts of this cache. A read that finds a value which is still loading by another thread counts as a hit,
+     * although it loads the value itself.
+     *
+     * @return the {@link CacheStats} of this cache
+     */
+    public @NotNull CacheStats stats() {
+        return this.cache.stats();
+    }
+
+    public boolean tracking() {
+        return this.tracking;
+    }
+
+    @Override
+    public void close() {
+        this.running = false;
+        if (this.invalidations.isSubscribed()) this.invalidations.unsubscribe();
+        this.executor.shutdownNow();
+    }
+
+    private boolean tracked(final @NotNull String key) {
+        for (final String prefix : this.prefixes) {
+            if (key.startsWith(prefix)) return true;
+        }
+        return false;
+    }
+
+    private void sleepBeforeReconnect() {
+        try {
+            TimeUnit.MILLISECONDS.sleep(RECONNECT_DELAY_MILLIS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            this.running = false;
+        }
+    }
+
+    @NotNull Invalidations invalidations() {
+        return this.invalidations;
+    }
+
+    /**
+     * A cached value or a placeholder of a value that is still loading.
+     */
+    private static final class Entry {
+
+        private final byte @Nullable [] value;
+        private final boolean loaded;
+
+        private Entry(final byte @Nullable [] value, final boolean loaded) {
+            this.value = value;
+            this.loaded = loaded;
+        }
+    }
+
+    /**
+     * Receives the keys that were changed. Jedis delivers each key of an invalidation message separately,
+     * and null if the whole database was flushed.
+     */
+    final class Invalidations extends JedisPubSub {
+
+        @Override
+        public void onSubscribe(final String channel, final int subscribedChannels) {
+            // Values cached before this subscription could have been changed without an invalidation.
+            ClientSideCache.this.cache.invalidateAll();
+            ClientSideCache.this.awaitingPong = false;
+            ClientSideCache.this.tracking = true;
+        }
+
+        @Override
+        public void onPong(final String pattern) {
+            ClientSideCache.this.awaitingPong = false;
+        }
+
+        @Override
+        public void onMessage(final String channel, final @Nullable String message) {
+            if (message == null) {
+                ClientSideCache.this.cache.invalidateAll();
+            } else {
+                ClientSideCache.this.cache.invalidate(message);
+            }
+        }
+    }
+}
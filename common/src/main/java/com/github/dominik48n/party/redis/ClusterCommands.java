@@ -0,0 +1,218 @@
+/*
+ * Copyright 2023 Dominik48N
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.dominik48n.party.redis;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.stream.IntStream;
+import org.jetbrains.annotations.NotNull;
+import redis.clients.jedis.Connection;
+import redis.clients.jedis.ConnectionPool;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisCluster;
+import redis.clients.jedis.UnifiedJedis;
+import redis.clients.jedis.params.ScanParams;
+import redis.clients.jedis.resps.ScanResult;
+import redis.clients.jedis.util.JedisClusterCRC16;
+import redis.clients.jedis.util.SafeEncoder;
+
+/**
+ * Runs multi-key and keyspace commands on a standalone server as well as on a Redis Cluster.
+ * A cluster rejects commands whose keys are stored in different slots and only scans the keyspace of the node that receives {@code SCAN},
+ * so these commands are split by slot or by node there. A standalone server receives every command unchanged.
+ */
+public final class ClusterCommands {
+
+    /**
+     * The maximum number of keys per {@code MGET}. Larger lookups are split, so a single command never blocks Redis for long.
+     */
+    public static final int MGET_BATCH_SIZE = 500;
+
+    private static final @NotNull String CURSOR_SEPARATOR = ":";
+
+    private static final @NotNull RedisScript REFRESH_LEASES_SCRIPT = RedisScript.fromResources("refresh_leases");
+    private static final @NotNull RedisScript DELETE_IF_EQUALS_SCRIPT = RedisScript.fromResources("delete_if_equals");
+
+    private ClusterCommands() {
+    }
+
+    /**
+     * Gets the binary values of several keys. The keys are split into batches of at most {@link #MGET_BATCH_SIZE} keys,
+     * which only contain keys of the same slot in a Redis Cluster. If there is more than one batch, the batches are sent in parallel.
+     *
+     * @param jedis    the connection to execute the command on
+     * @param keys     the keys to get
+     * @param executor the {@link Executor} that sends the batches if there is more than one
+     *
+     * @return the values in the order of the keys, null for keys that don't exist
+     */
+    public static @NotNull List<byte[]> mget(final @NotNull UnifiedJedis jedis, final @NotNull List<String> keys, final @NotNull Executor executor) {
+        if (keys.isEmpty()) return List.of();
+
+        final List<List<Integer>> batches = Lists.newArrayList();
+        final Collection<List<Integer>> groups = jedis instanceof JedisCluster ?
+                indexesBySlot(keys) :
+                List.of(IntStream.range(0, keys.size()).boxed().toList());
+        groups.forEach(group -> batches.addAll(Lists.partition(group, MGET_BATCH_SIZE)));
+
+        final byte[][] values = new byte[keys.size()][];
+        if (batches.size() == 1) {
+            mget(jedis, keys, batches.get(0), values);
+            return Arrays.asList(values);
+        }
+
+        final CompletableFuture<?>[] futures = batches.stream()
+                .map(batch -> CompletableFuture.runAsync(() -> mget(jedis, keys, batch, values), executor))
+                .toArray(CompletableFuture[]::new);
+        try {
+            CompletableFuture.allOf(futures).join();
+        } catch (final CompletionException e) {
+            if (e.getCause() instanceof final RuntimeException cause) throw cause;
+            throw e;
+        }
+        return Arrays.asList(values);
+    }
+
+    private static void mget(
+            final @NotNull UnifiedJedis jedis,
+            final @NotNull List<String> keys,
+            final @NotNull List<Integer> batch,
+            final byte @NotNull [] @NotNull [] values
+    ) {
+        // Every batch writes different indexes, so the batches don't interfere.
+        final List<byte[]> batchValues = jedis.mget(batch.stream().map(index -> SafeEncoder.encode(keys.get(index))).toArray(byte[][]::new));
+        for (int i = 0; i < batch.size(); i++) values[batch.get(i)] = batchValues.get(i);
+    }
+
+    /**
+     * Deletes several keys.
+     *
+     * @param jedis the connection to execute the command on
+     * @param keys  the keys to delete
+     */
+    public static void del(final @NotNull UnifiedJedis jedis, final @NotNull List<String> keys) {
+        if (keys.isEmpty()) return;
+        if (!(jedis instanceof JedisCluster)) {
+            jedis.del(keys.toArray(String[]::new));
+            return;
+        }
+
+        for (final List<Integer> indexes : indexesBySlot(keys)) {
+            jedis.del(indexes.stream().map(keys::get).toArray(String[]::new));
+        }
+    }
+
+    /**
+     * Deletes several keys in a script per batch of at most {@link #MGET_BATCH_SIZE} keys, which only contain keys of the same slot in a
+     * Redis Cluster. A key is only deleted if it still holds the expected value, so a key that was overwritten in between is kept.
+     *
+     * @param jedis  the connection to execute the scripts on
+     * @param keys   the keys to delete
+     * @param values the value each key must hold, in the order of the keys
+     */
+    public static void delIfEquals(final @NotNull UnifiedJedis jedis, final @NotNull List<String> keys, final @NotNull List<String> values) {
+        final Collection<List<Integer>> groups = jedis instanceof JedisCluster ?
+                indexesBySlot(keys) :
+                List.of(IntStream.range(0, keys.size()).boxed().toList());
+        for (final List<Integer> group : groups) {
+            for (final List<Integer> batch : Lists.partition(group, MGET_BATCH_SIZE)) {
+                DELETE_IF_EQUALS_SCRIPT.eval(jedis, batch.stream().map(keys::get).toList(), batch.stream().map(values::get).toList());
+            }
+        }
+    }
+
+    /**
+     * Sets the expiry of several keys in a script per batch of at most {@link #MGET_BATCH_SIZE} keys, which only contain keys of the
+     * same slot in a Redis Cluster. Keys that don't exist are skipped.
+     *
+     * @param jedis  the connection to execute the scripts on
+     * @param keys   the keys to expire
+     * @param millis the time to live of the keys in milliseconds
+     */
+    public static void pexpire(final @NotNull UnifiedJedis jedis, final @NotNull List<String> keys, final long millis) {
+        final Collection<List<Integer>> groups = jedis instanceof JedisCluster ?
+                indexesBySlot(keys) :
+                List.of(IntStream.range(0, keys.size()).boxed().toList());
+        for (final List<Integer> group : groups) {
+            for (final List<Integer> batch : Lists.partition(group, MGET_BATCH_SIZE)) {
+                REFRESH_LEASES_SCRIPT.eval(jedis, batch.stream().map(keys::get).toList(), List.of(String.valueOf(millis)));
+            }
+        }
+    }
+
+    /**
+     * Executes one {@code SCAN} step over the whole keyspace. In a cluster, the master nodes are scanned one after another and the
+     * returned cursor also contains the node that is scanned next, so it must only be passed back to this method.
+     *
+     * @param jedis  the connection to execute the command on
+     * @param cursor the cursor of the previous step or {@link ScanParams#SCAN_POINTER_START}
+     * @param params the {@link ScanParams}
+     *
+     * @return the {@link ScanResult} of this step
+     */
+    public static @NotNull ScanResult<String> scan(final @NotNull UnifiedJedis jedis, final @NotNull String cursor, final @NotNull ScanParams params) {
+        if (!(jedis instanceof final JedisCluster cluster)) return jedis.scan(cursor, params);
+
+        // The nodes are sorted by their address, so every step finds the node of the cursor again.
+        final Map<String, ConnectionPool> nodes = Maps.newTreeMap();
+        nodes.putAll(cluster.getClusterNodes());
+        final List<ConnectionPool> pools = Lists.newArrayList(nodes.values());
+
+        final int separator = cursor.indexOf(CURSOR_SEPARATOR);
+        int node = separator == -1 ? 0 : Integer.parseInt(cursor.substring(0, separator));
+        String nodeCursor = separator == -1 ? ScanParams.SCAN_POINTER_START : cursor.substring(separator + 1);
+
+        while (node < pools.size()) {
+            try (final Connection connection = pools.get(node).getResource()) {
+                final Jedis nodeJedis = new Jedis(connection);
+                // Replicas hold copies of the keys of their master, so only the masters are scanned.
+                if (nodeCursor.equals(ScanParams.SCAN_POINTER_START) && !"master".equals(nodeJedis.role().get(0))) {
+                    node++;
+                    continue;
+                }
+
+                final ScanResult<String> result = nodeJedis.scan(nodeCursor, params);
+                if (!result.isCompleteIteration()) return new ScanResult<>(node + CURSOR_SEPARATOR + result.getCursor(), result.getResult());
+                if (node + 1 == pools.size()) return new ScanResult<>(ScanParams.SCAN_POINTER_START, result.getResult());
+                return new ScanResult<>((node + 1) + CURSOR_SEPARATOR + ScanParams.SCAN_POINTER_START, result.getResult());
+            }
+        }
+        return new ScanResult<>(ScanParams.SCAN_POINTER_START, List.of());
+    }
+
+    /**
+     * Groups the indexes of the keys by the slot of the keys.
+     *
+     * @param keys the keys
+     *
+     * @return the indexes of the keys, one list per slot
+     */
+    private static @NotNull Collection<List<Integer>> indexesBySlot(final @NotNull List<String> keys) {
+        final Map<Integer, List<Integer>> slots = Maps.newLinkedHashMap();
+        for (int i = 0; i < keys.size(); i++) {
+            slots.computeIfAbsent(JedisClusterCRC16.getSlot(keys.get(i)), slot -> Lists.newArrayList()).add(i);
+        }
+        return slots.values();
+    }
+}
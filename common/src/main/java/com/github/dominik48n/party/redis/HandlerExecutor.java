@@ -0,0 +1,105 @@
+/*
+ * Copyright 2023 Dominik48N
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.dominik48n.party.redis;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Runs the handlers of pub/sub messages off the subscriber thread, so a slow handler doesn't delay the messages of other players.
+ * <p>
+ * Every key, usually the {@link java.util.UUID} of a player, is assigned to one lane with a single thread, which runs the handlers
+ * of the key one after another. The messages of a player are therefore handled in the order in which they were received.
+ * Without threads, the handlers run on the calling thread.
+ */
+final class HandlerExecutor implements AutoCloseable {
+
+    static final @NotNull HandlerExecutor INLINE = new HandlerExecutor(0);
+
+    private final @NotNull ExecutorService @NotNull [] lanes;
+    private final @NotNull AtomicInteger queued = new AtomicInteger();
+    private final @NotNull LongAdder handled = new LongAdder();
+    private final @NotNull LongAdder handlerNanos = new LongAdder();
+    private final @NotNull LongAccumulator maxHandlerNanos = new LongAccumulator(Math::max, 0L);
+
+    HandlerExecutor(final int threads) {
+        this.lanes = IntStream.range(0, Math.max(0, threads))
+                .mapToObj(lane -> Executors.newSingleThreadExecutor(
+                        new ThreadFactoryBuilder().setNameFormat("party-redis-handler-" + lane).setDaemon(true).build()
+                ))
+                .toArray(ExecutorService[]::new);
+    }
+
+    /**
+     * Runs a handler after all handlers that were submitted before for the same key.
+     *
+     * @param key     the key whose handlers must keep their order
+     * @param handler the handler
+     */
+    void execute(final @NotNull Object key, final @NotNull Runnable handler) {
+        if (this.lanes.length == 0) {
+            this.run(handler);
+            return;
+        }
+
+        this.queued.incrementAndGet();
+        try {
+            this.lanes[Math.floorMod(key.hashCode(), this.lanes.length)].execute(() -> {
+                this.queued.decrementAndGet();
+                this.run(handler);
+            });
+        } catch (final RejectedExecutionException e) {
+            this.queued.decrementAndGet(); // This proxy shuts down
+        }
+    }
+
+    private void run(final @NotNull Runnable handler) {
+        final long start = System.nanoTime();
+        try {
+            handler.run();
+        } finally {
+            final long nanos = System.nanoTime() - start;
+            this.handled.increment();
+            this.handlerNanos.add(nanos);
+            this.maxHandlerNanos.accumulate(nanos);
+        }
+    }
+
+    @NotNull RedisHandlerStats stats() {
+        final long handled = this.handled.sum();
+        return new RedisHandlerStats(
+                this.lanes.length,
+                this.queued.get(),
+                handled,
+                handled > 0 ? this.handlerNanos.sum() / (double) handled / TimeUnit.MILLISECONDS.toNanos(1) : 0.0D,
+                this.maxHandlerNanos.get() / (double) TimeUnit.MILLISECONDS.toNanos(1)
+        );
+    }
+
+    @Override
+    public void close() {
+        for (final ExecutorService lane : this.lanes) lane.shutdown();
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright 2023 Dominik48N
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.dominik48n.party.redis;
+
+/**
+ * The naming schemes of the keys in Redis, see {@link RedisKeys}.
+ * All proxies must use the same layout, and switching it requires a restart of all proxies, because stored parties aren't renamed.
+ */
+public enum KeyLayout {
+
+    /* The cluster layout if the configured hosts form a Redis Cluster, otherwise the standard layout */
+    AUTO,
+
+    /* party:<id> and party:<id>:members, which can end up in different slots of a Redis Cluster */
+    STANDARD,
+
+    /* party:{<id>} and party:{<id>}:members, whose hash tag keeps all keys of a party in the same slot */
+    CLUSTER
+}
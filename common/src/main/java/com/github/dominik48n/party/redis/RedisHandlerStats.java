@@ -0,0 +1,29 @@
+/*
+ * Copyright 2023 Dominik48N
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.dominik48n.party.redis;
+
+/**
+ * A snapshot of the handlers of pub/sub messages.
+ *
+ * @param threads            the number of handler threads, 0 if the handlers run on the subscriber thread
+ * @param queued             the number of handlers that wait for their thread
+ * @param handled            the number of handlers that ran
+ * @param meanHandlerMillis  the mean time a handler ran
+ * @param maxHandlerMillis   the longest time a handler ran
+ */
+public record RedisHandlerStats(int threads, int queued, long handled, double meanHandlerMillis, double maxHandlerMillis) {
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2023 Dominik48N
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.dominik48n.party.redis;
+
+import java.util.UUID;
+import java.util.function.Consumer;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Receives the ids of parties that were changed by any proxy, so that they can be dropped from the local party cache.
+ */
+public class RedisInvalidatePartySub extends RedisSubscription {
+
+    public static final @NotNull String CHANNEL = "party:invalidate_party";
+
+    private final @NotNull Consumer<UUID> invalidator;
+
+    public RedisInvalidatePartySub(final @NotNull Consumer<UUID> invalidator) {
+        this.invalidator = invalidator;
+    }
+
+    @Override
+    public void onMessage(final @NotNull String message) {
+        final UUID partyId;
+        try {
+            partyId = UUID.fromString(message);
+        } catch (final IllegalArgumentException ignored) {
+            return;
+        }
+
+        this.invalidator.accept(partyId);
+    }
+
+    @Override
+    public @NotNull String channel() {
+        return CHANNEL;
+    }
+}
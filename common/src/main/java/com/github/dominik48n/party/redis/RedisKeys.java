@@ -0,0 +1,213 @@
+/*
+ * Copyright 2023 Dominik48N
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.dominik48n.party.redis;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Builds the names of all keys that the party system stores in Redis.
+ * <p>
+ * The cluster layout wraps the id of a party in a hash tag, so all keys of a party are stored in the same slot of a Redis Cluster and
+ * can still be updated together by one script. Player keys are not tagged, because a player changes parties and is looked up on its own.
+ */
+public final class RedisKeys {
+
+    public static final @NotNull RedisKeys STANDARD = new RedisKeys(false);
+    public static final @NotNull RedisKeys CLUSTER = new RedisKeys(true);
+
+    private static final @NotNull String PARTY_PREFIX = "party:";
+    private static final @NotNull String MEMBERS_SUFFIX = ":members";
+    private static final @NotNull String PLAYER_PREFIX = "party_player:";
+    private static final @NotNull String PLAYER_NAME_PREFIX = "party_player_name:";
+    private static final @NotNull String REQUEST_PREFIX = "request:";
+    private static final @NotNull String PLAYER_PROXY_PREFIX = "party_player_proxy:";
+    private static final @NotNull String PROXY_PREFIX = "party_proxy:";
+    private static final @NotNull String PROXY_PLAYERS_SUFFIX = ":players";
+    private static final @NotNull String PROXIES_KEY = "party_proxies";
+
+    /**
+     * Returns the keys for the given layout.
+     *
+     * @param layout  the configured {@link KeyLayout}
+     * @param cluster whether the configured hosts form a Redis Cluster
+     *
+     * @return the {@link RedisKeys} of the layout
+     */
+    public static @NotNull RedisKeys of(final @NotNull KeyLayout layout, final boolean cluster) {
+        return switch (layout) {
+            case AUTO -> cluster ? CLUSTER : STANDARD;
+            case STANDARD -> STANDARD;
+            case CLUSTER -> CLUSTER;
+        };
+    }
+
+    private final boolean hashTags;
+
+    private RedisKeys(final boolean hashTags) {
+        this.hashTags = hashTags;
+    }
+
+    /**
+     * Returns the key of a party, which is either its encoded value or the hash with its leader and member limit.
+     *
+     * @param partyId the {@link UUID} of the party
+     *
+     * @return the Redis key of the party
+     */
+    public @NotNull String party(final @NotNull UUID partyId) {
+        return PARTY_PREFIX + (this.hashTags ? "{" + partyId + "}" : partyId.toString());
+    }
+
+    /**
+     * Returns the key of the set with the members of a party in the hash layout. It is always stored in the same slot as the party key.
+     *
+     * @param partyId the {@link UUID} of the party
+     *
+     * @return the Redis key of the members
+     */
+    public @NotNull String partyMembers(final @NotNull UUID partyId) {
+        return this.party(partyId) + MEMBERS_SUFFIX;
+    }
+
+    /**
+     * Returns the prefix of all party keys, including the member keys.
+     *
+     * @return the prefix of the party keys
+     */
+    public @NotNull String partyPrefix() {
+        return PARTY_PREFIX;
+    }
+
+    /**
+     * Returns the pattern that matches all party keys, including the member keys.
+     *
+     * @return the pattern for {@code SCAN}
+     */
+    public @NotNull String partyPattern() {
+        return PARTY_PREFIX + "*";
+    }
+
+    /**
+     * Extracts the id of a party from its party key.
+     *
+     * @param key the Redis key
+     *
+     * @return the {@link UUID} of the party or null if the key isn't a party key of this layout, e.g. a member key
+     */
+    public @Nullable UUID partyId(final @NotNull String key) {
+        if (!key.startsWith(PARTY_PREFIX) || key.endsWith(MEMBERS_SUFFIX)) return null;
+
+        String id = key.substring(PARTY_PREFIX.length());
+        if (this.hashTags) {
+            if (!id.startsWith("{") || !id.endsWith("}")) return null;
+            id = id.substring(1, id.length() - 1);
+        }
+
+        try {
+            return UUID.fromString(id);
+        } catch (final IllegalArgumentException ignored) {
+            return null; // Not a party, e.g. a pub/sub related key of another plugin
+        }
+    }
+
+    public @NotNull String player(final @NotNull UUID uniqueId) {
+        return PLAYER_PREFIX + uniqueId;
+    }
+
+    /**
+     * Returns the keys of the session of a player, which are deleted when the player logs out. The name index entry is not part of
+     * them, because it may already belong to another player with the same name and is only deleted if it still maps to this player.
+     *
+     * @param uniqueId the {@link UUID} of the player
+     * @param username the name of the player
+     *
+     * @return the keys of the player object, the party requests and the proxy of the player
+     */
+    public @NotNull List<String> session(final @NotNull UUID uniqueId, final @NotNull String username) {
+        return List.of(this.player(uniqueId), this.requests(username), this.playerProxy(uniqueId));
+    }
+
+    /**
+     * Returns the key that holds the id of the proxy which owns the lease of a player.
+     *
+     * @param uniqueId the {@link UUID} of the player
+     *
+     * @return the Redis key of the proxy of the player
+     */
+    public @NotNull String playerProxy(final @NotNull UUID uniqueId) {
+        return PLAYER_PROXY_PREFIX + uniqueId;
+    }
+
+    /**
+     * Returns the key of the sorted set with all proxies, scored by the time of their last heartbeat in milliseconds.
+     *
+     * @return the Redis key of the proxies
+     */
+    public @NotNull String proxies() {
+        return PROXIES_KEY;
+    }
+
+    /**
+     * Returns the key of the set with the unique ids of all players whose lease is owned by a proxy.
+     *
+     * @param proxyId the id of the proxy
+     *
+     * @return the Redis key of the players of the proxy
+     */
+    public @NotNull String proxyPlayers(final @NotNull String proxyId) {
+        return PROXY_PREFIX + proxyId + PROXY_PLAYERS_SUFFIX;
+    }
+
+    /**
+     * Returns the prefix of all player keys, which is followed by the {@link UUID} of the player.
+     *
+     * @return the prefix of the player keys
+     */
+    public @NotNull String playerPrefix() {
+        return PLAYER_PREFIX;
+    }
+
+    /**
+     * Returns the key of the index entry that maps the lowercase name of a player to its {@link UUID}.
+     *
+     * @param username the name of the player
+     *
+     * @return the Redis key of the name index entry
+     */
+    public @NotNull String playerName(final @NotNull String username) {
+        return PLAYER_NAME_PREFIX + username.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Returns the key of the sorted set that holds all requests sent by a player, scored by their expiry time in milliseconds.
+     *
+     * @param source the username of the player who sent the requests
+     *
+     * @return the Redis key of the requests
+     */
+    public @NotNull String requests(final @NotNull String source) {
+        return REQUEST_PREFIX + source;
+    }
+
+    public boolean hashTags() {
+        return this.hashTags;
+    }
+}
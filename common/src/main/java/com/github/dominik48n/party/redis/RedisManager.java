@@ -17,30 +17,66 @@
 package com.github.dominik48n.party.redis;
 
 import com.github.dominik48n.party.config.Document;
+import com.github.dominik48n.party.config.PubSubConfig;
 import com.github.dominik48n.party.config.RedisConfig;
+import com.github.dominik48n.party.config.RedisPoolConfig;
 import com.github.dominik48n.party.user.UserManager;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.time.Duration;
 import java.util.HashSet;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import redis.clients.jedis.Connection;
 import redis.clients.jedis.DefaultJedisClientConfig;
 import redis.clients.jedis.HostAndPort;
 import redis.clients.jedis.JedisClientConfig;
 import redis.clients.jedis.JedisCluster;
 import redis.clients.jedis.JedisPooled;
 import redis.clients.jedis.JedisPubSub;
-import redis.clients.jedis.Protocol;
 import redis.clients.jedis.UnifiedJedis;
 import redis.clients.jedis.exceptions.JedisClusterException;
+import redis.clients.jedis.util.SafeEncoder;
 
 public class RedisManager extends JedisPubSub implements AutoCloseable {
 
-    private final @NotNull ExecutorService executor = Executors.newFixedThreadPool(1);
+    private static final int BATCH_THREADS = 8;
+    private static final @NotNull String PROXY_CHANNEL_SEPARATOR = ":";
+
+    private final @NotNull ExecutorService batchExecutor = Executors.newFixedThreadPool(
+            BATCH_THREADS,
+            new ThreadFactoryBuilder().setNameFormat("party-redis-batch-%d").setDaemon(true).build()
+    );
+    // Separate from the batch executor, because the resync hooks may wait for batches themselves
+    private final @NotNull ExecutorService resyncExecutor = Executors.newSingleThreadExecutor(
+            new ThreadFactoryBuilder().setNameFormat("party-redis-resync").setDaemon(true).build()
+    );
 
     private final @NotNull List<RedisSubscription> subscriptions = Lists.newArrayList();
+    private final @NotNull List<RedisSubscription> registeredSubscriptions = Lists.newArrayList();
+    private final @NotNull List<Runnable> resyncHooks = new CopyOnWriteArrayList<>();
+    private volatile @NotNull Map<String, RedisSubscription> handlers = Map.of();
+    private volatile @Nullable RedisSubscriber subscriber;
+    private final @NotNull HandlerExecutor handlerExecutor;
+    private final @NotNull PubSubConfig pubSub;
+    private final @NotNull List<HostAndPort> hosts;
+    private final @NotNull String proxyId = UUID.randomUUID().toString();
     private final @NotNull UnifiedJedis jedis;
+    private final @NotNull RedisKeys keys;
+    private final @Nullable ClientSideCache clientSideCache;
+    private final @Nullable ReplicaRouter replicaRouter;
 
     /**
      * Constructs a new RedisManager using the specified {@link RedisConfig}.
@@ -48,27 +84,69 @@ public class RedisManager extends JedisPubSub implements AutoCloseable {
      * @param config The {@link RedisConfig} to use.
      */
     public RedisManager(final @NotNull RedisConfig config) {
+        final RedisPoolConfig pool = config.pool();
         final JedisClientConfig clientConfig = DefaultJedisClientConfig.builder()
                 .user(config.username())
                 .password(config.password())
-                .timeoutMillis(Protocol.DEFAULT_TIMEOUT)
+                .connectionTimeoutMillis(pool.connectTimeoutMillis())
+                .socketTimeoutMillis(pool.socketTimeoutMillis())
                 .build();
+        final GenericObjectPoolConfig<Connection> poolConfig = poolConfig(pool);
 
         UnifiedJedis jedis;
+        ClientSideCache clientSideCache = null;
+        ReplicaRouter replicaRouter = null;
         try {
-            jedis = new JedisCluster(new HashSet<>(config.hosts()), clientConfig);
+            jedis = new JedisCluster(new HashSet<>(config.hosts()), clientConfig, pool.maxAttempts(), poolConfig);
         } catch (final JedisClusterException e) {
             final HostAndPort host = config.hosts().stream().findAny().orElseThrow(() -> new IllegalStateException("No Redis node was found in the config."));
-            jedis = new JedisPooled(host, clientConfig);
+            if (config.clientSideCache().enabled()) {
+                // Client-side caching is only supported by a standalone server, where tracking covers the whole keyspace.
+                final RedisKeys keys = RedisKeys.of(config.keyLayout(), false);
+                clientSideCache = new ClientSideCache(config.clientSideCache(), List.of(keys.partyPrefix(), keys.playerPrefix()));
+                clientSideCache.start(host, clientConfig);
+                jedis = new TrackingJedisPooled(poolConfig, host, clientConfig, clientSideCache);
+            } else {
+                jedis = new JedisPooled(poolConfig, host, clientConfig);
+                // Replica reads would bypass the invalidations of the client-side cache, so they are only used without it.
+                if (config.replicas().enabled()) {
+                    replicaRouter = new ReplicaRouter(jedis, config.replicas(), poolConfig, clientConfig, this.proxyId);
+                    replicaRouter.start();
+                }
+            }
         }
+        this.handlerExecutor = new HandlerExecutor(config.pubSub().handlerThreads());
+        this.pubSub = config.pubSub();
+        this.hosts = config.hosts();
         this.jedis = jedis;
+        this.clientSideCache = clientSideCache;
+        this.replicaRouter = replicaRouter;
+        this.keys = RedisKeys.of(config.keyLayout(), this.cluster());
+    }
+
+    private static @NotNull GenericObjectPoolConfig<Connection> poolConfig(final @NotNull RedisPoolConfig pool) {
+        final GenericObjectPoolConfig<Connection> poolConfig = new GenericObjectPoolConfig<>();
+        poolConfig.setMaxTotal(pool.maxTotal());
+        poolConfig.setMaxIdle(pool.maxIdle());
+        poolConfig.setMinIdle(pool.minIdle());
+        poolConfig.setMaxWait(Duration.ofMillis(pool.maxWaitMillis()));
+        poolConfig.setBlockWhenExhausted(true);
+        // Idle connections are validated by the evictor, so a connection that was dropped by a firewall isn't borrowed during a burst.
+        poolConfig.setTestWhileIdle(true);
+        poolConfig.setJmxEnabled(false);
+        return poolConfig;
     }
 
     @Override
     public void onMessage(final String channel, final String message) {
-        this.subscriptions.forEach(subscription -> {
-            if (subscription.channel().equals(channel)) subscription.onMessage(message);
-        });
+        final RedisSubscription subscription = this.handlers.get(channel);
+        if (subscription != null) subscription.onMessage(message);
+    }
+
+    @Override
+    public void onSubscribe(final String channel, final int subscribedChannels) {
+        final RedisSubscriber subscriber = this.subscriber;
+        if (subscriber != null) subscriber.subscribed(subscribedChannels);
     }
 
     /**
@@ -76,7 +154,13 @@ public class RedisManager extends JedisPubSub implements AutoCloseable {
      */
     @Override
     public void close() {
-        super.unsubscribe();
+        final RedisSubscriber subscriber = this.subscriber;
+        if (subscriber != null) subscriber.close();
+        this.batchExecutor.shutdown();
+        this.resyncExecutor.shutdown();
+        this.handlerExecutor.close();
+        if (this.clientSideCache != null) this.clientSideCache.close();
+        if (this.replicaRouter != null) this.replicaRouter.close();
         this.jedis.close();
     }
 
@@ -92,6 +176,38 @@ public class RedisManager extends JedisPubSub implements AutoCloseable {
         this.publish(channel, document.toString());
     }
 
+    /**
+     * Publishes a document to the channel of a single proxy, so the other proxies don't receive it.
+     * Only subscriptions that are {@link RedisSubscription#targeted() targeted} receive messages of the channel of their proxy.
+     *
+     * @param channel  The name of the channel to publish the document to.
+     * @param proxyId  The id of the proxy of the recipient, see {@link #proxies(Collection)}, or null to publish to all proxies.
+     * @param document The {@link Document} to publish to the channel.
+     */
+    public void publish(final @NotNull String channel, final @Nullable String proxyId, final @NotNull Document document) {
+        this.publish(proxyId != null ? proxyChannel(channel, proxyId) : channel, document.toString());
+    }
+
+    /**
+     * Looks up the proxies of several players in the presence map, which is written when a player logs in.
+     * The map is read from the primary, because a replica may not know yet about a player who just logged in.
+     *
+     * @param players the {@link UUID}s of the players
+     *
+     * @return the proxy id of every player that has one, players of proxies that don't write the presence map are missing
+     */
+    public @NotNull Map<UUID, String> proxies(final @NotNull Collection<UUID> players) {
+        final List<UUID> uniqueIds = List.copyOf(players);
+        final List<String> keys = uniqueIds.stream().map(this.keys::playerProxy).toList();
+        final List<byte[]> values = ClusterCommands.mget(this.jedis, keys, this.batchExecutor);
+
+        final Map<UUID, String> proxies = Maps.newHashMapWithExpectedSize(uniqueIds.size());
+        for (int i = 0; i < uniqueIds.size(); i++) {
+            if (values.get(i) != null) proxies.put(uniqueIds.get(i), SafeEncoder.encode(values.get(i)));
+        }
+        return proxies;
+    }
+
     /**
      * Publishes a string to a Redis channel.
      *
@@ -105,6 +221,9 @@ public class RedisManager extends JedisPubSub implements AutoCloseable {
     /**
      * Subscribes to the Redis pub/sub channel and handles incoming messages with a RedisMessageSub instance.
      * Uses the provided {@link UserManager} to handle user management.
+     * <p>
+     * If the connection of the subscriber is lost, it subscribes again with a growing backoff, see {@link #subscriberHealth()},
+     * and runs the {@link #registerResyncHook(Runnable) resync hooks} once it is subscribed again.
      *
      * @param userManager The {@link UserManager} instance to use for user management.
      * @param <TUser>     The type of user managed by the UserManager.
@@ -114,13 +233,171 @@ public class RedisManager extends JedisPubSub implements AutoCloseable {
         this.subscriptions.add(new RedisMessageSub<>(userManager));
         this.subscriptions.add(new RedisSwitchServerSub<>(userManager));
         this.subscriptions.add(new RedisUpdateUserPartySub<>(userManager));
+        this.subscriptions.addAll(this.registeredSubscriptions);
+
+        final Map<String, RedisSubscription> handlers = Maps.newHashMap();
+        for (final RedisSubscription subscription : this.subscriptions) {
+            subscription.handlerExecutor(this.handlerExecutor);
+            handlers.put(subscription.channel(), subscription);
+            if (subscription.targeted()) handlers.put(this.proxyChannel(subscription.channel()), subscription);
+        }
+        this.handlers = Map.copyOf(handlers);
 
-        this.executor.execute(
-                () -> RedisManager.this.jedis.subscribe(this, this.subscriptions.stream().map(RedisSubscription::channel).toArray(String[]::new))
+        final RedisSubscriber previous = this.subscriber;
+        if (previous != null) previous.close();
+        final RedisSubscriber subscriber = new RedisSubscriber(
+                this.jedis,
+                this,
+                handlers.keySet().toArray(String[]::new),
+                this.pubSub.reconnectMinBackoffMillis(),
+                this.pubSub.reconnectMaxBackoffMillis(),
+                this::resync
         );
+        this.subscriber = subscriber;
+        subscriber.start();
+    }
+
+    /**
+     * Registers a hook that runs on a separate thread after the subscriber has subscribed again on a new connection.
+     * Messages that were published while it was disconnected are lost, so the hook should read the state that they would have
+     * updated from Redis again, e.g. drop cached parties.
+     *
+     * @param hook the hook to run after every reconnect
+     */
+    public void registerResyncHook(final @NotNull Runnable hook) {
+        this.resyncHooks.add(hook);
+    }
+
+    private void resync() {
+        for (final Runnable hook : this.resyncHooks) {
+            try {
+                this.resyncExecutor.execute(() -> {
+                    try {
+                        hook.run();
+                    } catch (final RuntimeException ignored) {
+                        // Redis may be lost again, the hook runs again after the next reconnect.
+                    }
+                });
+            } catch (final RejectedExecutionException ignored) {
+                return; // This proxy shuts down
+            }
+        }
+    }
+
+    /**
+     * Registers a subscription that doesn't depend on the {@link UserManager}. It is subscribed together with the other subscriptions,
+     * so it must be registered before {@link #subscribes(UserManager)} is called.
+     *
+     * @param subscription the {@link RedisSubscription} to register
+     */
+    public void registerSubscription(final @NotNull RedisSubscription subscription) {
+        this.registeredSubscriptions.add(subscription);
     }
 
     public @NotNull UnifiedJedis jedis() {
         return this.jedis;
     }
+
+    /**
+     * Runs a read-only command on a read replica if replicas are configured and one of them is within the allowed staleness,
+     * otherwise on the primary. Mutations and reads that must see the latest state have to use {@link #jedis()} instead.
+     *
+     * @param command the command that only reads keys
+     * @param <T>     the type of the reply
+     *
+     * @return the reply of the command
+     */
+    public <T> T read(final @NotNull Function<UnifiedJedis, T> command) {
+        return this.replicaRouter != null ? this.replicaRouter.read(command) : command.apply(this.jedis);
+    }
+
+    /**
+     * Returns the executor that sends the batches of large multi-key commands in parallel, see {@link ClusterCommands#mget}.
+     *
+     * @return the batch executor
+     */
+    public @NotNull ExecutorService batchExecutor() {
+        return this.batchExecutor;
+    }
+
+    /**
+     * Returns the client-side cache, which is only used if it is enabled and this RedisManager isn't connected to a Redis Cluster.
+     *
+     * @return an optional containing the {@link ClientSideCache}, e.g. to read its hit rate
+     */
+    public @NotNull Optional<ClientSideCache> clientSideCache() {
+        return Optional.ofNullable(this.clientSideCache);
+    }
+
+    /**
+     * Returns the utilisation of the connection pools. A Redis Cluster has a pool for every node, a standalone server has a pool
+     * for the primary and every read replica.
+     *
+     * @return a snapshot of every connection pool
+     */
+    public @NotNull List<RedisPoolStats> poolStats() {
+        if (this.jedis instanceof final JedisCluster cluster) {
+            return cluster.getClusterNodes().entrySet().stream().map(entry -> RedisPoolStats.of(entry.getKey(), entry.getValue())).toList();
+        }
+        final List<RedisPoolStats> stats = Lists.newArrayList();
+        if (this.jedis instanceof final JedisPooled pooled) stats.add(RedisPoolStats.of(this.hosts.get(0).toString(), pooled.getPool()));
+        if (this.replicaRouter != null) stats.addAll(this.replicaRouter.poolStats());
+        return stats;
+    }
+
+    /**
+     * Returns the random id of this proxy, which is stored in the presence map for the players of this proxy.
+     *
+     * @return the id of this proxy
+     */
+    public @NotNull String proxyId() {
+        return this.proxyId;
+    }
+
+    /**
+     * Returns the queue depth and the run times of the handlers of pub/sub messages.
+     *
+     * @return a snapshot of the handlers
+     */
+    public @NotNull RedisHandlerStats handlerStats() {
+        return this.handlerExecutor.stats();
+    }
+
+    /**
+     * Returns the state of the subscriber, e.g. to report that this proxy doesn't receive the messages of other proxies.
+     *
+     * @return a snapshot of the subscriber
+     */
+    public @NotNull RedisSubscriberHealth subscriberHealth() {
+        final RedisSubscriber subscriber = this.subscriber;
+        return subscriber != null
+                ? subscriber.health()
+                : new RedisSubscriberHealth(RedisSubscriberHealth.State.CONNECTING, 0L, 0L, null);
+    }
+
+    /**
+     * Returns the names of the keys in the configured {@link KeyLayout}.
+     *
+     * @return the {@link RedisKeys}
+     */
+    public @NotNull RedisKeys keys() {
+        return this.keys;
+    }
+
+    /**
+     * Checks whether the configured hosts form a Redis Cluster. Scripts can only access keys of a single slot there.
+     *
+     * @return true if this RedisManager is connected to a Redis Cluster
+     */
+    public boolean cluster() {
+        return this.jedis instanceof JedisCluster;
+    }
+
+    private @NotNull String proxyChannel(final @NotNull String channel) {
+        return proxyChannel(channel, this.proxyId);
+    }
+
+    private static @NotNull String proxyChannel(final @NotNull String channel, final @NotNull String proxyId) {
+        return channel + PROXY_CHANNEL_SEPARATOR + proxyId;
+    }
 }
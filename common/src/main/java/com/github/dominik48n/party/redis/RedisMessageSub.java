@@ -16,11 +16,13 @@
 
 package com.github.dominik48n.party.redis;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.github.dominik48n.party.config.Document;
 import com.github.dominik48n.party.user.UserManager;
+import java.io.IOException;
+import java.util.List;
 import java.util.UUID;
+import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.minimessage.MiniMessage;
 import org.jetbrains.annotations.NotNull;
 
@@ -37,27 +39,41 @@ public class RedisMessageSub<TUser> extends RedisSubscription {
     @Override
     public void onMessage(final @NotNull String message) {
         final Document document;
+        final List<String> recipients;
+        final List<String> replacements;
         try {
             document = new Document((ObjectNode) Document.MAPPER.readTree(message));
-        } catch (final JsonProcessingException ignored) {
+            recipients = document.getStringList("unique_ids");
+            replacements = document.getStringList("replacements");
+        } catch (final IOException ignored) {
             return;
         }
 
-        final UUID uniqueId;
-        try {
-            uniqueId = UUID.fromString(document.getString("unique_id", UUID.randomUUID().toString()));
-        } catch (final IllegalArgumentException ignored) {
-            return;
-        }
+        // The message is rendered once for all recipients, messages of older versions have a single recipient.
+        // A keyed message is rendered from the message templates of this proxy.
+        final String messageKey = document.getString("message_key", "");
+        final Component component = messageKey.isEmpty() ?
+                MiniMessage.miniMessage().deserialize(document.getString("message", "<red>Unknown Party Message :(")) :
+                this.userManager.message(messageKey, replacements.toArray());
+        for (final String recipient : recipients.isEmpty() ? List.of(document.getString("unique_id", "")) : recipients) {
+            final UUID uniqueId;
+            try {
+                uniqueId = UUID.fromString(recipient);
+            } catch (final IllegalArgumentException ignored) {
+                continue;
+            }
 
-        this.userManager.sendMessageToLocalUser(
-                uniqueId,
-                MiniMessage.miniMessage().deserialize(document.getString("message", "<red>Unknown Party Message :("))
-        );
+            this.handle(uniqueId, () -> this.userManager.sendMessageToLocalUser(uniqueId, component));
+        }
     }
 
     @Override
     public @NotNull String channel() {
         return CHANNEL;
     }
+
+    @Override
+    public boolean targeted() {
+        return true;
+    }
 }
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2023 Dominik48N
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.dominik48n.party.redis;
+
+import org.apache.commons.pool2.impl.GenericObjectPool;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A snapshot of the utilisation of a connection pool.
+ *
+ * @param node                  the address of the Redis node this pool connects to
+ * @param active                the number of borrowed connections
+ * @param idle                  the number of idle connections
+ * @param waiters               the number of threads that are waiting for a connection
+ * @param maxTotal              the maximum number of connections
+ * @param borrowed              the number of times a connection was borrowed
+ * @param meanBorrowWaitMillis  the mean time a thread waited for a connection
+ * @param maxBorrowWaitMillis   the longest time a thread waited for a connection
+ */
+public record RedisPoolStats(
+        @NotNull String node,
+        int active,
+        int idle,
+        int waiters,
+        int maxTotal,
+        long borrowed,
+        long meanBorrowWaitMillis,
+        long maxBorrowWaitMillis
+) {
+
+    static @NotNull RedisPoolStats of(final @NotNull String node, final @NotNull GenericObjectPool<?> pool) {
+        return new RedisPoolStats(
+                node,
+                pool.getNumActive(),
+                pool.getNumIdle(),
+                pool.getNumWaiters(),
+                pool.getMaxTotal(),
+                pool.getBorrowedCount(),
+                pool.getMeanBorrowWaitTimeMillis(),
+                pool.getMaxBorrowWaitTimeMillis()
+        );
+    }
+
+    /**
+     * Returns the share of the connections that are borrowed.
+     *
+     * @return a value between 0 and 1, or 0 if the pool has no limit
+     */
+    public double utilisation() {
+        return this.maxTotal > 0 ? (double) this.active / this.maxTotal : 0.0D;
+    }
+}
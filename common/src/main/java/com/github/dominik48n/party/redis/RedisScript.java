@@ -0,0 +1,128 @@
+/*
+ * Copyright 2023 Dominik48N
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.dominik48n.party.redis;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import redis.clients.jedis.UnifiedJedis;
+import redis.clients.jedis.exceptions.JedisNoScriptException;
+import redis.clients.jedis.util.SafeEncoder;
+
+/**
+ * A Lua script that is executed atomically on the Redis server.
+ * The script is only transferred once per Redis node, afterwards it is invoked by its SHA-1 digest.
+ */
+public class RedisScript {
+
+    private static final @NotNull String RESOURCE_DIRECTORY = "redis/";
+
+    /**
+     * Creates a script from one or more Lua files in the {@code redis} resource directory.
+     * The files are concatenated in the given order, which allows shared helper functions to be placed in front of a script.
+     *
+     * @param names the names of the resource files without the {@code .lua} extension
+     *
+     * @return the created {@link RedisScript}
+     *
+     * @throws UncheckedIOException if a resource file doesn't exist or can't be read
+     */
+    public static @NotNull RedisScript fromResources(final @NotNull String... names) throws UncheckedIOException {
+        final StringBuilder source = new StringBuilder();
+        for (final String name : names) {
+            final String path = RESOURCE_DIRECTORY + name + ".lua";
+            try (final InputStream inputStream = RedisScript.class.getClassLoader().getResourceAsStream(path)) {
+                if (inputStream == null) throw new IOException("The script " + path + " doesn't exist.");
+                source.append(new String(inputStream.readAllBytes(), StandardCharsets.UTF_8)).append('\n');
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return new RedisScript(source.toString());
+    }
+
+    private final @NotNull String source;
+    private final @NotNull String sha;
+
+    public RedisScript(final @NotNull String source) {
+        this.source = source;
+        this.sha = sha1(source);
+    }
+
+    /**
+     * Executes this script by its SHA-1 digest. If the Redis node doesn't know the script yet, it will be loaded and executed again.
+     *
+     * @param jedis the connection to execute the script on
+     * @param keys  the keys the script accesses (available as {@code KEYS} in Lua)
+     * @param args  the arguments of the script (available as {@code ARGV} in Lua)
+     *
+     * @return the reply of the script
+     */
+    public @Nullable Object eval(final @NotNull UnifiedJedis jedis, final @NotNull List<String> keys, final @NotNull List<String> args) {
+        try {
+            return jedis.evalsha(this.sha, keys, args);
+        } catch (final JedisNoScriptException e) {
+            // The script cache is empty after a restart or failover, so the script is loaded on the node that owns the keys.
+            jedis.scriptLoad(this.source, keys.isEmpty() ? "" : keys.get(0));
+            return jedis.evalsha(this.sha, keys, args);
+        }
+    }
+
+    /**
+     * Executes this script like {@link #eval(UnifiedJedis, List, List)}, but with binary keys and arguments, e.g. values of a codec.
+     *
+     * @param jedis the connection to execute the script on
+     * @param keys  the keys the script accesses (available as {@code KEYS} in Lua)
+     * @param args  the arguments of the script (available as {@code ARGV} in Lua)
+     *
+     * @return the reply of the script
+     */
+    public @Nullable Object evalBinary(final @NotNull UnifiedJedis jedis, final @NotNull List<byte[]> keys, final @NotNull List<byte[]> args) {
+        final byte[] sha = SafeEncoder.encode(this.sha);
+        try {
+            return jedis.evalsha(sha, keys, args);
+        } catch (final JedisNoScriptException e) {
+            jedis.scriptLoad(SafeEncoder.encode(this.source), keys.isEmpty() ? new byte[0] : keys.get(0));
+            return jedis.evalsha(sha, keys, args);
+        }
+    }
+
+    public @NotNull String sha() {
+        return this.sha;
+    }
+
+    @NotNull String source() {
+        return this.source;
+    }
+
+    private static @NotNull String sha1(final @NotNull String source) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            return HexFormat.of().formatHex(digest.digest(source.getBytes(StandardCharsets.UTF_8)));
+        } catch (final NoSuchAlgorithmException e) {
+            // Every Java platform has to support SHA-1.
+            throw new IllegalStateException(e);
+        }
+    }
+}
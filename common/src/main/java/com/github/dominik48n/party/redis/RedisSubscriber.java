@@ -0,0 +1,140 @@
+/*
+ * Copyright 2023 Dominik48N
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.dominik48n.party.redis;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import redis.clients.jedis.JedisPubSub;
+import redis.clients.jedis.UnifiedJedis;
+
+/**
+ * Keeps a {@link JedisPubSub} subscribed to its channels. A subscription blocks its thread until the connection is lost, the subscriber
+ * then waits and subscribes again on a new connection. The time between two attempts doubles up to a maximum and is reset as soon as
+ * all channels are subscribed again. A random part of it is skipped, so the proxies don't reconnect at the same time after a restart of Redis.
+ * <p>
+ * Messages that are published while the subscriber is disconnected are lost. After every subscription that follows a lost one,
+ * the resync hook runs, so the state that was kept up to date by the lost messages can be read from Redis again.
+ */
+final class RedisSubscriber implements AutoCloseable {
+
+    private final @NotNull ExecutorService thread = Executors.newSingleThreadExecutor(
+            new ThreadFactoryBuilder().setNameFormat("party-redis-subscriber").setDaemon(true).build()
+    );
+    private final @NotNull AtomicLong reconnects = new AtomicLong();
+
+    private final @NotNull UnifiedJedis jedis;
+    private final @NotNull JedisPubSub pubSub;
+    private final @NotNull String @NotNull [] channels;
+    private final long minBackoffMillis;
+    private final long maxBackoffMillis;
+    private final @NotNull Runnable resync;
+
+    private volatile @NotNull RedisSubscriberHealth.State state = RedisSubscriberHealth.State.CONNECTING;
+    private volatile long disconnectedSinceMillis;
+    private volatile @Nullable String lastFailure;
+    private volatile boolean closed;
+    private boolean subscribedBefore; // Only accessed by the subscriber thread
+
+    RedisSubscriber(
+            final @NotNull UnifiedJedis jedis,
+            final @NotNull JedisPubSub pubSub,
+            final @NotNull String @NotNull [] channels,
+            final long minBackoffMillis,
+            final long maxBackoffMillis,
+            final @NotNull Runnable resync
+    ) {
+        this.jedis = jedis;
+        this.pubSub = pubSub;
+        this.channels = channels;
+        this.minBackoffMillis = Math.max(1L, minBackoffMillis);
+        this.maxBackoffMillis = Math.max(this.minBackoffMillis, maxBackoffMillis);
+        this.resync = resync;
+    }
+
+    void start() {
+        this.thread.execute(this::run);
+    }
+
+    private void run() {
+        long backoffMillis = this.minBackoffMillis;
+        while (!this.closed) {
+            try {
+                // Blocks until the connection is lost or all channels are unsubscribed
+                this.jedis.subscribe(this.pubSub, this.channels);
+                if (this.closed) break;
+                this.lastFailure = "All channels were unsubscribed";
+            } catch (final RuntimeException e) {
+                if (this.closed) break;
+                this.lastFailure = e.toString();
+            }
+
+            if (this.state != RedisSubscriberHealth.State.RECONNECTING) {
+                // The subscription was healthy until now, so the first attempt doesn't wait for the backoff of an earlier outage.
+                if (this.state == RedisSubscriberHealth.State.SUBSCRIBED) backoffMillis = this.minBackoffMillis;
+                this.disconnectedSinceMillis = System.currentTimeMillis();
+                this.state = RedisSubscriberHealth.State.RECONNECTING;
+            }
+
+            try {
+                Thread.sleep(ThreadLocalRandom.current().nextLong(backoffMillis / 2, backoffMillis + 1));
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            backoffMillis = Math.min(this.maxBackoffMillis, backoffMillis * 2);
+            this.reconnects.incrementAndGet();
+        }
+        this.state = RedisSubscriberHealth.State.CLOSED;
+    }
+
+    /**
+     * Called by the {@link JedisPubSub} for every channel that was subscribed.
+     *
+     * @param subscribedChannels the number of channels that are subscribed now
+     */
+    void subscribed(final int subscribedChannels) {
+        if (subscribedChannels < this.channels.length) return;
+
+        this.state = RedisSubscriberHealth.State.SUBSCRIBED;
+        this.disconnectedSinceMillis = 0L;
+        if (this.subscribedBefore) this.resync.run();
+        this.subscribedBefore = true;
+    }
+
+    @NotNull RedisSubscriberHealth health() {
+        return new RedisSubscriberHealth(this.state, this.reconnects.get(), this.disconnectedSinceMillis, this.lastFailure);
+    }
+
+    @Override
+    public void close() {
+        this.closed = true;
+        if (this.pubSub.isSubscribed()) {
+            try {
+                this.pubSub.unsubscribe();
+            } catch (final RuntimeException ignored) {
+                // The connection is already lost, the subscriber thread is interrupted below.
+            }
+        }
+        this.thread.shutdownNow();
+        this.state = RedisSubscriberHealth.State.CLOSED;
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2023 Dominik48N
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.dominik48n.party.redis;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A snapshot of the connection that receives the pub/sub messages of this proxy.
+ *
+ * @param state                   the state of the subscriber
+ * @param reconnects              the number of attempts to reconnect since this proxy was started
+ * @param disconnectedSinceMillis the time at which the connection was lost, 0 while the subscriber is subscribed
+ * @param lastFailure             the reason why the connection was lost the last time, or null if it was never lost
+ */
+public record RedisSubscriberHealth(@NotNull State state, long reconnects, long disconnectedSinceMillis, @Nullable String lastFailure) {
+
+    /**
+     * Checks whether this proxy receives the messages of the other proxies.
+     *
+     * @return true if the subscriber is subscribed to all channels
+     */
+    public boolean healthy() {
+        return this.state == State.SUBSCRIBED;
+    }
+
+    public enum State {
+        /**
+         * The subscriber connects for the first time.
+         */
+        CONNECTING,
+        /**
+         * The subscriber is subscribed to all channels.
+         */
+        SUBSCRIBED,
+        /**
+         * The connection was lost and the subscriber waits for its next attempt to reconnect. Messages that are published meanwhile are lost.
+         */
+        RECONNECTING,
+        /**
+         * The subscriber was closed, because this proxy shuts down.
+         */
+        CLOSED
+    }
+}
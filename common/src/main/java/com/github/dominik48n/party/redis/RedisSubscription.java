@@ -16,11 +16,38 @@
 
 package com.github.dominik48n.party.redis;
 
+import java.util.UUID;
 import org.jetbrains.annotations.NotNull;
 
 public abstract class RedisSubscription {
 
+    private @NotNull HandlerExecutor handlerExecutor = HandlerExecutor.INLINE;
+
     public abstract @NotNull String channel();
 
     public abstract void onMessage(final @NotNull String message);
+
+    /**
+     * Returns whether this subscription also receives the messages for the players of this proxy only, which are published to the
+     * channel of this proxy, see {@link RedisManager#publish(String, String, com.github.dominik48n.party.config.Document)}.
+     *
+     * @return true if the channel of this proxy is subscribed as well
+     */
+    public boolean targeted() {
+        return false;
+    }
+
+    /**
+     * Handles a message for a player off the subscriber thread, after all handlers that were submitted before for this player.
+     *
+     * @param player  the {@link UUID} of the player the handler acts on
+     * @param handler the handler
+     */
+    protected void handle(final @NotNull UUID player, final @NotNull Runnable handler) {
+        this.handlerExecutor.execute(player, handler);
+    }
+
+    void handlerExecutor(final @NotNull HandlerExecutor handlerExecutor) {
+        this.handlerExecutor = handlerExecutor;
+    }
 }
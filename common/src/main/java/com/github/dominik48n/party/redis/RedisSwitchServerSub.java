@@ -16,11 +16,14 @@
 
 package com.github.dominik48n.party.redis;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.github.dominik48n.party.config.Document;
 import com.github.dominik48n.party.user.UserManager;
+import java.io.IOException;
+import java.util.List;
 import java.util.UUID;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.minimessage.MiniMessage;
 import org.jetbrains.annotations.NotNull;
 
 public class RedisSwitchServerSub<TUser> extends RedisSubscription {
@@ -36,24 +39,40 @@ public class RedisSwitchServerSub<TUser> extends RedisSubscription {
     @Override
     public void onMessage(final @NotNull String message) {
         final Document document;
+        final List<String> recipients;
         try {
             document = new Document((ObjectNode) Document.MAPPER.readTree(message));
-        } catch (final JsonProcessingException ignored) {
+            recipients = document.getStringList("unique_ids");
+        } catch (final IOException ignored) {
             return;
         }
 
-        final UUID uniqueId;
-        try {
-            uniqueId = UUID.fromString(document.getString("unique_id", UUID.randomUUID().toString()));
-        } catch (final IllegalArgumentException ignored) {
-            return;
-        }
+        // A party warp carries all members of this proxy and the notice for them, older versions send one player without a notice.
+        final String server = document.getString("server", "");
+        final String notice = document.getString("message", "");
+        final Component component = notice.isEmpty() ? null : MiniMessage.miniMessage().deserialize(notice);
+        for (final String recipient : recipients.isEmpty() ? List.of(document.getString("unique_id", "")) : recipients) {
+            final UUID uniqueId;
+            try {
+                uniqueId = UUID.fromString(recipient);
+            } catch (final IllegalArgumentException ignored) {
+                continue;
+            }
 
-        this.userManager.connectToServer(uniqueId, document.getString("server", ""));
+            this.handle(uniqueId, () -> {
+                this.userManager.connectToServer(uniqueId, server);
+                if (component != null) this.userManager.sendMessageToLocalUser(uniqueId, component);
+            });
+        }
     }
 
     @Override
     public @NotNull String channel() {
         return CHANNEL;
     }
+
+    @Override
+    public boolean targeted() {
+        return true;
+    }
 }
@@ -42,7 +42,7 @@ public class RedisUpdateUserPartySub<TUser> extends RedisSubscription {
             return;
         }
 
-        this.userManager.userFromCache(uniqueId).ifPresent(player -> {
+        this.handle(uniqueId, () -> this.userManager.userFromCache(uniqueId).ifPresent(player -> {
             final UUID partyId;
             try {
                 final String s = split[1];
@@ -53,7 +53,7 @@ public class RedisUpdateUserPartySub<TUser> extends RedisSubscription {
             }
 
             player.partyId(partyId);
-        });
+        }));
     }
 
     @Override
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2023 Dominik48N
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.dominik48n.party.redis;
+
+import com.github.dominik48n.party.config.ReplicaConfig;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.jetbrains.annotations.NotNull;
+import redis.clients.jedis.Connection;
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.JedisClientConfig;
+import redis.clients.jedis.JedisPooled;
+import redis.clients.jedis.UnifiedJedis;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.params.SetParams;
+
+/**
+ * Routes read-only commands to the replicas of a standalone Redis server.
+ * <p>
+ * The staleness of every replica is measured with a heartbeat: every proxy writes the current time to its own key on the primary periodically
+ * and reads it back from the replicas. A replica only serves reads while the heartbeat it returns is at most
+ * {@link ReplicaConfig#maxStalenessMillis()} old, otherwise the reads go to the primary until it has caught up again.
+ * The heartbeat is only compared with the clock of the proxy that wrote it, so the clocks of different proxies may differ.
+ */
+final class ReplicaRouter implements AutoCloseable {
+
+    static final @NotNull String HEARTBEAT_KEY = "party_replication_heartbeat";
+
+    private static final long MIN_CHECK_INTERVAL_MILLIS = 100L;
+
+    private final @NotNull UnifiedJedis primary;
+    private final @NotNull String heartbeatKey;
+    private final @NotNull List<Replica> replicas;
+    private final long maxStalenessMillis;
+    private final @NotNull AtomicInteger next = new AtomicInteger();
+    private final @NotNull ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("party-redis-replicas").setDaemon(true).build()
+    );
+
+    ReplicaRouter(
+            final @NotNull UnifiedJedis primary,
+            final @NotNull ReplicaConfig config,
+            final @NotNull GenericObjectPoolConfig<Connection> poolConfig,
+            final @NotNull JedisClientConfig clientConfig,
+            final @NotNull String proxyId
+    ) {
+        this(
+                primary,
+                config.hosts().stream().map(host -> new Replica(host, new JedisPooled(poolConfig, host, clientConfig))).toList(),
+                config.maxStalenessMillis(),
+                proxyId
+        );
+    }
+
+    ReplicaRouter(final @NotNull UnifiedJedis primary, final @NotNull List<Replica> replicas, final long maxStalenessMillis, final @NotNull String proxyId) {
+        this.primary = primary;
+        this.heartbeatKey = HEARTBEAT_KEY + ":" + proxyId;
+        this.replicas = replicas;
+        this.maxStalenessMillis = maxStalenessMillis;
+    }
+
+    /**
+     * Starts to measure the staleness of the replicas. Until the first heartbeat was replicated, all reads go to the primary.
+     */
+    void start() {
+        // The heartbeat is checked at least twice within the allowed staleness, so a caught-up replica never looks stale.
+        final long interval = Math.max(MIN_CHECK_INTERVAL_MILLIS, this.maxStalenessMillis / 2);
+        this.scheduler.scheduleWithFixedDelay(this::checkReplicas, 0L, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Runs a read-only command on a replica that isn't too stale, or on the primary if there is none.
+     * If the replica can't be reached, the command is repeated on the primary.
+     *
+     * @param command the command that only reads keys
+     * @param <T>     the type of the reply
+     *
+     * @return the reply of the command
+     */
+    <T> T read(final @NotNull Function<UnifiedJedis, T> command) {
+        final int start = Math.floorMod(this.next.getAndIncrement(), this.replicas.size());
+        for (int i = 0; i < this.replicas.size(); i++) {
+            final Replica replica = this.replicas.get((start + i) % this.replicas.size());
+            if (!replica.usable) continue;
+
+            try {
+                return command.apply(replica.jedis);
+            } catch (final JedisConnectionException e) {
+                replica.usable = false;
+                break;
+            }
+        }
+        return command.apply(this.primary);
+    }
+
+    void checkReplicas() {
+        final long now = System.currentTimeMillis();
+        for (final Replica replica : this.replicas) {
+            try {
+                final String heartbeat = replica.jedis.get(this.heartbeatKey);
+                replica.usable = heartbeat != null && now - Long.parseLong(heartbeat) <= this.maxStalenessMillis;
+            } catch (final RuntimeException e) {
+                replica.usable = false;
+            }
+        }
+
+        try {
+            // The key expires if no proxy writes it anymore, so replicas aren't trusted based on an old heartbeat.
+            this.primary.set(this.heartbeatKey, String.valueOf(now), SetParams.setParams().px(this.maxStalenessMillis * 2));
+        } catch (final RuntimeException ignored) {
+            // The primary is unreachable, the next check tries again
+        }
+    }
+
+    @NotNull List<RedisPoolStats> poolStats() {
+        return this.replicas.stream()
+                .filter(replica -> replica.jedis instanceof JedisPooled)
+                .map(replica -> RedisPoolStats.of(replica.host.toString(), ((JedisPooled) replica.jedis).getPool()))
+                .toList();
+    }
+
+    @Override
+    public void close() {
+        this.scheduler.shutdownNow();
+        this.replicas.forEach(replica -> replica.jedis.close());
+    }
+
+    static final class Replica {
+
+        private final @NotNull HostAndPort host;
+        private final @NotNull UnifiedJedis jedis;
+
+        private volatile boolean usable;
+
+        Replica(final @NotNull HostAndPort host, final @NotNull UnifiedJedis jedis) {
+            this.host = host;
+            this.jedis = jedis;
+        }
+
+        boolean usable() {
+            return this.usable;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2023 Dominik48N
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.dominik48n.party.redis;
+
+import java.util.List;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.jetbrains.annotations.NotNull;
+import redis.clients.jedis.Connection;
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.JedisClientConfig;
+import redis.clients.jedis.JedisPooled;
+import redis.clients.jedis.params.SetParams;
+import redis.clients.jedis.util.SafeEncoder;
+
+/**
+ * A {@link JedisPooled} that reads binary values through a {@link ClientSideCache}.
+ * Keys written by this proxy are dropped from the cache right away, so a following read never waits for the invalidation of Redis.
+ */
+class TrackingJedisPooled extends JedisPooled {
+
+    private final @NotNull ClientSideCache cache;
+
+    TrackingJedisPooled(
+            final @NotNull GenericObjectPoolConfig<Connection> poolConfig,
+            final @NotNull HostAndPort host,
+            final @NotNull JedisClientConfig clientConfig,
+            final @NotNull ClientSideCache cache
+    ) {
+        super(poolConfig, host, clientConfig);
+        this.cache = cache;
+    }
+
+    @Override
+    public byte[] get(final byte[] key) {
+        return this.cache.get(SafeEncoder.encode(key), () -> super.get(key));
+    }
+
+    @Override
+    public String set(final byte[] key, final byte[] value) {
+        try {
+            return super.set(key, value);
+        } finally {
+            this.cache.invalidate(SafeEncoder.encode(key));
+        }
+    }
+
+    @Override
+    public String set(final byte[] key, final byte[] value, final SetParams params) {
+        try {
+            return super.set(key, value, params);
+        } finally {
+            this.cache.invalidate(SafeEncoder.encode(key));
+        }
+    }
+
+    @Override
+    public long del(final String key) {
+        try {
+            return super.del(key);
+        } finally {
+            this.cache.invalidate(key);
+        }
+    }
+
+    @Override
+    public long del(final String... keys) {
+        try {
+            return super.del(keys);
+        } finally {
+            for (final String key : keys) this.cache.invalidate(key);
+        }
+    }
+
+    @Override
+    public Object evalsha(final String sha1, final List<String> keys, final List<String> args) {
+        try {
+            return super.evalsha(sha1, keys, args);
+        } finally {
+            keys.forEach(this.cache::invalidate);
+        }
+    }
+
+    @Override
+    public Object evalsha(final byte[] sha1, final List<byte[]> keys, final List<byte[]> args) {
+        try {
+            return super.evalsha(sha1, keys, args);
+        } finally {
+            keys.forEach(key -> this.cache.invalidate(SafeEncoder.encode(key)));
+        }
+    }
+}
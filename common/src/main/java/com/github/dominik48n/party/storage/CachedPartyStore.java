@@ -0,0 +1,143 @@
+/*
+ * Copyright 2023 Dominik48N
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.dominik48n.party.storage;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.github.dominik48n.party.api.Party;
+import com.github.dominik48n.party.api.player.PartyPlayer;
+import com.github.dominik48n.party.config.PartyCacheConfig;
+import com.github.dominik48n.party.redis.RedisInvalidatePartySub;
+import com.github.dominik48n.party.redis.RedisManager;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.Lists;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Keeps recently read parties in memory in front of another {@link PartyStore}, so reads of hot parties don't touch the network.
+ * <p>
+ * Every change of a party is published to all proxies, which then drop the party from their cache. Invalidations that are published while
+ * the subscriber reconnects are lost, so the whole cache is dropped once it is subscribed again. A cached party is read from Redis again
+ * after {@link PartyCacheConfig#maxStalenessMillis()} at the latest, in case an invalidation is missed anyway.
+ */
+public class CachedPartyStore implements PartyStore {
+
+    private final @NotNull PartyStore delegate;
+    private final @NotNull RedisManager redisManager;
+    private final @NotNull Cache<UUID, Party> cache;
+
+    public CachedPartyStore(final @NotNull PartyStore delegate, final @NotNull RedisManager redisManager, final @NotNull PartyCacheConfig config) {
+        this.delegate = delegate;
+        this.redisManager = redisManager;
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(config.maximumSize())
+                .expireAfterWrite(Duration.ofMillis(config.maxStalenessMillis()))
+                .recordStats()
+                .build();
+
+        redisManager.registerSubscription(new RedisInvalidatePartySub(this.cache::invalidate));
+        redisManager.registerResyncHook(this.cache::invalidateAll);
+    }
+
+    @Override
+    public @NotNull Optional<Party> get(final @NotNull UUID id) throws JsonProcessingException {
+        Party party = this.cache.getIfPresent(id);
+        if (party == null) {
+            // Missing parties aren't cached, because nobody would invalidate them when they are created.
+            final Optional<Party> stored = this.delegate.get(id);
+            if (stored.isEmpty()) return Optional.empty();
+
+            party = new Party(id, stored.get().leader(), List.copyOf(stored.get().members()), stored.get().maxMembers());
+            this.cache.put(id, party);
+        }
+
+        // Callers may change the members, so they get their own copy of the cached party.
+        return Optional.of(new Party(party.id(), party.leader(), Lists.newArrayList(party.members()), party.maxMembers()));
+    }
+
+    @Override
+    public @NotNull Optional<Party> getFromReplica(final @NotNull UUID id) throws JsonProcessingException {
+        final Party party = this.cache.getIfPresent(id);
+        if (party != null) return Optional.of(new Party(party.id(), party.leader(), Lists.newArrayList(party.members()), party.maxMembers()));
+
+        // A replica may return a party that was already invalidated, so it isn't cached.
+        return this.delegate.getFromReplica(id);
+    }
+
+    @Override
+    public @NotNull PartyCreation create(final @NotNull Party party) throws JsonProcessingException {
+        return this.delegate.create(party);
+    }
+
+    @Override
+    public void addMember(final @NotNull UUID partyId, final @NotNull UUID player) {
+        this.delegate.addMember(partyId, player);
+        this.invalidate(partyId);
+    }
+
+    @Override
+    public void removeMember(final @NotNull UUID partyId, final @NotNull UUID player) {
+        this.delegate.removeMember(partyId, player);
+        this.invalidate(partyId);
+    }
+
+    @Override
+    public void changeLeader(final @NotNull UUID partyId, final @NotNull UUID oldLeader, final @NotNull UUID newLeader, final int maxMembers) {
+        this.delegate.changeLeader(partyId, oldLeader, newLeader, maxMembers);
+        this.invalidate(partyId);
+    }
+
+    @Override
+    public void delete(final @NotNull UUID id) {
+        this.delegate.delete(id);
+        this.invalidate(id);
+    }
+
+    @Override
+    public @NotNull PartyLogout logout(
+            final @NotNull UUID partyId,
+            final @NotNull Collection<PartyPlayer> players
+    ) {
+        final PartyLogout logout = this.delegate.logout(partyId, players);
+        if (logout.outcome() != PartyLogout.Outcome.NONE) this.invalidate(partyId);
+        return logout;
+    }
+
+    /**
+     * Returns the hit and miss counts of the cache on this proxy.
+     *
+     * @return the {@link CacheStats} of the cache
+     */
+    public @NotNull CacheStats stats() {
+        return this.cache.stats();
+    }
+
+    public @NotNull PartyStore delegate() {
+        return this.delegate;
+    }
+
+    private void invalidate(final @NotNull UUID partyId) {
+        this.cache.invalidate(partyId);
+        this.redisManager.publish(RedisInvalidatePartySub.CHANNEL, partyId.toString());
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2023 Dominik48N
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.dominik48n.party.storage;
+
+import com.github.dominik48n.party.api.Party;
+import com.github.dominik48n.party.api.player.PartyPlayer;
+import com.github.dominik48n.party.codec.PartyCodec;
+import com.github.dominik48n.party.codec.PartyCodecType;
+import com.github.dominik48n.party.redis.ClusterCommands;
+import com.github.dominik48n.party.redis.RedisManager;
+import com.github.dominik48n.party.redis.RedisScript;
+import com.google.common.collect.Lists;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import redis.clients.jedis.params.ScanParams;
+import redis.clients.jedis.resps.ScanResult;
+
+/**
+ * Stores the leader and member limit of every party in a hash under {@code party:<id>} and its members in a set under {@code party:<id>:members}.
+ * Membership changes are therefore O(1) and don't rewrite the whole party.
+ * <p>
+ * Parties that are still stored as JSON by {@link JsonPartyStore} are converted the first time they are accessed, or all at once by {@link #migrate()}.
+ * {@link #getFromReplica(UUID)} may be sent to a read replica, which can't convert a party, so a party that wasn't converted yet is read from the primary.
+ */
+public class HashPartyStore extends RedisPartyStore {
+
+    private static final @NotNull RedisScript CREATE_SCRIPT = RedisScript.fromResources("codec", "party", "create_hash_party");
+    private static final @NotNull RedisScript READ_SCRIPT = RedisScript.fromResources("read_hash_party");
+    private static final @NotNull RedisScript GET_SCRIPT = RedisScript.fromResources("codec", "party", "party_hash", "get_hash_party");
+    private static final @NotNull RedisScript ADD_MEMBER_SCRIPT = RedisScript.fromResources("codec", "party", "party_hash", "add_player_to_hash_party");
+    private static final @NotNull RedisScript REMOVE_MEMBER_SCRIPT = RedisScript.fromResources("codec", "party", "party_hash", "remove_player_from_hash_party");
+    private static final @NotNull RedisScript CHANGE_LEADER_SCRIPT = RedisScript.fromResources("codec", "party", "party_hash", "change_hash_party_leader");
+    private static final @NotNull RedisScript LOGOUT_SCRIPT = RedisScript.fromResources("codec", "party", "party_hash", "logout_hash_party");
+    private static final @NotNull RedisScript MIGRATE_SCRIPT = RedisScript.fromResources("codec", "party", "party_hash", "migrate_hash_party");
+
+    public HashPartyStore(final @NotNull RedisManager redisManager) {
+        this(redisManager, PartyCodecType.JSON.create());
+    }
+
+    public HashPartyStore(final @NotNull RedisManager redisManager, final @NotNull PartyCodec codec) {
+        super(redisManager, codec);
+    }
+
+    @Override
+    public @NotNull Optional<Party> get(final @NotNull UUID id) {
+        return this.decode(id, GET_SCRIPT.eval(this.redisManager.jedis(), this.partyKeys(id), List.of()));
+    }
+
+    @Override
+    public @NotNull Optional<Party> getFromReplica(final @NotNull UUID id) {
+        final List<String> keys = this.partyKeys(id);
+        final Object reply = this.redisManager.read(jedis -> READ_SCRIPT.eval(jedis, keys, List.of()));
+        // A replica rejects the writes of the conversion, so a party that is still stored as a single value is read from the primary.
+        return reply instanceof Long ? this.get(id) : this.decode(id, reply);
+    }
+
+    @Override
+    public @NotNull PartyCreation create(final @NotNull Party party) {
+        final List<String> args = Lists.newArrayList(party.id().toString(), party.leader().toString(), String.valueOf(party.maxMembers()));
+        party.members().forEach(member -> args.add(member.toString()));
+
+        final Object created = CREATE_SCRIPT.eval(this.redisManager.jedis(), this.scriptKeys(this.partyKeys(party.id()), party.leader()), args);
+        return this.joinLeaderInCluster(party, PartyCreation.fromReply(created));
+    }
+
+    @Override
+    public void addMember(final @NotNull UUID partyId, final @NotNull UUID player) {
+        ADD_MEMBER_SCRIPT.eval(
+                this.redisManager.jedis(),
+                this.scriptKeys(this.partyKeys(partyId), player),
+                List.of(partyId.toString(), player.toString())
+        );
+        this.updatePlayerInCluster(player, partyId);
+    }
+
+    @Override
+    public void removeMember(final @NotNull UUID partyId, final @NotNull UUID player) {
+        REMOVE_MEMBER_SCRIPT.eval(
+                this.redisManager.jedis(),
+                this.scriptKeys(this.partyKeys(partyId), player),
+                List.of(player.toString())
+        );
+        this.updatePlayerInCluster(player, null);
+    }
+
+    @Override
+    public void changeLeader(final @NotNull UUID partyId, final @NotNull UUID oldLeader, final @NotNull UUID newLeader, final int maxMembers) {
+        CHANGE_LEADER_SCRIPT.eval(
+                this.redisManager.jedis(),
+                this.partyKeys(partyId),
+                List.of(oldLeader.toString(), newLeader.toString(), String.valueOf(maxMembers))
+        );
+    }
+
+    @Override
+    public void delete(final @NotNull UUID id) {
+        this.redisManager.jedis().del(this.keys.party(id), this.keys.partyMembers(id));
+    }
+
+    @Override
+    public @NotNull PartyLogout logout(
+            final @NotNull UUID partyId,
+            final @NotNull Collection<PartyPlayer> players
+    ) {
+        return this.logout(LOGOUT_SCRIPT, this.partyKeys(partyId), partyId, players);
+    }
+
+    /**
+     * Converts all parties that are still stored as JSON into the hash layout.
+     *
+     * @return the number of converted parties
+     */
+    public int migrate() {
+        final ScanParams scanParams = new ScanParams().match(this.keys.partyPattern()).count(500);
+        int migrated = 0;
+        String cursor = ScanParams.SCAN_POINTER_START;
+        do {
+            final ScanResult<String> result = ClusterCommands.scan(this.redisManager.jedis(), cursor, scanParams);
+            cursor = result.getCursor();
+
+            for (final String key : result.getResult()) {
+                final UUID partyId = this.keys.partyId(key);
+                if (partyId == null) continue;
+
+                final Object reply = MIGRATE_SCRIPT.eval(this.redisManager.jedis(), this.partyKeys(partyId), List.of());
+                if (reply instanceof final Long converted) migrated += converted.intValue();
+            }
+        } while (!cursor.equals(ScanParams.SCAN_POINTER_START));
+        return migrated;
+    }
+
+    private @NotNull Optional<Party> decode(final @NotNull UUID id, final @Nullable Object reply) {
+        if (!(reply instanceof final List<?> fields) || fields.size() < 2) return Optional.empty();
+
+        final List<UUID> members = Lists.newArrayListWithCapacity(fields.size() - 2);
+        for (int i = 2; i < fields.size(); i++) members.add(UUID.fromString((String) fields.get(i)));
+
+        return Optional.of(new Party(id, UUID.fromString((String) fields.get(0)), members, Integer.parseInt((String) fields.get(1))));
+    }
+
+    private @NotNull List<String> partyKeys(final @NotNull UUID partyId) {
+        return List.of(this.keys.party(partyId), this.keys.partyMembers(partyId));
+    }
+}
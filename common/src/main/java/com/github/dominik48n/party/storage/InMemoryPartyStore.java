@@ -0,0 +1,175 @@
+/*
+ * Copyright 2023 Dominik48N
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.dominik48n.party.storage;
+
+import com.github.dominik48n.party.api.Party;
+import com.github.dominik48n.party.api.player.PartyPlayer;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Striped;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Keeps the parties in the memory of this proxy, together with an {@link InMemoryPlayerStore} for the party ids of their members.
+ * <p>
+ * Every mutation of a party runs under the lock of the party, like a script in Redis. The locks are striped, so mutations of different
+ * parties rarely wait for each other. Parties are stored as immutable copies and every read returns a new copy.
+ */
+public class InMemoryPartyStore implements PartyStore {
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final @NotNull Map<UUID, Party> parties = new ConcurrentHashMap<>();
+    private final @NotNull Striped<Lock> locks = Striped.lock(LOCK_STRIPES);
+    private final @NotNull InMemoryPlayerStore players;
+
+    public InMemoryPartyStore(final @NotNull InMemoryPlayerStore players) {
+        this.players = players;
+    }
+
+    @Override
+    public @NotNull Optional<Party> get(final @NotNull UUID id) {
+        final Party party = this.parties.get(id);
+        if (party == null) return Optional.empty();
+
+        return Optional.of(new Party(party.id(), party.leader(), Lists.newArrayList(party.members()), party.maxMembers()));
+    }
+
+    @Override
+    public @NotNull PartyCreation create(final @NotNull Party party) {
+        return this.locked(party.id(), () -> {
+            if (this.parties.containsKey(party.id())) return PartyCreation.ID_TAKEN;
+            if (!this.players.joinWithoutParty(party.leader(), party.id())) return PartyCreation.LEADER_UNAVAILABLE;
+
+            this.parties.put(party.id(), snapshot(party.id(), party.leader(), party.members(), party.maxMembers()));
+            return PartyCreation.CREATED;
+        });
+    }
+
+    @Override
+    public void addMember(final @NotNull UUID partyId, final @NotNull UUID player) {
+        this.locked(partyId, () -> {
+            final Party party = this.parties.get(partyId);
+            if (party != null && !party.members().contains(player)) {
+                final List<UUID> members = Lists.newArrayList(party.members());
+                members.add(player);
+                this.parties.put(partyId, snapshot(partyId, party.leader(), members, party.maxMembers()));
+            }
+            return this.players.updatePartyId(player, partyId);
+        });
+    }
+
+    @Override
+    public void removeMember(final @NotNull UUID partyId, final @NotNull UUID player) {
+        this.locked(partyId, () -> {
+            final Party party = this.parties.get(partyId);
+            if (party != null) {
+                final List<UUID> members = Lists.newArrayList(party.members());
+                members.removeIf(player::equals);
+                this.parties.put(partyId, snapshot(partyId, party.leader(), members, party.maxMembers()));
+            }
+            return this.players.updatePartyId(player, null);
+        });
+    }
+
+    @Override
+    public void changeLeader(final @NotNull UUID partyId, final @NotNull UUID oldLeader, final @NotNull UUID newLeader, final int maxMembers) {
+        this.locked(partyId, () -> {
+            final Party party = this.parties.get(partyId);
+            if (party == null) return false;
+
+            final List<UUID> members = Lists.newArrayList(party.members());
+            members.removeIf(newLeader::equals);
+            if (!members.contains(oldLeader)) members.add(oldLeader);
+            this.parties.put(partyId, snapshot(partyId, newLeader, members, maxMembers));
+            return true;
+        });
+    }
+
+    @Override
+    public void delete(final @NotNull UUID id) {
+        this.parties.remove(id);
+    }
+
+    @Override
+    public @NotNull PartyLogout logout(final @NotNull UUID partyId, final @NotNull Collection<PartyPlayer> players) {
+        final Set<UUID> leaving = players.stream().map(PartyPlayer::uniqueId).collect(Collectors.toSet());
+        return this.locked(partyId, () -> {
+            try {
+                return this.leave(partyId, leaving);
+            } finally {
+                // The players are deleted under the lock of the party, so nobody can make them the new leader meanwhile.
+                this.players.delete(players);
+            }
+        });
+    }
+
+    private @NotNull PartyLogout leave(final @NotNull UUID partyId, final @NotNull Set<UUID> leaving) {
+        final Party party = this.parties.get(partyId);
+        if (party == null) return new PartyLogout(PartyLogout.Outcome.NONE, null, List.of());
+
+        final List<UUID> members = Lists.newArrayList(party.members());
+        members.removeIf(leaving::contains);
+        if (!leaving.contains(party.leader())) {
+            this.parties.put(partyId, snapshot(partyId, party.leader(), members, party.maxMembers()));
+            return new PartyLogout(PartyLogout.Outcome.LEFT, null, remainingMembers(party.leader(), members));
+        }
+
+        // The first member that is still online becomes the new leader
+        for (final UUID member : members) {
+            final PartyPlayer newLeader = this.players.online(member);
+            if (newLeader == null) continue;
+
+            members.remove(member);
+            this.parties.put(partyId, snapshot(partyId, member, members, newLeader.memberLimit()));
+            return new PartyLogout(PartyLogout.Outcome.LEADER, newLeader.name(), remainingMembers(member, members));
+        }
+
+        this.parties.remove(partyId);
+        return new PartyLogout(PartyLogout.Outcome.DELETED, null, List.of());
+    }
+
+    private <T> T locked(final @NotNull UUID partyId, final @NotNull Supplier<T> action) {
+        final Lock lock = this.locks.get(partyId);
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static @NotNull Party snapshot(final @NotNull UUID id, final @NotNull UUID leader, final @NotNull List<UUID> members, final int maxMembers) {
+        return new Party(id, leader, List.copyOf(members), maxMembers);
+    }
+
+    private static @NotNull List<UUID> remainingMembers(final @NotNull UUID leader, final @NotNull List<UUID> members) {
+        final List<UUID> remainingMembers = Lists.newArrayListWithCapacity(members.size() + 1);
+        remainingMembers.add(leader);
+        remainingMembers.addAll(members);
+        return remainingMembers;
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2023 Dominik48N
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.dominik48n.party.storage;
+
+import com.github.dominik48n.party.api.player.PartyPlayer;
+import com.github.dominik48n.party.user.UserDeserializer;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.Striped;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Keeps the online players in the memory of this proxy, which is only sufficient if the network has a single proxy.
+ * <p>
+ * A player and its name index entry are updated under the lock of the player, the locks are striped so that unrelated players
+ * rarely wait for each other. Players are copied when they are stored and returned, so callers can't change the stored state.
+ */
+public class InMemoryPlayerStore implements PlayerStore {
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final @NotNull Map<UUID, PartyPlayer> players = new ConcurrentHashMap<>();
+    private final @NotNull Map<String, UUID> names = new ConcurrentHashMap<>();
+    private final @NotNull Map<String, Map<String, Long>> requests = new ConcurrentHashMap<>();
+    private final @NotNull Striped<Lock> locks = Striped.lock(LOCK_STRIPES);
+
+    @Override
+    public @NotNull Optional<PartyPlayer> get(final @NotNull UUID uniqueId) {
+        return Optional.ofNullable(this.players.get(uniqueId)).map(InMemoryPlayerStore::copy);
+    }
+
+    @Override
+    public @NotNull Optional<UUID> uniqueId(final @NotNull String username) {
+        return Optional.ofNullable(this.names.get(username.toLowerCase(Locale.ROOT)));
+    }
+
+    @Override
+    public @NotNull Map<UUID, PartyPlayer> get(final @NotNull Collection<UUID> uniqueIds) {
+        final Map<UUID, PartyPlayer> players = Maps.newHashMap();
+        for (final UUID uniqueId : uniqueIds) {
+            final PartyPlayer player = this.players.get(uniqueId);
+            if (player != null) players.put(uniqueId, copy(player));
+        }
+        return players;
+    }
+
+    @Override
+    public @NotNull Iterator<PartyPlayer> iterator(final int batchSize) {
+        // The iterator works on a snapshot, so players who log in or out meanwhile don't disturb it.
+        return this.players.values().stream().map(InMemoryPlayerStore::copy).toList().iterator();
+    }
+
+    @Override
+    public void save(final @NotNull PartyPlayer player) {
+        final Lock lock = this.locks.get(player.uniqueId());
+        lock.lock();
+        try {
+            this.players.put(player.uniqueId(), copy(player));
+            this.names.put(player.name().toLowerCase(Locale.ROOT), player.uniqueId());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean updatePartyId(final @NotNull UUID uniqueId, final @Nullable UUID partyId) {
+        return this.updatePartyId(uniqueId, partyId, false);
+    }
+
+    /**
+     * Sets the party id of a player who is in no party, e.g. the leader of a new party.
+     *
+     * @param uniqueId the {@link UUID} of the player
+     * @param partyId  the {@link UUID} of the party
+     *
+     * @return true if the player was updated, false if the player is offline or already in a party
+     */
+    boolean joinWithoutParty(final @NotNull UUID uniqueId, final @NotNull UUID partyId) {
+        return this.updatePartyId(uniqueId, partyId, true);
+    }
+
+    @Override
+    public @NotNull List<PartyPlayer> loadForLogout(final @NotNull Collection<UUID> uniqueIds) {
+        return Lists.newArrayList(this.get(uniqueIds).values());
+    }
+
+    @Override
+    public void delete(final @NotNull Collection<PartyPlayer> players) {
+        for (final PartyPlayer player : players) {
+            final Lock lock = this.locks.get(player.uniqueId());
+            lock.lock();
+            try {
+                this.players.remove(player.uniqueId());
+                // The name may already belong to a newer session of another player.
+                this.names.remove(player.name().toLowerCase(Locale.ROOT), player.uniqueId());
+                this.requests.remove(player.name());
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void createRequest(final @NotNull String source, final @NotNull String target, final int expires) {
+        final long now = System.currentTimeMillis();
+        this.requests.compute(source, (key, requests) -> {
+            final Map<String, Long> updated = requests != null ? requests : new ConcurrentHashMap<>();
+            updated.values().removeIf(expiresAt -> expiresAt <= now);
+            updated.put(target, now + expires * 1000L);
+            return updated;
+        });
+    }
+
+    @Override
+    public void removeRequest(final @NotNull String source, final @NotNull String target) {
+        this.requests.computeIfPresent(source, (key, requests) -> {
+            requests.remove(target);
+            return requests.isEmpty() ? null : requests;
+        });
+    }
+
+    @Override
+    public void clearRequests(final @NotNull String source) {
+        this.requests.remove(source);
+    }
+
+    @Override
+    public boolean existsRequest(final @NotNull String source, final @NotNull String target) {
+        final Map<String, Long> requests = this.requests.get(source);
+        final Long expiresAt = requests != null ? requests.get(target) : null;
+        if (expiresAt == null) return false;
+        if (expiresAt > System.currentTimeMillis()) return true;
+
+        this.removeRequest(source, target);
+        return false;
+    }
+
+    @Override
+    public @NotNull List<String> requests(final @NotNull String source) {
+        final Map<String, Long> requests = this.requests.get(source);
+        if (requests == null) return List.of();
+
+        final long now = System.currentTimeMillis();
+        return requests.entrySet().stream().filter(request -> request.getValue() > now).map(Map.Entry::getKey).toList();
+    }
+
+    /**
+     * Checks whether a player is online, without copying it.
+     *
+     * @param uniqueId the {@link UUID} of the player
+     *
+     * @return the stored player or null if the player is not online
+     */
+    @Nullable PartyPlayer online(final @NotNull UUID uniqueId) {
+        return this.players.get(uniqueId);
+    }
+
+    private boolean updatePartyId(final @NotNull UUID uniqueId, final @Nullable UUID partyId, final boolean onlyWithoutParty) {
+        final Lock lock = this.locks.get(uniqueId);
+        lock.lock();
+        try {
+            final PartyPlayer player = this.players.get(uniqueId);
+            if (player == null || (partyId != null && partyId.equals(player.partyId().orElse(null)))) return false;
+            if (onlyWithoutParty && player.partyId().isPresent()) return false;
+
+            // The player is replaced instead of changed, so readers never see a half-updated player.
+            this.players.put(uniqueId, new UserDeserializer.DeserializedUser(player.uniqueId(), player.name(), partyId, player.memberLimit()));
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static @NotNull PartyPlayer copy(final @NotNull PartyPlayer player) {
+        return new UserDeserializer.DeserializedUser(player.uniqueId(), player.name(), player.partyId().orElse(null), player.memberLimit());
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2023 Dominik48N
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.dominik48n.party.storage;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.github.dominik48n.party.api.Party;
+import com.github.dominik48n.party.api.player.PartyPlayer;
+import com.github.dominik48n.party.codec.PartyCodec;
+import com.github.dominik48n.party.redis.RedisManager;
+import com.github.dominik48n.party.redis.RedisScript;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import redis.clients.jedis.util.SafeEncoder;
+
+/**
+ * Stores every party as one value under {@code party:<id>}, encoded by the configured {@link PartyCodec}.
+ */
+public class JsonPartyStore extends RedisPartyStore {
+
+    private static final @NotNull RedisScript CREATE_SCRIPT = RedisScript.fromResources("codec", "party", "create_party");
+    private static final @NotNull RedisScript ADD_MEMBER_SCRIPT = RedisScript.fromResources("codec", "party", "add_player_to_party");
+    private static final @NotNull RedisScript REMOVE_MEMBER_SCRIPT = RedisScript.fromResources("codec", "party", "remove_player_from_party");
+    private static final @NotNull RedisScript CHANGE_LEADER_SCRIPT = RedisScript.fromResources("codec", "party", "change_party_leader");
+    private static final @NotNull RedisScript LOGOUT_SCRIPT = RedisScript.fromResources("codec", "party", "logout_party");
+
+    public JsonPartyStore(final @NotNull RedisManager redisManager, final @NotNull PartyCodec codec) {
+        super(redisManager, codec);
+    }
+
+    @Override
+    public @NotNull Optional<Party> get(final @NotNull UUID id) throws JsonProcessingException {
+        return this.decode(this.redisManager.jedis().get(SafeEncoder.encode(this.keys.party(id))));
+    }
+
+    @Override
+    public @NotNull Optional<Party> getFromReplica(final @NotNull UUID id) throws JsonProcessingException {
+        return this.decode(this.redisManager.read(jedis -> jedis.get(SafeEncoder.encode(this.keys.party(id)))));
+    }
+
+    @Override
+    public @NotNull PartyCreation create(final @NotNull Party party) throws JsonProcessingException {
+        final Object created = CREATE_SCRIPT.evalBinary(
+                this.redisManager.jedis(),
+                this.scriptKeys(List.of(this.keys.party(party.id())), party.leader()).stream().map(SafeEncoder::encode).toList(),
+                List.of(this.codec.encodeParty(party), SafeEncoder.encode(party.id().toString()))
+        );
+        return this.joinLeaderInCluster(party, PartyCreation.fromReply(created));
+    }
+
+    @Override
+    public void addMember(final @NotNull UUID partyId, final @NotNull UUID player) {
+        ADD_MEMBER_SCRIPT.eval(
+                this.redisManager.jedis(),
+                this.scriptKeys(List.of(this.keys.party(partyId)), player),
+                List.of(partyId.toString(), player.toString())
+        );
+        this.updatePlayerInCluster(player, partyId);
+    }
+
+    @Override
+    public void removeMember(final @NotNull UUID partyId, final @NotNull UUID player) {
+        REMOVE_MEMBER_SCRIPT.eval(
+                this.redisManager.jedis(),
+                this.scriptKeys(List.of(this.keys.party(partyId)), player),
+                List.of(player.toString())
+        );
+        this.updatePlayerInCluster(player, null);
+    }
+
+    @Override
+    public void changeLeader(final @NotNull UUID partyId, final @NotNull UUID oldLeader, final @NotNull UUID newLeader, final int maxMembers) {
+        CHANGE_LEADER_SCRIPT.eval(
+                this.redisManager.jedis(),
+                List.of(this.keys.party(partyId)),
+                List.of(oldLeader.toString(), newLeader.toString(), String.valueOf(maxMembers))
+        );
+    }
+
+    @Override
+    public void delete(final @NotNull UUID id) {
+        this.redisManager.jedis().del(this.keys.party(id));
+    }
+
+    @Override
+    public @NotNull PartyLogout logout(
+            final @NotNull UUID partyId,
+            final @NotNull Collection<PartyPlayer> players
+    ) {
+        return this.logout(LOGOUT_SCRIPT, List.of(this.keys.party(partyId)), partyId, players);
+    }
+
+    private @NotNull Optional<Party> decode(final byte @Nullable [] value) throws JsonProcessingException {
+        if (value == null) return Optional.empty();
+
+        return Optional.of(this.codec.decodeParty(value));
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2023 Dominik48N
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.dominik48n.party.storage;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.github.dominik48n.party.api.player.PartyPlayer;
+import com.github.dominik48n.party.codec.PartyCodec;
+import com.github.dominik48n.party.redis.ClusterCommands;
+import com.github.dominik48n.party.redis.RedisKeys;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Executor;
+import org.jetbrains.annotations.NotNull;
+import redis.clients.jedis.UnifiedJedis;
+import redis.clients.jedis.params.ScanParams;
+import redis.clients.jedis.resps.ScanResult;
+
+/**
+ * Walks over all online players with {@code SCAN} and fetches every cursor page with a single {@code MGET}.
+ * In a Redis Cluster, the master nodes are scanned one after another and a page is fetched with one {@code MGET} per slot, which are sent in parallel.
+ */
+class OnlinePlayerIterator implements Iterator<PartyPlayer> {
+
+    private final @NotNull Deque<PartyPlayer> page = new ArrayDeque<>();
+
+    private final @NotNull UnifiedJedis jedis;
+    private final @NotNull Executor batchExecutor;
+    private final @NotNull PartyCodec codec;
+    private final @NotNull ScanParams scanParams;
+
+    private @NotNull String cursor = ScanParams.SCAN_POINTER_START;
+    private boolean finished = false;
+
+    OnlinePlayerIterator(
+            final @NotNull UnifiedJedis jedis,
+            final @NotNull Executor batchExecutor,
+            final @NotNull RedisKeys keys,
+            final @NotNull PartyCodec codec,
+            final int batchSize
+    ) {
+        this.jedis = jedis;
+        this.batchExecutor = batchExecutor;
+        this.codec = codec;
+        this.scanParams = new ScanParams().match(keys.playerPrefix() + "*").count(batchSize);
+    }
+
+    @Override
+    public boolean hasNext() {
+        // A page can be empty even though the iteration isn't finished yet.
+        while (this.page.isEmpty() && !this.finished) this.fetchPage();
+        return !this.page.isEmpty();
+    }
+
+    @Override
+    public @NotNull PartyPlayer next() {
+        if (!this.hasNext()) throw new NoSuchElementException();
+        return this.page.poll();
+    }
+
+    private void fetchPage() {
+        final ScanResult<String> result = ClusterCommands.scan(this.jedis, this.cursor, this.scanParams);
+        this.cursor = result.getCursor();
+        this.finished = result.isCompleteIteration();
+
+        final List<String> keys = result.getResult();
+        if (keys.isEmpty()) return;
+
+        for (final byte[] value : ClusterCommands.mget(this.jedis, keys, this.batchExecutor)) {
+            if (value == null) continue; // Player logged out between SCAN and MGET
+
+            try {
+                this.page.add(this.codec.decodePlayer(value));
+            } catch (final JsonProcessingException ignored) {
+            }
+        }
+    }
+}
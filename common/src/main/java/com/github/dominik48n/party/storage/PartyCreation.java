@@ -0,0 +1,52 @@
+/*
+ * Copyright 2023 Dominik48N
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.dominik48n.party.storage;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Describes whether a party was created, see {@link PartyStore#create}.
+ */
+public enum PartyCreation {
+    /**
+     * The party was stored and its leader joined it.
+     */
+    CREATED,
+    /**
+     * Another party already has the id, nothing was stored.
+     */
+    ID_TAKEN,
+    /**
+     * The leader is offline or already in a party, nothing was stored.
+     */
+    LEADER_UNAVAILABLE;
+
+    /**
+     * Parses the reply of a create script.
+     *
+     * @param reply the reply of the script
+     *
+     * @return the {@link PartyCreation} described by the reply
+     */
+    static @NotNull PartyCreation fromReply(final @NotNull Object reply) {
+        return switch (((Long) reply).intValue()) {
+            case 1 -> CREATED;
+            case 0 -> ID_TAKEN;
+            default -> LEADER_UNAVAILABLE;
+        };
+    }
+}
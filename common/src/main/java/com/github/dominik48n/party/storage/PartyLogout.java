@@ -0,0 +1,75 @@
+/*
+ * Copyright 2023 Dominik48N
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.dominik48n.party.storage;
+
+import com.google.common.collect.Lists;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Describes what happened to the party of the players who logged out.
+ *
+ * @param outcome          what happened to the party
+ * @param newLeaderName    the name of the new leader of the party, only present if the outcome is {@link Outcome#LEADER}
+ * @param remainingMembers all players that are still in the party, including the leader
+ */
+public record PartyLogout(@NotNull Outcome outcome, @Nullable String newLeaderName, @NotNull List<UUID> remainingMembers) {
+
+    /**
+     * Parses the reply of a logout script.
+     *
+     * @param reply the reply of the script
+     *
+     * @return the {@link PartyLogout} described by the reply
+     */
+    static @NotNull PartyLogout fromReply(final @NotNull Object reply) {
+        final List<?> fields = (List<?>) reply;
+        final Outcome outcome = Outcome.valueOf(((String) fields.get(0)).toUpperCase(Locale.ROOT));
+        final String newLeader = (String) fields.get(1);
+
+        final List<UUID> remainingMembers = Lists.newArrayListWithCapacity(Math.max(0, fields.size() - 2));
+        for (int i = 2; i < fields.size(); i++) remainingMembers.add(UUID.fromString((String) fields.get(i)));
+
+        return new PartyLogout(
+                outcome,
+                newLeader.isEmpty() ? null : newLeader,
+                remainingMembers
+        );
+    }
+
+    public enum Outcome {
+        /**
+         * The party did not exist anymore.
+         */
+        NONE,
+        /**
+         * No online member was left and the party was deleted.
+         */
+        DELETED,
+        /**
+         * The players left the party as normal members.
+         */
+        LEFT,
+        /**
+         * The leader logged out and the leadership was transferred to another member.
+         */
+        LEADER
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright 2023 Dominik48N
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.dominik48n.party.storage;
+
+/**
+ * The layouts in which parties can be stored in Redis, or the memory of the proxy.
+ */
+public enum PartyStorageType {
+
+    /* The whole party is stored as one JSON string under party:<id> */
+    JSON,
+
+    /* The leader and member limit are stored in a hash under party:<id> and the members in a set under party:<id>:members */
+    HASH,
+
+    /* Parties and online players are only kept in the memory of the proxy, which is only sufficient for networks with a single proxy */
+    MEMORY;
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2023 Dominik48N
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.dominik48n.party.storage;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.github.dominik48n.party.api.Party;
+import com.github.dominik48n.party.api.player.PartyPlayer;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Persists parties and keeps the party id of their members up to date.
+ */
+public interface PartyStore {
+
+    /**
+     * Gets the party with the given ID. It is read from the primary, so it contains all mutations that were made before.
+     *
+     * @param id the {@link UUID} of the party
+     *
+     * @return an optional containing the party, or empty if the party does not exist
+     */
+    @NotNull Optional<Party> get(final @NotNull UUID id) throws JsonProcessingException;
+
+    /**
+     * Gets the party with the given ID for a lookup that doesn't depend on a preceding mutation, e.g. to display it.
+     * It may be read from a read replica, see {@code RedisManager#read}, so it can lag behind the latest mutations by the configured staleness.
+     *
+     * @param id the {@link UUID} of the party
+     *
+     * @return an optional containing the party, or empty if the party does not exist
+     */
+    default @NotNull Optional<Party> getFromReplica(final @NotNull UUID id) throws JsonProcessingException {
+        return this.get(id);
+    }
+
+    /**
+     * Stores a new party and sets the party id of its leader, unless a party with the same ID already exists
+     * or the leader is offline or already in a party.
+     *
+     * @param party the {@link Party} to store
+     *
+     * @return the {@link PartyCreation} that describes whether the party was stored
+     */
+    @NotNull PartyCreation create(final @NotNull Party party) throws JsonProcessingException;
+
+    /**
+     * Adds a player to the members of a party and sets the party id of the player.
+     *
+     * @param partyId the {@link UUID} of the party
+     * @param player  the {@link UUID} of the player
+     */
+    void addMember(final @NotNull UUID partyId, final @NotNull UUID player);
+
+    /**
+     * Removes a player from the members of a party and clears the party id of the player.
+     *
+     * @param partyId the {@link UUID} of the party
+     * @param player  the {@link UUID} of the player
+     */
+    void removeMember(final @NotNull UUID partyId, final @NotNull UUID player);
+
+    /**
+     * Makes a member the leader of a party. The old leader becomes a normal member.
+     *
+     * @param partyId    the {@link UUID} of the party
+     * @param oldLeader  the {@link UUID} of the current party leader
+     * @param newLeader  the {@link UUID} of the new party leader
+     * @param maxMembers the new limit of members
+     */
+    void changeLeader(final @NotNull UUID partyId, final @NotNull UUID oldLeader, final @NotNull UUID newLeader, final int maxMembers);
+
+    /**
+     * Deletes the party with the given ID.
+     *
+     * @param id the {@link UUID} of the party
+     */
+    void delete(final @NotNull UUID id);
+
+    /**
+     * Removes players who log out from their party and deletes the players and their party requests together with the update of the party.
+     * Their name index entries are deleted afterwards, unless another player with the same name logged in in the meantime.
+     * If the leader is one of them, the first member that is still online becomes the new leader.
+     * If nobody is left, the party is deleted.
+     * <p>
+     * The online state of every other member is read from the primary before the script runs. If a member joined in between and could
+     * become the new leader, the party is read again, so a party with online members is never deleted.
+     * In a Redis Cluster, the keys of the players are deleted afterwards, because they are stored in other slots than the party.
+     *
+     * @param partyId the {@link UUID} of the party
+     * @param players the players who log out
+     *
+     * @return the {@link PartyLogout} that describes what happened to the party
+     */
+    @NotNull PartyLogout logout(
+            final @NotNull UUID partyId,
+            final @NotNull Collection<PartyPlayer> players
+    );
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2023 Dominik48N
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.dominik48n.party.storage;
+
+import com.github.dominik48n.party.api.player.PartyPlayer;
+import com.github.dominik48n.party.config.PlayerLeaseConfig;
+import com.github.dominik48n.party.redis.ClusterCommands;
+import com.github.dominik48n.party.redis.RedisKeys;
+import com.github.dominik48n.party.redis.RedisManager;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.jetbrains.annotations.NotNull;
+import redis.clients.jedis.UnifiedJedis;
+import redis.clients.jedis.params.SetParams;
+import redis.clients.jedis.util.SafeEncoder;
+
+/**
+ * Leases the keys of the players that are online on this proxy, so they don't outlive a proxy that dies without logging them out.
+ * <p>
+ * Every proxy registers its {@link RedisManager#proxyId()} in the sorted set {@link RedisKeys#proxies()}, scored by the time of its last
+ * heartbeat, and keeps the unique ids of its players in {@link RedisKeys#proxyPlayers(String)}. The keys of a player expire after
+ * twice the lease, so every heartbeat extends the keys of all players of this proxy.
+ * <p>
+ * A proxy that sent no heartbeat for a whole lease is dead. The first proxy that notices it claims it by removing it from the sorted set
+ * and logs out its players, which also repairs their parties. The keys of the players outlive the last heartbeat of their proxy by another
+ * lease, so they are still there to be logged out. Players who logged in on another proxy meanwhile are skipped.
+ * <p>
+ * A proxy that was only paused, e.g. by a long garbage collection or a network partition, notices on its next heartbeat that it was
+ * removed from the sorted set and saves its players again one heartbeat later, once the other proxy has finished logging them out.
+ */
+public class PlayerLeases implements AutoCloseable {
+
+    private final @NotNull RedisManager redisManager;
+    private final @NotNull RedisKeys keys;
+    private final long leaseMillis;
+    private final long heartbeatIntervalMillis;
+    private final @NotNull String proxyId;
+    private final @NotNull Map<UUID, String> players = new ConcurrentHashMap<>();
+    private final @NotNull ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("party-redis-leases").setDaemon(true).build()
+    );
+
+    private boolean registered;
+    private boolean restorePending;
+
+    public PlayerLeases(final @NotNull RedisManager redisManager, final @NotNull PlayerLeaseConfig config) {
+        Preconditions.checkArgument(
+                config.heartbeatIntervalMillis() > 0 && config.heartbeatIntervalMillis() < config.leaseMillis(),
+                "The heartbeat interval must be positive and shorter than the lease!"
+        );
+        this.redisManager = redisManager;
+        this.keys = redisManager.keys();
+        this.proxyId = redisManager.proxyId();
+        this.leaseMillis = config.leaseMillis();
+        this.heartbeatIntervalMillis = config.heartbeatIntervalMillis();
+    }
+
+    /**
+     * Starts to send the heartbeats of this proxy and to look for dead proxies.
+     *
+     * @param logout  logs out the players of a dead proxy, e.g. {@code OnlinePlayerProvider#logout(Collection)}
+     * @param restore saves the players of this proxy again that were logged out because another proxy took this proxy for dead
+     */
+    public void start(final @NotNull Consumer<Collection<UUID>> logout, final @NotNull Consumer<Collection<UUID>> restore) {
+        this.scheduler.scheduleWithFixedDelay(() -> this.heartbeat(logout, restore), 0L, this.heartbeatIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns the parameters for the keys of a player, which expire unless this proxy keeps extending them.
+     *
+     * @return the {@link SetParams} with the expiry of the keys
+     */
+    @NotNull SetParams keyParams() {
+        return SetParams.setParams().px(this.keyLeaseMillis());
+    }
+
+    /**
+     * Takes over the lease of a player who logged in on this proxy.
+     *
+     * @param player the {@link PartyPlayer} whose keys and presence were stored with {@link #keyParams()}
+     */
+    void acquire(final @NotNull PartyPlayer player) {
+        this.players.put(player.uniqueId(), player.name());
+        this.redisManager.jedis().sadd(this.keys.proxyPlayers(this.proxyId), player.uniqueId().toString());
+    }
+
+    /**
+     * Gives up the leases of players who log out. Players of other proxies are ignored.
+     *
+     * @param uniqueIds the {@link UUID}s of the players
+     */
+    void release(final @NotNull Collection<UUID> uniqueIds) {
+        final String[] released = uniqueIds.stream()
+                .filter(uniqueId -> this.players.remove(uniqueId) != null)
+                .map(UUID::toString)
+                .toArray(String[]::new);
+        if (released.length > 0) this.redisManager.jedis().srem(this.keys.proxyPlayers(this.proxyId), released);
+    }
+
+    void heartbeat(final @NotNull Consumer<Collection<UUID>> logout, final @NotNull Consumer<Collection<UUID>> restore) {
+        try {
+            final long now = System.currentTimeMillis();
+            final boolean added = this.redisManager.jedis().zadd(this.keys.proxies(), now, this.proxyId) > 0;
+            if (this.restorePending) this.restore(restore);
+            // Only another proxy that reaped this proxy removes it while it is running
+            this.restorePending = added && this.registered;
+            this.registered = true;
+            this.extendLeases();
+            this.reap(now, logout);
+        } catch (final RuntimeException ignored) {
+            // Redis is unreachable, the next heartbeat tries again
+        }
+    }
+
+    private void extendLeases() {
+        final List<String> keys = Lists.newArrayListWithCapacity(this.players.size() * 3 + 1);
+        keys.add(this.keys.proxyPlayers(this.proxyId));
+        this.players.forEach((uniqueId, name) -> {
+            keys.add(this.keys.player(uniqueId));
+            keys.add(this.keys.playerName(name));
+            keys.add(this.keys.playerProxy(uniqueId));
+        });
+        ClusterCommands.pexpire(this.redisManager.jedis(), keys, this.keyLeaseMillis());
+    }
+
+    private void reap(final long now, final @NotNull Consumer<Collection<UUID>> logout) {
+        final UnifiedJedis jedis = this.redisManager.jedis();
+        for (final String proxy : jedis.zrangeByScore(this.keys.proxies(), Double.NEGATIVE_INFINITY, now - this.leaseMillis)) {
+            // Only the proxy that removes the dead proxy logs out its players
+            if (jedis.zrem(this.keys.proxies(), proxy) == 0) continue;
+
+            final String playersKey = this.keys.proxyPlayers(proxy);
+            final List<UUID> uniqueIds = jedis.smembers(playersKey).stream().map(UUID::fromString).toList();
+            final List<byte[]> owners = ClusterCommands.mget(
+                    jedis,
+                    uniqueIds.stream().map(this.keys::playerProxy).toList(),
+                    this.redisManager.batchExecutor()
+            );
+
+            final List<UUID> orphans = Lists.newArrayList();
+            for (int i = 0; i < uniqueIds.size(); i++) {
+                if (owners.get(i) != null && proxy.equals(SafeEncoder.encode(owners.get(i)))) orphans.add(uniqueIds.get(i));
+            }
+            if (!orphans.isEmpty()) logout.accept(orphans);
+            jedis.del(playersKey);
+        }
+    }
+
+    private void restore(final @NotNull Consumer<Collection<UUID>> restore) {
+        final UnifiedJedis jedis = this.redisManager.jedis();
+        final List<UUID> uniqueIds = List.copyOf(this.players.keySet());
+        if (uniqueIds.isEmpty()) return;
+
+        // The proxy that reaped this proxy deleted the set of its players
+        jedis.sadd(this.keys.proxyPlayers(this.proxyId), uniqueIds.stream().map(UUID::toString).toArray(String[]::new));
+        final List<byte[]> values = ClusterCommands.mget(
+                jedis,
+                uniqueIds.stream().map(this.keys::player).toList(),
+                this.redisManager.batchExecutor()
+        );
+
+        final List<UUID> loggedOut = Lists.newArrayList();
+        for (int i = 0; i < uniqueIds.size(); i++) {
+            if (values.get(i) == null) loggedOut.add(uniqueIds.get(i));
+        }
+        if (!loggedOut.isEmpty()) restore.accept(loggedOut);
+    }
+
+    private long keyLeaseMillis() {
+        return this.leaseMillis * 2;
+    }
+
+    /**
+     * Stops the heartbeats and deregisters this proxy, after its players were logged out.
+     */
+    @Override
+    public void close() {
+        this.scheduler.shutdownNow();
+        try {
+            final UnifiedJedis jedis = this.redisManager.jedis();
+            jedis.zrem(this.keys.proxies(), this.proxyId);
+            jedis.del(this.keys.proxyPlayers(this.proxyId));
+        } catch (final RuntimeException ignored) {
+            // Another proxy reaps this proxy once its last heartbeat is older than the lease
+        }
+    }
+}
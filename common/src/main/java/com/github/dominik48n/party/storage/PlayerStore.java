@@ -0,0 +1,149 @@
+/*
+ * Copyright 2023 Dominik48N
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.dominik48n.party.storage;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.github.dominik48n.party.api.player.PartyPlayer;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Persists the online players, the index of their names and their party requests.
+ */
+public interface PlayerStore {
+
+    /**
+     * Gets the online player with the given unique ID.
+     *
+     * @param uniqueId the {@link UUID} of the player
+     *
+     * @return an optional containing the player, or empty if the player is not online
+     */
+    @NotNull Optional<PartyPlayer> get(final @NotNull UUID uniqueId) throws JsonProcessingException;
+
+    /**
+     * Looks up the unique ID of a player in the name index. The entry may be left over from a session that was not logged out cleanly.
+     *
+     * @param username the name of the player, the case is ignored
+     *
+     * @return an optional containing the {@link UUID}, or empty if no player with this name logged in
+     */
+    @NotNull Optional<UUID> uniqueId(final @NotNull String username);
+
+    /**
+     * Gets all online players of the given unique IDs.
+     *
+     * @param uniqueIds the {@link UUID}s of the players
+     *
+     * @return the players that are online, mapped by their unique ID
+     */
+    @NotNull Map<UUID, PartyPlayer> get(final @NotNull Collection<UUID> uniqueIds) throws JsonProcessingException;
+
+    /**
+     * Walks over all online players in pages of the given size.
+     *
+     * @param batchSize the number of players that are fetched at once
+     *
+     * @return an iterator over all online players
+     */
+    @NotNull Iterator<PartyPlayer> iterator(final int batchSize);
+
+    /**
+     * Stores a player who logged in and adds it to the name index.
+     *
+     * @param player the {@link PartyPlayer} to store
+     */
+    void save(final @NotNull PartyPlayer player) throws JsonProcessingException;
+
+    /**
+     * Updates the party id of an online player.
+     *
+     * @param uniqueId the {@link UUID} of the player
+     * @param partyId  the {@link UUID} of the party or null to remove the player from the party
+     *
+     * @return true if the player was updated, false if the player is not online or already in that party
+     */
+    boolean updatePartyId(final @NotNull UUID uniqueId, final @Nullable UUID partyId);
+
+    /**
+     * Gets the players who log out from the latest state, never from a replica or a cache.
+     * Values that can't be decoded anymore are deleted right away.
+     *
+     * @param uniqueIds the {@link UUID}s of the players who log out
+     *
+     * @return the players that are still online
+     */
+    @NotNull List<PartyPlayer> loadForLogout(final @NotNull Collection<UUID> uniqueIds);
+
+    /**
+     * Deletes players who are not in a party, together with their name index entries and their party requests.
+     * A name index entry is kept if it already maps to another player who logged in with the same name.
+     * Players in a party are deleted by {@link PartyStore#logout(UUID, Collection)}.
+     *
+     * @param players the players to delete
+     */
+    void delete(final @NotNull Collection<PartyPlayer> players);
+
+    /**
+     * Stores a party request and prunes the expired requests of the source player.
+     *
+     * @param source  the name of the player who sent the request
+     * @param target  the name of the player who received the request
+     * @param expires the number of seconds after which the request expires
+     */
+    void createRequest(final @NotNull String source, final @NotNull String target, final int expires);
+
+    /**
+     * Removes a party request.
+     *
+     * @param source the name of the player who sent the request
+     * @param target the name of the player who received the request
+     */
+    void removeRequest(final @NotNull String source, final @NotNull String target);
+
+    /**
+     * Removes all party requests of a player.
+     *
+     * @param source the name of the player who sent the requests
+     */
+    void clearRequests(final @NotNull String source);
+
+    /**
+     * Checks whether a party request exists and hasn't expired yet. An expired request is removed.
+     *
+     * @param source the name of the player who sent the request
+     * @param target the name of the player who received the request
+     *
+     * @return true if the request exists
+     */
+    boolean existsRequest(final @NotNull String source, final @NotNull String target);
+
+    /**
+     * Returns the names of all players who received a party request of a player that hasn't expired yet.
+     *
+     * @param source the name of the player who sent the requests
+     *
+     * @return the names of the targets
+     */
+    @NotNull List<String> requests(final @NotNull String source);
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2023 Dominik48N
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.dominik48n.party.storage;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.github.dominik48n.party.api.Party;
+import com.github.dominik48n.party.api.player.PartyPlayer;
+import com.github.dominik48n.party.codec.PartyCodec;
+import com.github.dominik48n.party.redis.ClusterCommands;
+import com.github.dominik48n.party.redis.RedisKeys;
+import com.github.dominik48n.party.redis.RedisManager;
+import com.github.dominik48n.party.redis.RedisScript;
+import com.google.common.collect.Lists;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Keeps the party ids of players in sync with the parties, on a standalone server as well as in a Redis Cluster.
+ * <p>
+ * On a standalone server, one script updates the party and the player together. In a Redis Cluster, the player key is usually stored
+ * in another slot than the party, so the script only updates the party and the player is updated by a second script afterwards.
+ */
+abstract class RedisPartyStore implements PartyStore {
+
+    private static final @NotNull RedisScript UPDATE_PARTY_ID_SCRIPT = RedisScript.fromResources("codec", "party", "update_party_id");
+    private static final @NotNull String STALE = "stale";
+    private static final int MAX_LOGOUT_ATTEMPTS = 3;
+
+    protected final @NotNull RedisManager redisManager;
+    protected final @NotNull RedisKeys keys;
+    protected final @NotNull PartyCodec codec;
+
+    RedisPartyStore(final @NotNull RedisManager redisManager, final @NotNull PartyCodec codec) {
+        this.redisManager = redisManager;
+        this.keys = redisManager.keys();
+        this.codec = codec;
+    }
+
+    /**
+     * Returns the keys of a script that updates a party and a player. The player key is left out in a Redis Cluster.
+     *
+     * @param partyKeys the keys of the party
+     * @param player    the {@link UUID} of the player
+     *
+     * @return the keys of the script
+     *
+     * @see #updatePlayerInCluster(UUID, UUID)
+     */
+    protected @NotNull List<String> scriptKeys(final @NotNull List<String> partyKeys, final @NotNull UUID player) {
+        if (this.redisManager.cluster()) return partyKeys;
+
+        final List<String> keys = Lists.newArrayList(partyKeys);
+        keys.add(this.keys.player(player));
+        return keys;
+    }
+
+    /**
+     * Updates the party id of a player after a script has updated the party, if the script couldn't do it because of a Redis Cluster.
+     *
+     * @param player  the {@link UUID} of the player
+     * @param partyId the {@link UUID} of the party or null to remove the player from the party
+     */
+    protected void updatePlayerInCluster(final @NotNull UUID player, final @Nullable UUID partyId) {
+        if (!this.redisManager.cluster()) return;
+
+        UPDATE_PARTY_ID_SCRIPT.eval(
+                this.redisManager.jedis(),
+                List.of(this.keys.player(player)),
+                List.of(partyId != null ? partyId.toString() : "")
+        );
+    }
+
+    /**
+     * Sets the party id of the leader of a new party, if the create script couldn't do it because of a Redis Cluster.
+     * The party is deleted again if the leader is offline or already in a party meanwhile.
+     *
+     * @param party    the new {@link Party}
+     * @param creation the result of the create script
+     *
+     * @return the {@link PartyCreation} that describes whether the party was stored
+     */
+    protected @NotNull PartyCreation joinLeaderInCluster(final @NotNull Party party, final @NotNull PartyCreation creation) {
+        if (creation != PartyCreation.CREATED || !this.redisManager.cluster()) return creation;
+
+        final Object joined = UPDATE_PARTY_ID_SCRIPT.eval(
+                this.redisManager.jedis(),
+                List.of(this.keys.player(party.leader())),
+                List.of(party.id().toString(), "1")
+        );
+        if (joined instanceof final Long result && result == 1L) return creation;
+
+        this.delete(party.id());
+        return PartyCreation.LEADER_UNAVAILABLE;
+    }
+
+    /**
+     * Executes a logout script, see {@code parse_logout_args} in {@code party.lua} for its arguments.
+     * The script can only access the keys it declares, so the online state of the other members is read from the primary before.
+     * If a member joined in between and could become the new leader, the script writes nothing and the members are read again.
+     * In a Redis Cluster the keys of the players are stored in other slots than the party, so they are deleted afterwards.
+     *
+     * @param script     the logout script
+     * @param partyKeys  the keys of the party
+     * @param partyId    the {@link UUID} of the party
+     * @param players    the players who log out
+     *
+     * @return the {@link PartyLogout} that describes what happened to the party
+     *
+     * @throws IllegalStateException if the members of the party changed during every attempt
+     * @throws UncheckedIOException  if the party could not be read
+     */
+    protected @NotNull PartyLogout logout(
+            final @NotNull RedisScript script,
+            final @NotNull List<String> partyKeys,
+            final @NotNull UUID partyId,
+            final @NotNull Collection<PartyPlayer> players
+    ) {
+        final List<String> leavingArgs = Lists.newArrayList(String.valueOf(players.size()));
+        final List<UUID> uniqueIds = Lists.newArrayListWithCapacity(players.size());
+        final List<String> playerKeys = Lists.newArrayList();
+        for (final PartyPlayer player : players) {
+            leavingArgs.add(player.uniqueId().toString());
+            uniqueIds.add(player.uniqueId());
+            playerKeys.addAll(this.keys.session(player.uniqueId(), player.name()));
+        }
+
+        final List<String> keys = Lists.newArrayList(partyKeys);
+        if (!this.redisManager.cluster()) keys.addAll(playerKeys);
+
+        for (int attempt = 0; attempt < MAX_LOGOUT_ATTEMPTS; attempt++) {
+            final List<String> args = Lists.newArrayList(leavingArgs);
+            this.appendMembers(args, partyId, uniqueIds);
+
+            final Object reply = script.eval(this.redisManager.jedis(), keys, args);
+            if (STALE.equals(((List<?>) reply).get(0))) continue;
+
+            if (this.redisManager.cluster()) ClusterCommands.del(this.redisManager.jedis(), playerKeys);
+            RedisPlayerStore.deleteNames(this.redisManager, players);
+            return PartyLogout.fromReply(reply);
+        }
+        throw new IllegalStateException("The members of party " + partyId + " changed during every logout attempt");
+    }
+
+    private void appendMembers(final @NotNull List<String> args, final @NotNull UUID partyId, final @NotNull Collection<UUID> players) {
+        final Optional<Party> party;
+        try {
+            party = this.get(partyId);
+        } catch (final JsonProcessingException e) {
+            // Without the members, the script can't tell whether somebody could take over the party.
+            throw new UncheckedIOException(e);
+        }
+        if (party.isEmpty()) return;
+
+        final List<UUID> members = party.get().members().stream().filter(member -> !players.contains(member)).toList();
+        final List<byte[]> values = ClusterCommands.mget(
+                this.redisManager.jedis(),
+                members.stream().map(this.keys::player).toList(),
+                this.redisManager.batchExecutor()
+        );
+        for (int i = 0; i < members.size(); i++) {
+            args.add(members.get(i).toString());
+
+            final PartyPlayer player = this.decodeMember(values.get(i));
+            args.add(player != null ? String.valueOf(player.memberLimit()) : "");
+            args.add(player != null ? player.name() : "");
+        }
+    }
+
+    private @Nullable PartyPlayer decodeMember(final byte @Nullable [] value) {
+        if (value == null) return null;
+
+        try {
+            return this.codec.decodePlayer(value);
+        } catch (final JsonProcessingException e) {
+            // A player that can't be read can't take over the party either, so it counts as offline.
+            return null;
+        }
+    }
+}
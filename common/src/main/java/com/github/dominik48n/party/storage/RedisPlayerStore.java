@@ -0,0 +1,224 @@
+/*
+ * Copyright 2023 Dominik48N
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.dominik48n.party.storage;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.github.dominik48n.party.api.player.PartyPlayer;
+import com.github.dominik48n.party.codec.PartyCodec;
+import com.github.dominik48n.party.redis.ClusterCommands;
+import com.github.dominik48n.party.redis.RedisKeys;
+import com.github.dominik48n.party.redis.RedisManager;
+import com.github.dominik48n.party.redis.RedisScript;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import redis.clients.jedis.util.SafeEncoder;
+
+/**
+ * Stores every online player under {@code party_player:<uuid>}, the name index under {@code party_player_name:<name>} and the party
+ * requests of a player in a sorted set under {@code request:<name>}, which is scored by the expiry time. The presence map under
+ * {@code party_player_proxy:<uuid>} holds the proxy of every player, so messages for a player are only sent to its proxy.
+ * <p>
+ * With {@link PlayerLeases}, the player and its name index entry expire unless the proxy of the player keeps extending them.
+ */
+public class RedisPlayerStore implements PlayerStore {
+
+    private static final int DELETE_BATCH_SIZE = 500;
+
+    private static final @NotNull RedisScript UPDATE_PARTY_ID_SCRIPT = RedisScript.fromResources("codec", "party", "update_party_id");
+    private static final @NotNull RedisScript CREATE_REQUEST_SCRIPT = RedisScript.fromResources("create_party_request");
+
+    private final @NotNull RedisManager redisManager;
+    private final @NotNull RedisKeys keys;
+    private final @NotNull PartyCodec codec;
+    private final @Nullable PlayerLeases leases;
+
+    public RedisPlayerStore(final @NotNull RedisManager redisManager, final @NotNull PartyCodec codec) {
+        this(redisManager, codec, null);
+    }
+
+    public RedisPlayerStore(final @NotNull RedisManager redisManager, final @NotNull PartyCodec codec, final @Nullable PlayerLeases leases) {
+        this.redisManager = redisManager;
+        this.keys = redisManager.keys();
+        this.codec = codec;
+        this.leases = leases;
+    }
+
+    @Override
+    public @NotNull Optional<PartyPlayer> get(final @NotNull UUID uniqueId) throws JsonProcessingException {
+        final byte[] value = this.redisManager.jedis().get(SafeEncoder.encode(this.keys.player(uniqueId)));
+        if (value == null) return Optional.empty();
+
+        return Optional.of(this.codec.decodePlayer(value));
+    }
+
+    @Override
+    public @NotNull Optional<UUID> uniqueId(final @NotNull String username) {
+        final String uniqueId = this.redisManager.jedis().get(this.keys.playerName(username));
+        if (uniqueId == null) return Optional.empty();
+
+        try {
+            return Optional.of(UUID.fromString(uniqueId));
+        } catch (final IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public @NotNull Map<UUID, PartyPlayer> get(final @NotNull Collection<UUID> uniqueIds) throws JsonProcessingException {
+        final Map<UUID, PartyPlayer> players = Maps.newHashMap();
+        final List<String> keys = uniqueIds.stream().map(this.keys::player).toList();
+        final List<byte[]> values = ClusterCommands.mget(this.redisManager.jedis(), keys, this.redisManager.batchExecutor());
+        for (final byte[] value : values) {
+            if (value == null) continue;
+
+            final PartyPlayer player = this.codec.decodePlayer(value);
+            players.put(player.uniqueId(), player);
+        }
+        return players;
+    }
+
+    @Override
+    public @NotNull Iterator<PartyPlayer> iterator(final int batchSize) {
+        return new OnlinePlayerIterator(this.redisManager.jedis(), this.redisManager.batchExecutor(), this.keys, this.codec, batchSize);
+    }
+
+    @Override
+    public void save(final @NotNull PartyPlayer player) throws JsonProcessingException {
+        final byte[] key = SafeEncoder.encode(this.keys.player(player.uniqueId()));
+        final String presenceKey = this.keys.playerProxy(player.uniqueId());
+        if (this.leases == null) {
+            this.redisManager.jedis().set(key, this.codec.encodePlayer(player));
+            this.redisManager.jedis().set(this.keys.playerName(player.name()), player.uniqueId().toString());
+            this.redisManager.jedis().set(presenceKey, this.redisManager.proxyId());
+            return;
+        }
+
+        this.redisManager.jedis().set(key, this.codec.encodePlayer(player), this.leases.keyParams());
+        this.redisManager.jedis().set(this.keys.playerName(player.name()), player.uniqueId().toString(), this.leases.keyParams());
+        this.redisManager.jedis().set(presenceKey, this.redisManager.proxyId(), this.leases.keyParams());
+        this.leases.acquire(player);
+    }
+
+    @Override
+    public boolean updatePartyId(final @NotNull UUID uniqueId, final @Nullable UUID partyId) {
+        final Object updated = UPDATE_PARTY_ID_SCRIPT.eval(
+                this.redisManager.jedis(),
+                List.of(this.keys.player(uniqueId)),
+                List.of(partyId != null ? partyId.toString() : "")
+        );
+        return updated instanceof final Long result && result == 1L;
+    }
+
+    @Override
+    public @NotNull List<PartyPlayer> loadForLogout(final @NotNull Collection<UUID> uniqueIds) {
+        if (this.leases != null) this.leases.release(uniqueIds);
+
+        final List<PartyPlayer> players = Lists.newArrayList();
+        final List<String> corruptKeys = Lists.newArrayList();
+
+        // The players are loaded in batches, see ClusterCommands#mget
+        final List<String> playerKeys = uniqueIds.stream().map(this.keys::player).toList();
+        final List<byte[]> values = ClusterCommands.mget(this.redisManager.jedis(), playerKeys, this.redisManager.batchExecutor());
+        for (int i = 0; i < playerKeys.size(); i++) {
+            final byte[] value = values.get(i);
+            if (value == null) continue; // Player is not logged in
+
+            try {
+                players.add(this.codec.decodePlayer(value));
+            } catch (final JsonProcessingException e) {
+                corruptKeys.add(playerKeys.get(i));
+            }
+        }
+
+        if (!corruptKeys.isEmpty()) ClusterCommands.del(this.redisManager.jedis(), corruptKeys);
+        return players;
+    }
+
+    @Override
+    public void delete(final @NotNull Collection<PartyPlayer> players) {
+        final List<String> keys = Lists.newArrayList();
+        players.forEach(player -> keys.addAll(this.keys.session(player.uniqueId(), player.name())));
+
+        for (final List<String> batch : Lists.partition(keys, DELETE_BATCH_SIZE)) {
+            ClusterCommands.del(this.redisManager.jedis(), batch);
+        }
+        deleteNames(this.redisManager, players);
+    }
+
+    @Override
+    public void createRequest(final @NotNull String source, final @NotNull String target, final int expires) {
+        final long now = System.currentTimeMillis();
+        CREATE_REQUEST_SCRIPT.eval(
+                this.redisManager.jedis(),
+                List.of(this.keys.requests(source)),
+                List.of(String.valueOf(now), String.valueOf(now + expires * 1000L), target)
+        );
+    }
+
+    @Override
+    public void removeRequest(final @NotNull String source, final @NotNull String target) {
+        this.redisManager.jedis().zrem(this.keys.requests(source), target);
+    }
+
+    @Override
+    public void clearRequests(final @NotNull String source) {
+        this.redisManager.jedis().del(this.keys.requests(source));
+    }
+
+    @Override
+    public boolean existsRequest(final @NotNull String source, final @NotNull String target) {
+        final String key = this.keys.requests(source);
+        final Double expiresAt = this.redisManager.jedis().zscore(key, target);
+        if (expiresAt == null) return false;
+        if (expiresAt > System.currentTimeMillis()) return true;
+
+        // Expired requests are pruned lazily
+        this.redisManager.jedis().zrem(key, target);
+        return false;
+    }
+
+    @Override
+    public @NotNull List<String> requests(final @NotNull String source) {
+        final String key = this.keys.requests(source);
+        final long now = System.currentTimeMillis();
+        this.redisManager.jedis().zremrangeByScore(key, Double.NEGATIVE_INFINITY, now);
+        return this.redisManager.jedis().zrangeByScore(key, now, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Deletes the name index entries of players that logged out. An entry is kept if it already maps to another player, who logged in
+     * with the same name in the meantime.
+     *
+     * @param redisManager the {@link RedisManager} to delete the entries with
+     * @param players      the players that logged out
+     */
+    static void deleteNames(final @NotNull RedisManager redisManager, final @NotNull Collection<PartyPlayer> players) {
+        ClusterCommands.delIfEquals(
+                redisManager.jedis(),
+                players.stream().map(player -> redisManager.keys().playerName(player.name())).toList(),
+                players.stream().map(player -> player.uniqueId().toString()).toList()
+        );
+    }
+}
@@ -1,9 +1,9 @@
 package com.github.dominik48n.party.user;
 
 import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
-import com.fasterxml.jackson.databind.JsonNode;
 import com.github.dominik48n.party.api.player.PartyPlayer;
 import java.io.IOException;
 import java.util.Optional;
@@ -15,15 +15,33 @@ public class UserDeserializer extends JsonDeserializer<PartyPlayer> {
 
     @Override
     public PartyPlayer deserialize(final JsonParser parser, final DeserializationContext ctx) throws IOException {
-        final JsonNode node = parser.getCodec().readTree(parser);
-        final UUID uniqueId = UUID.fromString(node.get("uuid").asText());
-        final String name = node.get("name").asText();
-        final UUID partyId = node.hasNonNull("party_id") ? UUID.fromString(node.get("party_id").asText()) : null;
-        final int memberLimit = node.get("member_limit").asInt();
+        UUID uniqueId = null;
+        String name = null;
+        UUID partyId = null;
+        Integer memberLimit = null;
+
+        // The fields are read token by token, so no JsonNode tree is built for every player.
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.START_OBJECT) token = parser.nextToken();
+        for (; token == JsonToken.FIELD_NAME; token = parser.nextToken()) {
+            final String field = parser.currentName();
+            final JsonToken value = parser.nextToken();
+            switch (field) {
+                case "uuid" -> uniqueId = UUID.fromString(parser.getValueAsString());
+                case "name" -> name = parser.getValueAsString();
+                case "party_id" -> partyId = value == JsonToken.VALUE_NULL ? null : UUID.fromString(parser.getValueAsString());
+                case "member_limit" -> memberLimit = parser.getValueAsInt();
+                default -> parser.skipChildren();
+            }
+        }
+
+        if (uniqueId == null || name == null || memberLimit == null) {
+            return ctx.reportInputMismatch(this, "A player needs the fields uuid, name and member_limit.");
+        }
         return new DeserializedUser(uniqueId, name, partyId, memberLimit);
     }
 
-    static class DeserializedUser implements PartyPlayer {
+    public static class DeserializedUser implements PartyPlayer {
 
         private final @NotNull UUID uniqueId;
         private final @NotNull String name;
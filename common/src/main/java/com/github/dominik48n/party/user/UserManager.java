@@ -22,6 +22,8 @@ import com.github.dominik48n.party.config.MessageConfig;
 import com.github.dominik48n.party.redis.RedisManager;
 import com.github.dominik48n.party.redis.RedisMessageSub;
 import com.google.common.collect.Maps;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
@@ -50,17 +52,40 @@ public abstract class UserManager<TUser> {
         return this.cachedPlayers.values().stream().filter(player -> player.uniqueId().equals(playerId)).findAny();
     }
 
+    public @NotNull Collection<PartyPlayer> cachedPlayers() {
+        return this.cachedPlayers.values();
+    }
+
     public void removePlayerFromCache(final @NotNull TUser user) {
         this.cachedPlayers.remove(user);
     }
 
     void sendMessage(final @NotNull UUID uniqueId, final @NotNull Component component) {
+        // A player of this proxy gets the message directly, without looking up its proxy
+        if (this.userFromCache(uniqueId).isPresent()) {
+            this.sendMessageToLocalUser(uniqueId, component);
+            return;
+        }
+
         this.redisManager.publish(
                 RedisMessageSub.CHANNEL,
+                this.redisManager.proxies(List.of(uniqueId)).get(uniqueId),
                 new Document().append("unique_id", uniqueId.toString()).append("message", MiniMessage.miniMessage().serialize(component))
         );
     }
 
+    /**
+     * Renders a message with the {@link MessageConfig} of this proxy, e.g. for a message that another proxy sent by its key.
+     *
+     * @param messageKey   the key of the message
+     * @param replacements the replacements of the message arguments
+     *
+     * @return the rendered message
+     */
+    public @NotNull Component message(final @NotNull String messageKey, final @NotNull Object... replacements) {
+        return this.messageConfig().getMessage(messageKey, replacements);
+    }
+
     public abstract void sendMessageToLocalUser(final @NotNull UUID uniqueId, final @NotNull Component component);
 
     public abstract void connectToServer(final @NotNull UUID uniqueId, final @NotNull String serverName);
@@ -21,7 +21,6 @@ import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.ser.std.StdSerializer;
 import com.github.dominik48n.party.api.player.PartyPlayer;
 import java.io.IOException;
-import java.util.UUID;
 
 public class UserSerializer extends StdSerializer<PartyPlayer> {
 
@@ -34,7 +33,11 @@ public class UserSerializer extends StdSerializer<PartyPlayer> {
         gen.writeStartObject();
         gen.writeStringField("uuid", value.uniqueId().toString());
         gen.writeStringField("name", value.name());
-        gen.writeStringField("party_id", value.partyId().map(UUID::toString).orElse(null));
+        if (value.partyId().isPresent()) {
+            gen.writeStringField("party_id", value.partyId().get().toString());
+        } else {
+            gen.writeNullField("party_id");
+        }
         gen.writeNumberField("member_limit", value.memberLimit());
         gen.writeEndObject();
     }
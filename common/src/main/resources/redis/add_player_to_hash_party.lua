@@ -0,0 +1,12 @@
+-- KEYS[1]: party key, KEYS[2]: members key, KEYS[3]: player key (optional, in a Redis Cluster the caller updates the player itself)
+-- ARGV[1]: party id, ARGV[2]: unique id of the player
+migrate_string_party(KEYS[1], KEYS[2])
+
+if redis.call('EXISTS', KEYS[1]) == 1 then
+    redis.call('SADD', KEYS[2], ARGV[2])
+end
+
+if KEYS[3] then
+    return set_player_party(KEYS[3], ARGV[1])
+end
+return 0
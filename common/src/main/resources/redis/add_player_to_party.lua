@@ -0,0 +1,15 @@
+-- KEYS[1]: party key, KEYS[2]: player key (optional, in a Redis Cluster the caller updates the player itself)
+-- ARGV[1]: party id, ARGV[2]: unique id of the player
+local raw = redis.call('GET', KEYS[1])
+if raw then
+    local party = decode_party(raw)
+    if not contains_member(party, ARGV[2]) then
+        table.insert(party.members, ARGV[2])
+        redis.call('SET', KEYS[1], encode_party(party))
+    end
+end
+
+if KEYS[2] then
+    return set_player_party(KEYS[2], ARGV[1])
+end
+return 0
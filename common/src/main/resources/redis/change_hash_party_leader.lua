@@ -0,0 +1,12 @@
+-- KEYS[1]: party key, KEYS[2]: members key
+-- ARGV[1]: old leader, ARGV[2]: new leader, ARGV[3]: new member limit
+migrate_string_party(KEYS[1], KEYS[2])
+
+if redis.call('EXISTS', KEYS[1]) == 0 then
+    return 0
+end
+
+redis.call('SREM', KEYS[2], ARGV[2])
+redis.call('SADD', KEYS[2], ARGV[1])
+redis.call('HSET', KEYS[1], 'leader', ARGV[2], 'max_members', ARGV[3])
+return 1
@@ -0,0 +1,16 @@
+-- KEYS[1]: party key
+-- ARGV[1]: old leader, ARGV[2]: new leader, ARGV[3]: new member limit
+local raw = redis.call('GET', KEYS[1])
+if not raw then
+    return 0
+end
+
+local party = decode_party(raw)
+remove_member(party, ARGV[2])
+if not contains_member(party, ARGV[1]) then
+    table.insert(party.members, ARGV[1])
+end
+party.leader = ARGV[2]
+party.maxMembers = tonumber(ARGV[3])
+redis.call('SET', KEYS[1], encode_party(party))
+return 1
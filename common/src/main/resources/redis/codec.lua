@@ -0,0 +1,120 @@
+-- Reads and writes players and parties in the JSON and in the binary format of BinaryPartyCodec.
+-- Decoded values remember their format, so they are written back the way they were read.
+
+local BINARY_MAGIC = string.char(1)
+
+local function is_binary(raw)
+    return string.sub(raw, 1, 1) == BINARY_MAGIC
+end
+
+local function uuid_from_bytes(raw, offset)
+    local hex = {}
+    for i = offset, offset + 15 do
+        hex[#hex + 1] = string.format('%02x', string.byte(raw, i))
+    end
+    hex = table.concat(hex)
+    return string.sub(hex, 1, 8) .. '-' .. string.sub(hex, 9, 12) .. '-' .. string.sub(hex, 13, 16) .. '-' ..
+            string.sub(hex, 17, 20) .. '-' .. string.sub(hex, 21, 32)
+end
+
+local function uuid_to_bytes(uuid)
+    local hex = string.gsub(uuid, '-', '')
+    return (string.gsub(hex, '%x%x', function(byte)
+        return string.char(tonumber(byte, 16))
+    end))
+end
+
+local function read_varint(raw, offset)
+    local value, multiplier = 0, 1
+    while true do
+        local byte = string.byte(raw, offset)
+        offset = offset + 1
+        value = value + (byte % 128) * multiplier
+        if byte < 128 then
+            return value, offset
+        end
+        multiplier = multiplier * 128
+    end
+end
+
+local function write_varint(value)
+    local bytes = {}
+    while value >= 128 do
+        bytes[#bytes + 1] = string.char(value % 128 + 128)
+        value = math.floor(value / 128)
+    end
+    bytes[#bytes + 1] = string.char(value)
+    return table.concat(bytes)
+end
+
+local function zigzag(value)
+    if value >= 0 then
+        return value * 2
+    end
+    return -value * 2 - 1
+end
+
+local function unzigzag(value)
+    if value % 2 == 0 then
+        return value / 2
+    end
+    return -(value + 1) / 2
+end
+
+local function decode_player(raw)
+    if not is_binary(raw) then
+        return cjson.decode(raw)
+    end
+
+    local player = { binary = true, uuid = uuid_from_bytes(raw, 2), party_id = cjson.null }
+    local offset = 19
+    if string.byte(raw, 18) == 1 then
+        player.party_id = uuid_from_bytes(raw, 19)
+        offset = 35
+    end
+
+    local member_limit, name_length
+    member_limit, offset = read_varint(raw, offset)
+    name_length, offset = read_varint(raw, offset)
+    player.member_limit = unzigzag(member_limit)
+    player.name = string.sub(raw, offset, offset + name_length - 1)
+    return player
+end
+
+local function encode_player(player)
+    if not player.binary then
+        return cjson.encode(player)
+    end
+
+    local party = string.char(0)
+    if player.party_id ~= cjson.null then
+        party = string.char(1) .. uuid_to_bytes(player.party_id)
+    end
+    return BINARY_MAGIC .. uuid_to_bytes(player.uuid) .. party ..
+            write_varint(zigzag(player.member_limit)) .. write_varint(#player.name) .. player.name
+end
+
+local function decode_binary_party(raw)
+    local party = { binary = true, id = uuid_from_bytes(raw, 2), leader = uuid_from_bytes(raw, 18), members = {} }
+
+    local max_members, member_count, offset
+    max_members, offset = read_varint(raw, 34)
+    member_count, offset = read_varint(raw, offset)
+    party.maxMembers = unzigzag(max_members)
+    for i = 1, member_count do
+        party.members[i] = uuid_from_bytes(raw, offset)
+        offset = offset + 16
+    end
+    return party
+end
+
+local function encode_binary_party(party)
+    local parts = {
+        BINARY_MAGIC, uuid_to_bytes(party.id), uuid_to_bytes(party.leader),
+        write_varint(zigzag(party.maxMembers)), write_varint(#party.members)
+    }
+    for _, member in ipairs(party.members) do
+        parts[#parts + 1] = uuid_to_bytes(member)
+    end
+    return table.concat(parts)
+end
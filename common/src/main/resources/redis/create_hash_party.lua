@@ -0,0 +1,21 @@
+-- KEYS[1]: party key, KEYS[2]: members key, KEYS[3]: player key of the leader (optional, in a Redis Cluster the caller updates the leader itself)
+-- ARGV[1]: party id, ARGV[2]: leader, ARGV[3]: member limit, ARGV[4..n]: members
+-- Returns 1 if the party was created, 0 if a party with this id already exists
+-- and -1 if the leader is offline or already in a party, in which case nothing is written.
+if KEYS[3] and not player_without_party(KEYS[3]) then
+    return -1
+end
+
+if redis.call('EXISTS', KEYS[1]) == 1 then
+    return 0
+end
+
+redis.call('HSET', KEYS[1], 'leader', ARGV[2], 'max_members', ARGV[3])
+if #ARGV > 3 then
+    redis.call('SADD', KEYS[2], unpack(ARGV, 4))
+end
+
+if KEYS[3] then
+    set_player_party(KEYS[3], ARGV[1])
+end
+return 1
@@ -0,0 +1,16 @@
+-- KEYS[1]: party key, KEYS[2]: player key of the leader (optional, in a Redis Cluster the caller updates the leader itself)
+-- ARGV[1]: encoded party, ARGV[2]: party id
+-- Returns 1 if the party was created, 0 if a party with this id already exists
+-- and -1 if the leader is offline or already in a party, in which case nothing is written.
+if KEYS[2] and not player_without_party(KEYS[2]) then
+    return -1
+end
+
+if not redis.call('SET', KEYS[1], ARGV[1], 'NX') then
+    return 0
+end
+
+if KEYS[2] then
+    set_player_party(KEYS[2], ARGV[2])
+end
+return 1
@@ -0,0 +1,9 @@
+-- KEYS[1]: request key of the source player
+-- ARGV[1]: current time in milliseconds, ARGV[2]: expiry time in milliseconds, ARGV[3]: name of the target player
+redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', ARGV[1])
+redis.call('ZADD', KEYS[1], ARGV[2], ARGV[3])
+
+-- The whole set expires together with its last request, so a player who never clears their requests leaves nothing behind.
+local latest = redis.call('ZRANGE', KEYS[1], -1, -1, 'WITHSCORES')
+redis.call('PEXPIREAT', KEYS[1], latest[2])
+return 1
@@ -0,0 +1,9 @@
+-- KEYS[1..n]: keys that are deleted, all in the same slot in a Redis Cluster
+-- ARGV[1..n]: the value each key must still hold to be deleted
+local deleted = 0
+for i, key in ipairs(KEYS) do
+    if redis.call('GET', key) == ARGV[i] then
+        deleted = deleted + redis.call('DEL', key)
+    end
+end
+return deleted
@@ -0,0 +1,14 @@
+-- KEYS[1]: party key, KEYS[2]: members key
+-- Returns the leader, the member limit and all members of the party or nil if the party doesn't exist.
+migrate_string_party(KEYS[1], KEYS[2])
+
+local party = redis.call('HMGET', KEYS[1], 'leader', 'max_members')
+if not party[1] then
+    return nil
+end
+
+local reply = { party[1], party[2] }
+for _, member in ipairs(redis.call('SMEMBERS', KEYS[2])) do
+    table.insert(reply, member)
+end
+return reply
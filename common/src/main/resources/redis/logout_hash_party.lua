@@ -0,0 +1,47 @@
+-- KEYS[1]: party key, KEYS[2]: members key, KEYS[3..n]: keys of the players that are deleted (none in a Redis Cluster, where the caller deletes them)
+-- ARGV: see parse_logout_args
+-- Returns the outcome ('none', 'deleted', 'left', 'leader' or 'stale' if the caller has to look up the members again), the name of the new leader
+-- or an empty string and all remaining members including the leader.
+local function finish(outcome, new_leader, leader)
+    if #KEYS > 2 then
+        redis.call('DEL', unpack(KEYS, 3))
+    end
+
+    local reply = { outcome, new_leader }
+    if leader then
+        table.insert(reply, leader)
+        for _, member in ipairs(redis.call('SMEMBERS', KEYS[2])) do
+            table.insert(reply, member)
+        end
+    end
+    return reply
+end
+
+migrate_string_party(KEYS[1], KEYS[2])
+
+local leader = redis.call('HGET', KEYS[1], 'leader')
+if not leader then
+    return finish('none', '')
+end
+
+local leaving_list, leaving, online_player = parse_logout_args()
+if not leaving[leader] then
+    redis.call('SREM', KEYS[2], unpack(leaving_list))
+    return finish('left', '', leader)
+end
+
+-- A member that is still online becomes the new leader. The members are only changed once it is found, so the caller can simply retry.
+local new_leader_id, new_leader = find_new_leader(redis.call('SMEMBERS', KEYS[2]), leaving, online_player)
+if new_leader_id == false then
+    return { 'stale', '' }
+end
+
+redis.call('SREM', KEYS[2], unpack(leaving_list))
+if new_leader then
+    redis.call('SREM', KEYS[2], new_leader_id)
+    redis.call('HSET', KEYS[1], 'leader', new_leader_id, 'max_members', new_leader.member_limit)
+    return finish('leader', new_leader.name, new_leader_id)
+end
+
+redis.call('DEL', KEYS[1], KEYS[2])
+return finish('deleted', '')
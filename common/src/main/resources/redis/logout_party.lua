@@ -0,0 +1,56 @@
+-- KEYS[1]: party key, KEYS[2..n]: keys of the players that are deleted (none in a Redis Cluster, where the caller deletes them)
+-- ARGV: see parse_logout_args
+-- Returns the outcome ('none', 'deleted', 'left', 'leader' or 'stale' if the caller has to look up the members again), the name of the new leader
+-- or an empty string and all remaining members including the leader.
+local function finish(outcome, new_leader, party)
+    if #KEYS > 1 then
+        redis.call('DEL', unpack(KEYS, 2))
+    end
+
+    local reply = { outcome, new_leader }
+    if party then
+        table.insert(reply, party.leader)
+        for _, member in ipairs(party.members) do
+            table.insert(reply, member)
+        end
+    end
+    return reply
+end
+
+local _, leaving, online_player = parse_logout_args()
+
+local raw = redis.call('GET', KEYS[1])
+if not raw then
+    return finish('none', '')
+end
+
+local party = decode_party(raw)
+local new_leader_id, new_leader
+if leaving[party.leader] then
+    -- A member that is still online becomes the new leader
+    new_leader_id, new_leader = find_new_leader(party.members, leaving, online_player)
+    if new_leader_id == false then
+        return { 'stale', '' }
+    end
+end
+
+for i = #party.members, 1, -1 do
+    if leaving[party.members[i]] or party.members[i] == new_leader_id then
+        table.remove(party.members, i)
+    end
+end
+
+if not leaving[party.leader] then
+    redis.call('SET', KEYS[1], encode_party(party))
+    return finish('left', '', party)
+end
+
+if new_leader then
+    party.leader = new_leader_id
+    party.maxMembers = new_leader.member_limit
+    redis.call('SET', KEYS[1], encode_party(party))
+    return finish('leader', new_leader.name, party)
+end
+
+redis.call('DEL', KEYS[1])
+return finish('deleted', '')
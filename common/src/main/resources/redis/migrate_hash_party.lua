@@ -0,0 +1,2 @@
+-- KEYS[1]: party key, KEYS[2]: members key
+return migrate_string_party(KEYS[1], KEYS[2])
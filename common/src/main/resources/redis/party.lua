@@ -0,0 +1,127 @@
+-- Helper functions shared by the party scripts. This file is prepended to every script that needs it, after codec.lua.
+
+local function decode_party(raw)
+    if is_binary(raw) then
+        return decode_binary_party(raw)
+    end
+    return cjson.decode(raw)
+end
+
+-- cjson would encode an empty member list as an object, but the party members are always read as an array.
+local function encode_party(party)
+    if party.binary then
+        return encode_binary_party(party)
+    end
+
+    local members = {}
+    for i, member in ipairs(party.members) do
+        members[i] = cjson.encode(member)
+    end
+    return '{"id":' .. cjson.encode(party.id) ..
+            ',"leader":' .. cjson.encode(party.leader) ..
+            ',"members":[' .. table.concat(members, ',') .. ']' ..
+            ',"maxMembers":' .. party.maxMembers .. '}'
+end
+
+local function remove_member(party, member)
+    for i = #party.members, 1, -1 do
+        if party.members[i] == member then
+            table.remove(party.members, i)
+        end
+    end
+end
+
+local function contains_member(party, member)
+    for _, existing in ipairs(party.members) do
+        if existing == member then
+            return true
+        end
+    end
+    return false
+end
+
+-- Updates the party id of a player. An empty party id removes the player from the party.
+-- Returns 1 if the player was updated and 0 if the player doesn't exist or is already in that party.
+local function set_player_party(player_key, party_id)
+    local raw = redis.call('GET', player_key)
+    if not raw then
+        return 0
+    end
+
+    local player = decode_player(raw)
+    if party_id ~= '' and player.party_id == party_id then
+        return 0
+    end
+
+    if party_id == '' then
+        player.party_id = cjson.null
+    else
+        player.party_id = party_id
+    end
+    -- SET would drop the lease of the player, so its remaining time is carried over.
+    local ttl = redis.call('PTTL', player_key)
+    redis.call('SET', player_key, encode_player(player))
+    if ttl > 0 then
+        redis.call('PEXPIRE', player_key, ttl)
+    end
+    return 1
+end
+
+-- Returns whether a player is online and in no party, so it may lead a new party.
+local function player_without_party(player_key)
+    local raw = redis.call('GET', player_key)
+    if not raw then
+        return false
+    end
+
+    local party_id = decode_player(raw).party_id
+    return party_id == nil or party_id == cjson.null
+end
+
+-- Parses the arguments of the logout scripts:
+-- ARGV[1]: number of players who log out, followed by their unique ids
+-- followed by the unique id, member limit and name of every other member, which the caller reads before, because a script may only access its KEYS.
+-- The member limit and name are empty strings if the member is offline.
+-- Returns the players who log out as a list and as a set and a function that returns the online player of a member or nil,
+-- and whether the caller has looked up the member at all.
+local function parse_logout_args()
+    local count = tonumber(ARGV[1])
+    local leaving, leaving_set = {}, {}
+    for i = 2, count + 1 do
+        leaving[#leaving + 1] = ARGV[i]
+        leaving_set[ARGV[i]] = true
+    end
+
+    local online, known = {}, {}
+    for i = count + 2, #ARGV, 3 do
+        known[ARGV[i]] = true
+        if ARGV[i + 1] ~= '' then
+            online[ARGV[i]] = { member_limit = tonumber(ARGV[i + 1]), name = ARGV[i + 2] }
+        end
+    end
+
+    local function online_player(member)
+        return online[member], known[member] == true
+    end
+    return leaving, leaving_set, online_player
+end
+
+-- Finds the new leader among the members who don't log out.
+-- Returns the unique id and the online player of the new leader, nil if no member is online,
+-- or false if only members the caller didn't look up could take over, e.g. because they joined after the caller read the party.
+local function find_new_leader(members, leaving, online_player)
+    local unknown = false
+    for _, member in ipairs(members) do
+        if not leaving[member] then
+            local player, known = online_player(member)
+            if player then
+                return member, player
+            end
+            unknown = unknown or not known
+        end
+    end
+    if unknown then
+        return false
+    end
+    return nil
+end
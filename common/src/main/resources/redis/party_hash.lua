@@ -0,0 +1,16 @@
+-- Helper functions for parties that are stored as a hash (leader, max_members) and a set (members). Requires codec.lua and party.lua.
+
+-- Converts a party that is still stored as a single JSON or binary value into the hash layout. Parties in the hash layout are left untouched.
+local function migrate_string_party(party_key, members_key)
+    if redis.call('TYPE', party_key).ok ~= 'string' then
+        return 0
+    end
+
+    local party = decode_party(redis.call('GET', party_key))
+    redis.call('DEL', party_key, members_key)
+    redis.call('HSET', party_key, 'leader', party.leader, 'max_members', party.maxMembers)
+    for _, member in ipairs(party.members) do
+        redis.call('SADD', members_key, member)
+    end
+    return 1
+end
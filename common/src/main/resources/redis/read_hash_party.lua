@@ -0,0 +1,17 @@
+-- KEYS[1]: party key, KEYS[2]: members key
+-- Only reads, so it can run on a read replica. Parties that are still stored as a single value aren't converted here.
+-- Returns the leader, the member limit and all members of the party, 0 if the party still has to be converted or nil if the party doesn't exist.
+if redis.call('TYPE', KEYS[1]).ok == 'string' then
+    return 0
+end
+
+local party = redis.call('HMGET', KEYS[1], 'leader', 'max_members')
+if not party[1] then
+    return nil
+end
+
+local reply = { party[1], party[2] }
+for _, member in ipairs(redis.call('SMEMBERS', KEYS[2])) do
+    table.insert(reply, member)
+end
+return reply
@@ -0,0 +1,6 @@
+-- KEYS[1..n]: keys whose lease is refreshed, all in the same slot in a Redis Cluster
+-- ARGV[1]: the lease in milliseconds
+for _, key in ipairs(KEYS) do
+    redis.call('PEXPIRE', key, ARGV[1])
+end
+return #KEYS
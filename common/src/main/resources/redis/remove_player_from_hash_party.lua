@@ -0,0 +1,10 @@
+-- KEYS[1]: party key, KEYS[2]: members key, KEYS[3]: player key (optional, in a Redis Cluster the caller updates the player itself)
+-- ARGV[1]: unique id of the player
+migrate_string_party(KEYS[1], KEYS[2])
+
+redis.call('SREM', KEYS[2], ARGV[1])
+
+if KEYS[3] then
+    return set_player_party(KEYS[3], '')
+end
+return 0
@@ -0,0 +1,13 @@
+-- KEYS[1]: party key, KEYS[2]: player key (optional, in a Redis Cluster the caller updates the player itself)
+-- ARGV[1]: unique id of the player
+local raw = redis.call('GET', KEYS[1])
+if raw then
+    local party = decode_party(raw)
+    remove_member(party, ARGV[1])
+    redis.call('SET', KEYS[1], encode_party(party))
+end
+
+if KEYS[2] then
+    return set_player_party(KEYS[2], '')
+end
+return 0
@@ -0,0 +1,7 @@
+-- KEYS[1]: player key
+-- ARGV[1]: party id or an empty string to remove the player from the party
+-- ARGV[2]: '1' to only update a player who is in no party (optional)
+if ARGV[2] == '1' and not player_without_party(KEYS[1]) then
+    return 0
+end
+return set_player_party(KEYS[1], ARGV[1])
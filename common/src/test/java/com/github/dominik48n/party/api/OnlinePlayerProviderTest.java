@@ -20,16 +20,18 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.github.dominik48n.party.api.player.OnlinePlayerProvider;
 import com.github.dominik48n.party.api.player.PartyPlayer;
 import com.github.dominik48n.party.config.Document;
+import com.github.dominik48n.party.redis.RedisKeys;
 import com.github.dominik48n.party.redis.RedisManager;
 import com.github.dominik48n.party.user.UserManager;
 import com.github.dominik48n.party.user.UserMock;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
-import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.AfterEach;
 import static org.junit.jupiter.api.Assertions.*;
@@ -39,12 +41,17 @@ import org.mockito.Mock;
 import static org.mockito.Mockito.*;
 import org.mockito.MockitoAnnotations;
 import redis.clients.jedis.UnifiedJedis;
+import redis.clients.jedis.params.ScanParams;
+import redis.clients.jedis.resps.ScanResult;
+import redis.clients.jedis.util.SafeEncoder;
 
 public class OnlinePlayerProviderTest {
 
     private final @NotNull String username = "Dominik48N";
     private final @NotNull UUID uniqueId = UUID.randomUUID();
     private final @NotNull String playerKey = "party_player:" + this.uniqueId;
+    private final @NotNull String nameKey = "party_player_name:dominik48n";
+    private final byte @NotNull [] playerKeyBytes = SafeEncoder.encode(this.playerKey);
 
     private OnlinePlayerProvider onlinePlayerProvider;
 
@@ -62,8 +69,11 @@ public class OnlinePlayerProviderTest {
     @BeforeEach
     void setup() {
         this.mocks = MockitoAnnotations.openMocks(this);
+        when(this.redisManager.keys()).thenReturn(RedisKeys.STANDARD);
+        when(this.redisManager.proxyId()).thenReturn("proxy-1");
         this.onlinePlayerProvider = new DefaultOnlinePlayersProvider<>(this.redisManager, this.userManager);
         when(this.redisManager.jedis()).thenReturn(this.jedis);
+        when(this.redisManager.read(any())).thenAnswer(invocation -> invocation.<Function<UnifiedJedis, ?>>getArgument(0).apply(this.jedis));
     }
 
     @AfterEach
@@ -75,22 +85,28 @@ public class OnlinePlayerProviderTest {
     void testGetByUsername() throws JsonProcessingException {
         final PartyPlayer partyPlayer = new UserMock(this.uniqueId, this.username, this.userManager);
 
-        final Set<String> keys = new HashSet<>();
-        keys.add(this.playerKey);
-        when(this.jedis.keys("party_player:*")).thenReturn(keys);
-        final String jsonString = Document.MAPPER.writeValueAsString(partyPlayer);
-        when(this.jedis.get(this.playerKey)).thenReturn(jsonString);
+        when(this.jedis.get(this.nameKey)).thenReturn(this.uniqueId.toString());
+        when(this.jedis.get(this.playerKeyBytes)).thenReturn(Document.MAPPER.writeValueAsBytes(partyPlayer));
 
-        final Optional<PartyPlayer> result = this.onlinePlayerProvider.get(username);
+        final Optional<PartyPlayer> result = this.onlinePlayerProvider.get(this.username.toUpperCase());
         assertTrue(result.isPresent());
         assertEquals(partyPlayer, result.get());
+        verify(this.jedis, never()).keys(anyString());
+    }
+
+    @Test
+    void testGetByUsernameStaleIndex() throws JsonProcessingException {
+        when(this.jedis.get(this.nameKey)).thenReturn(this.uniqueId.toString());
+        when(this.jedis.get(this.playerKeyBytes)).thenReturn(null);
+
+        final Optional<PartyPlayer> result = this.onlinePlayerProvider.get(this.username);
+        assertTrue(result.isEmpty());
     }
 
     @Test
     void testGetByUniqueId() throws JsonProcessingException {
         final PartyPlayer partyPlayer = new UserMock(this.uniqueId, this.username, this.userManager);
-        final String jsonString = Document.MAPPER.writeValueAsString(partyPlayer);
-        when(this.jedis.get(this.playerKey)).thenReturn(jsonString);
+        when(this.jedis.get(this.playerKeyBytes)).thenReturn(Document.MAPPER.writeValueAsBytes(partyPlayer));
 
         final Optional<PartyPlayer> result = this.onlinePlayerProvider.get(this.uniqueId);
         assertTrue(result.isPresent());
@@ -99,7 +115,7 @@ public class OnlinePlayerProviderTest {
 
     @Test
     void testGetByUsernameNotFound() throws JsonProcessingException {
-        when(this.jedis.keys("party_player:*")).thenReturn(new HashSet<>());
+        when(this.jedis.get(this.nameKey)).thenReturn(null);
 
         final Optional<PartyPlayer> result = this.onlinePlayerProvider.get(this.username);
         assertTrue(result.isEmpty());
@@ -107,7 +123,7 @@ public class OnlinePlayerProviderTest {
 
     @Test
     void testGetByUniqueIdNotFound() throws JsonProcessingException {
-        when(this.jedis.get(this.playerKey)).thenReturn(null);
+        when(this.jedis.get(this.playerKeyBytes)).thenReturn(null);
 
         final Optional<PartyPlayer> result = this.onlinePlayerProvider.get(this.uniqueId);
         assertTrue(result.isEmpty());
@@ -118,9 +134,9 @@ public class OnlinePlayerProviderTest {
         final PartyPlayer partyPlayer = new UserMock(this.uniqueId, this.username, this.userManager);
 
         final List<UUID> uniqueIds = Collections.singletonList(this.uniqueId);
-        final String[] keys = {this.playerKey};
-        final String[] jsonValues = {Document.MAPPER.writeValueAsString(partyPlayer)};
-        when(this.jedis.mget(keys)).thenReturn(List.of(jsonValues));
+        final byte[][] keys = {this.playerKeyBytes};
+        final byte[][] values = {Document.MAPPER.writeValueAsBytes(partyPlayer)};
+        when(this.jedis.mget(keys)).thenReturn(List.of(values));
 
         final Map<UUID, PartyPlayer> result = this.onlinePlayerProvider.get(uniqueIds);
         assertEquals(1, result.size());
@@ -131,9 +147,9 @@ public class OnlinePlayerProviderTest {
     @Test
     void testGetByUniqueIdsNotFound() throws JsonProcessingException {
         final List<UUID> uniqueIds = Collections.singletonList(this.uniqueId);
-        final String[] keys = {};
-        final String[] jsonValues = {};
-        when(this.jedis.mget(keys)).thenReturn(List.of(jsonValues));
+        final byte[][] keys = {};
+        final byte[][] values = {};
+        when(this.jedis.mget(keys)).thenReturn(List.of(values));
 
         final Map<UUID, PartyPlayer> result = this.onlinePlayerProvider.get(uniqueIds);
         assertTrue(result.isEmpty());
@@ -143,53 +159,190 @@ public class OnlinePlayerProviderTest {
     void testGetAll() throws JsonProcessingException {
         final PartyPlayer partyPlayer = new UserMock(this.uniqueId, this.username, this.userManager);
 
-        final Set<String> keys = new HashSet<>();
-        keys.add(this.playerKey);
-        when(this.jedis.keys("party_player:*")).thenReturn(keys);
-        final String jsonString = Document.MAPPER.writeValueAsString(partyPlayer);
-        when(this.jedis.get(this.playerKey)).thenReturn(jsonString);
+        when(this.jedis.scan(eq(ScanParams.SCAN_POINTER_START), any(ScanParams.class)))
+                .thenReturn(new ScanResult<>(ScanParams.SCAN_POINTER_START, List.of(this.playerKey)));
+        when(this.jedis.mget(this.playerKeyBytes)).thenReturn(List.of(Document.MAPPER.writeValueAsBytes(partyPlayer)));
 
         final List<PartyPlayer> result = this.onlinePlayerProvider.all();
         assertEquals(1, result.size());
         assertTrue(result.stream().anyMatch(partyPlayer::equals));
+        verify(this.jedis, never()).keys(anyString());
     }
 
     @Test
     void testGetAllNotFound() throws JsonProcessingException {
-        when(this.jedis.keys("party_player:*")).thenReturn(new HashSet<>());
+        when(this.jedis.scan(eq(ScanParams.SCAN_POINTER_START), any(ScanParams.class)))
+                .thenReturn(new ScanResult<>(ScanParams.SCAN_POINTER_START, Collections.emptyList()));
 
         final List<PartyPlayer> result = this.onlinePlayerProvider.all();
         assertTrue(result.isEmpty());
     }
 
+    @Test
+    void testIteratorFollowsCursor() throws JsonProcessingException {
+        final UUID otherUniqueId = UUID.randomUUID();
+        final PartyPlayer partyPlayer = new UserMock(this.uniqueId, this.username, this.userManager);
+        final PartyPlayer otherPlayer = new UserMock(otherUniqueId, "randomUser", this.userManager);
+        final String otherKey = "party_player:" + otherUniqueId;
+
+        when(this.jedis.scan(eq(ScanParams.SCAN_POINTER_START), any(ScanParams.class)))
+                .thenReturn(new ScanResult<>("17", List.of(this.playerKey)));
+        when(this.jedis.scan(eq("17"), any(ScanParams.class)))
+                .thenReturn(new ScanResult<>("42", Collections.emptyList()));
+        when(this.jedis.scan(eq("42"), any(ScanParams.class)))
+                .thenReturn(new ScanResult<>(ScanParams.SCAN_POINTER_START, List.of(otherKey)));
+        when(this.jedis.mget(this.playerKeyBytes)).thenReturn(List.of(Document.MAPPER.writeValueAsBytes(partyPlayer)));
+        when(this.jedis.mget(SafeEncoder.encode(otherKey))).thenReturn(List.of(Document.MAPPER.writeValueAsBytes(otherPlayer)));
+
+        final Iterator<PartyPlayer> iterator = this.onlinePlayerProvider.iterator(1);
+        assertTrue(iterator.hasNext());
+        assertEquals(partyPlayer, iterator.next());
+        assertTrue(iterator.hasNext());
+        assertEquals(otherPlayer, iterator.next());
+        assertFalse(iterator.hasNext());
+        assertThrows(NoSuchElementException.class, iterator::next);
+    }
+
+    @Test
+    void testIteratorInvalidBatchSize() {
+        assertThrows(IllegalArgumentException.class, () -> this.onlinePlayerProvider.iterator(0));
+    }
+
     @Test
     void testLogin() throws JsonProcessingException {
         final PartyPlayer partyPlayer = new UserMock(this.uniqueId, this.username, this.userManager);
 
         this.onlinePlayerProvider.login(partyPlayer);
 
-        verify(this.jedis).set(this.playerKey, Document.MAPPER.writeValueAsString(partyPlayer));
+        verify(this.jedis).set(this.playerKeyBytes, Document.MAPPER.writeValueAsBytes(partyPlayer));
+        verify(this.jedis).set(this.nameKey, this.uniqueId.toString());
+        verify(this.jedis).set("party_player_proxy:" + this.uniqueId, "proxy-1");
+    }
+
+    @Test
+    void testUpdatePartyId() throws JsonProcessingException {
+        final UUID partyId = UUID.randomUUID();
+        when(this.jedis.evalsha(anyString(), eq(List.of(this.playerKey)), eq(List.of(partyId.toString())))).thenReturn(1L);
+        when(this.jedis.evalsha(anyString(), eq(List.of(this.playerKey)), eq(List.of("")))).thenReturn(0L);
+
+        assertTrue(this.onlinePlayerProvider.updatePartyId(this.uniqueId, partyId));
+        assertFalse(this.onlinePlayerProvider.updatePartyId(this.uniqueId, null));
     }
 
     @Test
     void testLogoutPlayerLoggedIn() throws JsonProcessingException {
         final PartyPlayer partyPlayer = new UserMock(this.uniqueId, this.username, this.userManager);
-        final String jsonString = Document.MAPPER.writeValueAsString(partyPlayer);
-        when(this.jedis.get(eq(this.playerKey))).thenReturn(jsonString);
+        when(this.jedis.mget(this.playerKeyBytes)).thenReturn(List.of(Document.MAPPER.writeValueAsBytes(partyPlayer)));
 
         this.onlinePlayerProvider.logout(this.uniqueId);
 
-        verify(this.jedis).get(this.playerKey);
-        verify(this.jedis).del(this.playerKey);
+        verify(this.jedis).mget(this.playerKeyBytes);
+        verify(this.jedis).del(this.playerKey, "request:" + this.username, "party_player_proxy:" + this.uniqueId);
+        // The name may already belong to another player, so it is only deleted if it still maps to this player
+        verify(this.jedis).evalsha(anyString(), eq(List.of(this.nameKey)), eq(List.of(this.uniqueId.toString())));
+        verifyNoMoreInteractions(this.jedis);
+    }
+
+    @Test
+    void testLogoutPlayerInParty() throws JsonProcessingException {
+        final UUID partyId = UUID.randomUUID();
+        final UUID leader = UUID.randomUUID();
+        final UUID member = UUID.randomUUID();
+        final PartyPlayer partyPlayer = new UserMock(this.uniqueId, this.username, this.userManager);
+        partyPlayer.partyId(partyId);
+        final byte[] partyKey = SafeEncoder.encode("party:" + partyId);
+        final byte[] memberKey = SafeEncoder.encode("party_player:" + member);
+        when(this.jedis.mget(this.playerKeyBytes)).thenReturn(List.of(Document.MAPPER.writeValueAsBytes(partyPlayer)));
+        when(this.jedis.get(partyKey)).thenReturn(Document.MAPPER.writeValueAsBytes(new Party(partyId, leader, List.of(member, this.uniqueId), 5)));
+        when(this.jedis.mget(memberKey)).thenReturn(Collections.singletonList(null));
+        final List<String> keys = List.of("party:" + partyId, this.playerKey, "request:" + this.username, "party_player_proxy:" + this.uniqueId);
+        final List<String> args = List.of("1", this.uniqueId.toString(), member.toString(), "", "");
+        when(this.jedis.evalsha(anyString(), eq(keys), eq(args))).thenReturn(List.of("left", "", leader.toString(), member.toString()));
+
+        final PartyProvider partyProvider = mock(PartyProvider.class);
+        PartyAPI.set(partyProvider);
+
+        this.onlinePlayerProvider.logout(this.uniqueId);
+
+        // The player, the party and its other members are read once each, followed by one script
+        verify(this.jedis).mget(this.playerKeyBytes);
+        verify(this.jedis).get(partyKey);
+        verify(this.jedis).mget(memberKey);
+        verify(this.jedis).evalsha(anyString(), eq(keys), eq(args));
+        verify(this.jedis).evalsha(anyString(), eq(List.of(this.nameKey)), eq(List.of(this.uniqueId.toString())));
+        verifyNoMoreInteractions(this.jedis);
+        verify(partyProvider).sendMessageToPlayers(List.of(leader, member), "party.left", this.username);
+    }
+
+    @Test
+    void testLogoutPartyLeader() throws JsonProcessingException {
+        final UUID partyId = UUID.randomUUID();
+        final UUID newLeader = UUID.randomUUID();
+        final PartyPlayer partyPlayer = new UserMock(this.uniqueId, this.username, this.userManager);
+        partyPlayer.partyId(partyId);
+        when(this.jedis.mget(this.playerKeyBytes)).thenReturn(List.of(Document.MAPPER.writeValueAsBytes(partyPlayer)));
+        when(this.jedis.evalsha(anyString(), anyList(), anyList()))
+                .thenReturn(List.of("leader", "randomUser", newLeader.toString()));
+
+        final PartyProvider partyProvider = mock(PartyProvider.class);
+        PartyAPI.set(partyProvider);
+
+        this.onlinePlayerProvider.logout(this.uniqueId);
+
+        verify(partyProvider).sendMessageToPlayers(List.of(newLeader), "party.left", this.username);
+        verify(partyProvider).sendMessageToPlayers(List.of(newLeader), "party.new_leader", "randomUser");
     }
 
     @Test
     void testLogoutPlayerNotLoggedIn() {
-        when(this.jedis.get(this.playerKey)).thenReturn(null);
+        when(this.jedis.mget(this.playerKeyBytes)).thenReturn(Collections.singletonList(null));
 
         this.onlinePlayerProvider.logout(this.uniqueId);
 
-        verify(this.jedis).get(this.playerKey);
-        verify(this.jedis, never()).del(this.playerKey);
+        verify(this.jedis).mget(this.playerKeyBytes);
+        verify(this.jedis, never()).del(any(String[].class));
+    }
+
+    @Test
+    void testBulkLogoutGroupsParties() throws JsonProcessingException {
+        final UUID partyId = UUID.randomUUID();
+        final PartyPlayer leader = new UserMock(this.uniqueId, this.username, this.userManager);
+        leader.partyId(partyId);
+        final PartyPlayer member = new UserMock(UUID.randomUUID(), "randomUser", this.userManager);
+        member.partyId(partyId);
+        final PartyPlayer withoutParty = new UserMock(UUID.randomUUID(), "anotherUser", this.userManager);
+        when(this.jedis.mget(any(byte[][].class))).thenReturn(List.of(
+                Document.MAPPER.writeValueAsBytes(leader),
+                Document.MAPPER.writeValueAsBytes(member),
+                Document.MAPPER.writeValueAsBytes(withoutParty)
+        ));
+        when(this.jedis.evalsha(anyString(), anyList(), anyList())).thenReturn(List.of("deleted", ""));
+
+        this.onlinePlayerProvider.logout(List.of(leader.uniqueId(), member.uniqueId(), withoutParty.uniqueId()));
+
+        verify(this.jedis).mget(any(byte[][].class));
+        verify(this.jedis).del(
+                "party_player:" + withoutParty.uniqueId(),
+                "request:anotherUser",
+                "party_player_proxy:" + withoutParty.uniqueId()
+        );
+        verify(this.jedis).evalsha(anyString(), eq(List.of("party_player_name:anotheruser")), eq(List.of(withoutParty.uniqueId().toString())));
+        // Both party members leave the party in the same script
+        verify(this.jedis).evalsha(
+                anyString(),
+                eq(List.of(
+                        "party:" + partyId,
+                        this.playerKey, "request:" + this.username, "party_player_proxy:" + this.uniqueId,
+                        "party_player:" + member.uniqueId(), "request:randomUser", "party_player_proxy:" + member.uniqueId()
+                )),
+                eq(List.of("2", this.uniqueId.toString(), member.uniqueId().toString()))
+        );
+        verify(this.jedis).evalsha(
+                anyString(),
+                eq(List.of(this.nameKey, "party_player_name:randomuser")),
+                eq(List.of(this.uniqueId.toString(), member.uniqueId().toString()))
+        );
+        verify(this.jedis).get(SafeEncoder.encode("party:" + partyId));
+        verifyNoMoreInteractions(this.jedis);
     }
 }
@@ -17,11 +17,19 @@
 package com.github.dominik48n.party.api;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.github.dominik48n.party.config.Document;
 import com.github.dominik48n.party.config.MessageConfig;
+import com.github.dominik48n.party.redis.RedisKeys;
 import com.github.dominik48n.party.redis.RedisManager;
+import com.github.dominik48n.party.redis.RedisMessageSub;
+import com.github.dominik48n.party.redis.RedisSwitchServerSub;
 import com.github.dominik48n.party.user.UserManager;
 import com.github.dominik48n.party.user.UserMock;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Function;
+import net.kyori.adventure.text.Component;
 import org.junit.jupiter.api.AfterEach;
 import static org.junit.jupiter.api.Assertions.*;
 import org.junit.jupiter.api.BeforeEach;
@@ -52,8 +60,10 @@ public class PartyProviderTest {
     @BeforeEach
     void setup() {
         this.mocks = MockitoAnnotations.openMocks(this);
+        when(this.redisManager.keys()).thenReturn(RedisKeys.STANDARD);
         this.partyProvider = new DefaultPartyProvider<>(this.redisManager, this.userManager, this.messageConfig);
         when(this.redisManager.jedis()).thenReturn(this.jedis);
+        when(this.redisManager.read(any())).thenAnswer(invocation -> invocation.<Function<UnifiedJedis, ?>>getArgument(0).apply(this.jedis));
     }
 
     @AfterEach
@@ -65,12 +75,123 @@ public class PartyProviderTest {
     void testCreateParty() throws JsonProcessingException {
         final UUID leader = UUID.randomUUID();
         final int maxMembers = 12;
+        when(this.jedis.evalsha(any(byte[].class), anyList(), anyList())).thenReturn(1L);
 
         final Party party = this.partyProvider.createParty(leader, maxMembers);
 
         assertNotNull(party);
         assertEquals(leader, party.leader());
         assertEquals(maxMembers, party.maxMembers());
+        // A single conditional write that also sets the party id of the leader
+        verify(this.jedis).evalsha(any(byte[].class), anyList(), anyList());
+        verify(this.jedis, never()).exists(anyString());
+    }
+
+    @Test
+    void testCreatePartyRetriesOnCollision() throws JsonProcessingException {
+        when(this.jedis.evalsha(any(byte[].class), anyList(), anyList())).thenReturn(0L, 1L);
+
+        this.partyProvider.createParty(UUID.randomUUID(), 12);
+
+        verify(this.jedis, times(2)).evalsha(any(byte[].class), anyList(), anyList());
+    }
+
+    @Test
+    void testCreatePartyWithUnavailableLeader() {
+        when(this.jedis.evalsha(any(byte[].class), anyList(), anyList())).thenReturn(-1L);
+
+        assertThrows(IllegalStateException.class, () -> this.partyProvider.createParty(UUID.randomUUID(), 12));
+        verify(this.jedis, times(1)).evalsha(any(byte[].class), anyList(), anyList());
+    }
+
+    @Test
+    void testSendMessageToPlayersPublishesOncePerProxy() {
+        final UUID leader = UUID.randomUUID();
+        final UUID member = UUID.randomUUID();
+        final UUID unknownPlayer = UUID.randomUUID();
+        final List<UUID> players = List.of(leader, member, unknownPlayer);
+        when(this.messageConfig.getMessage("party.chat")).thenReturn(Component.text("Hello"));
+        when(this.redisManager.proxies(players)).thenReturn(Map.of(leader, "proxy-1", member, "proxy-1"));
+
+        this.partyProvider.sendMessageToPlayers(players, "party.chat");
+
+        verify(this.redisManager).publish(
+                eq(RedisMessageSub.CHANNEL),
+                eq("proxy-1"),
+                argThat(document -> document.toString().contains("\"unique_ids\":[\"" + leader + "\",\"" + member + "\"]"))
+        );
+        // Players without a known proxy are still reached by all proxies
+        verify(this.redisManager).publish(
+                eq(RedisMessageSub.CHANNEL),
+                isNull(),
+                argThat(document -> document.toString().contains("\"unique_ids\":[\"" + unknownPlayer + "\"]"))
+        );
+        verify(this.redisManager, times(2)).publish(anyString(), any(), any(Document.class));
+    }
+
+    @Test
+    void testConnectPartyToServerPublishesOneWarpPerProxy() {
+        final UUID leader = UUID.randomUUID();
+        final UUID member = UUID.randomUUID();
+        final Party party = new Party(UUID.randomUUID(), leader, List.of(member), 5);
+        when(this.messageConfig.getMessage("party.connect_to_server", "lobby")).thenReturn(Component.text("Warping"));
+        when(this.redisManager.proxies(party.allMembers())).thenReturn(Map.of(leader, "proxy-1", member, "proxy-1"));
+
+        this.partyProvider.connectPartyToServer(party, "lobby");
+
+        verify(this.redisManager).publish(eq(RedisSwitchServerSub.CHANNEL), eq("proxy-1"), argThat(document -> {
+            final String json = document.toString();
+            return json.contains("\"unique_ids\":[\"" + member + "\",\"" + leader + "\"]") && json.contains("\"server\":\"lobby\"");
+        }));
+        verify(this.redisManager).publish(anyString(), any(), any(Document.class));
+    }
+
+    @Test
+    void testAddPlayerToParty() throws JsonProcessingException {
+        final UUID partyId = UUID.randomUUID();
+        final UUID player = UUID.randomUUID();
+
+        this.partyProvider.addPlayerToParty(partyId, player);
+
+        verify(this.jedis).evalsha(
+                anyString(),
+                eq(List.of("party:" + partyId, "party_player:" + player)),
+                eq(List.of(partyId.toString(), player.toString()))
+        );
+        verify(this.jedis, never()).get(anyString());
+        verify(this.jedis, never()).set(anyString(), anyString());
+    }
+
+    @Test
+    void testRemovePlayerFromParty() throws JsonProcessingException {
+        final UUID partyId = UUID.randomUUID();
+        final UUID player = UUID.randomUUID();
+
+        this.partyProvider.removePlayerFromParty(partyId, player, "Dominik48N");
+
+        verify(this.jedis).evalsha(
+                anyString(),
+                eq(List.of("party:" + partyId, "party_player:" + player)),
+                eq(List.of(player.toString()))
+        );
+        verify(this.jedis).del("request:Dominik48N");
+        verify(this.jedis, never()).keys(anyString());
+    }
+
+    @Test
+    void testChangePartyLeader() throws JsonProcessingException {
+        final UUID partyId = UUID.randomUUID();
+        final UUID oldLeader = UUID.randomUUID();
+        final UUID newLeader = UUID.randomUUID();
+
+        this.partyProvider.changePartyLeader(partyId, oldLeader, newLeader, 10);
+
+        verify(this.jedis).evalsha(
+                anyString(),
+                eq(List.of("party:" + partyId)),
+                eq(List.of(oldLeader.toString(), newLeader.toString(), "10"))
+        );
+        assertThrows(IllegalArgumentException.class, () -> this.partyProvider.changePartyLeader(partyId, oldLeader, newLeader, -1));
     }
 
     @Test
@@ -90,15 +211,25 @@ public class PartyProviderTest {
         final String target = "randomUser";
         final int expires = 25;
 
-        when(this.redisManager.jedis()).thenReturn(this.jedis);
-
         // Request create
+        final long before = System.currentTimeMillis();
         this.partyProvider.createPartyRequest(source, target, expires);
-        verify(this.jedis).setex("request:" + source + ":" + target, expires, "");
+        verify(this.jedis).evalsha(anyString(), eq(List.of("request:" + source)), argThat(args -> {
+            final long now = Long.parseLong(args.get(0));
+            return now >= before && Long.parseLong(args.get(1)) == now + expires * 1000L && args.get(2).equals(target);
+        }));
 
         // Request delete
         this.partyProvider.removePartyRequest(source, target);
-        verify(this.jedis).del("request:" + source + ":" + target);
+        verify(this.jedis).zrem("request:" + source, target);
+    }
+
+    @Test
+    void testClearPartyRequest() {
+        this.partyProvider.clearPartyRequest("Dominik48N");
+
+        verify(this.jedis).del("request:Dominik48N");
+        verify(this.jedis, never()).keys(anyString());
     }
 
     @Test
@@ -106,10 +237,30 @@ public class PartyProviderTest {
         final String source = "Dominik48N";
         final String target = "randomUser";
 
-        when(this.jedis.exists("request:" + source + ":" + target)).thenReturn(true);
+        when(this.jedis.zscore("request:" + source, target)).thenReturn((double) System.currentTimeMillis() + 10_000);
         assertTrue(this.partyProvider.existsPartyRequest(source, target));
 
-        when(this.jedis.exists("request:" + source + ":" + target)).thenReturn(false);
+        when(this.jedis.zscore("request:" + source, target)).thenReturn(null);
+        assertFalse(this.partyProvider.existsPartyRequest(source, target));
+        verify(this.jedis, never()).zrem(anyString(), any(String[].class));
+    }
+
+    @Test
+    void testExistsPartyRequestExpired() {
+        final String source = "Dominik48N";
+        final String target = "randomUser";
+
+        when(this.jedis.zscore("request:" + source, target)).thenReturn((double) System.currentTimeMillis() - 1);
         assertFalse(this.partyProvider.existsPartyRequest(source, target));
+        verify(this.jedis).zrem("request:" + source, target);
+    }
+
+    @Test
+    void testGetPartyRequests() {
+        final String source = "Dominik48N";
+        when(this.jedis.zrangeByScore(eq("request:" + source), anyDouble(), eq(Double.POSITIVE_INFINITY))).thenReturn(List.of("randomUser"));
+
+        assertEquals(List.of("randomUser"), this.partyProvider.getPartyRequests(source));
+        verify(this.jedis).zremrangeByScore(eq("request:" + source), eq(Double.NEGATIVE_INFINITY), anyDouble());
     }
 }
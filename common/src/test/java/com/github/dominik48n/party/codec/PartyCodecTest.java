@@ -0,0 +1,102 @@
+/*
+ * Copyright 2023 Dominik48N
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.dominik48n.party.codec;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.github.dominik48n.party.api.Party;
+import com.github.dominik48n.party.api.player.PartyPlayer;
+import com.github.dominik48n.party.user.UserDeserializer;
+import com.google.common.primitives.Bytes;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+public class PartyCodecTest {
+
+    private final PartyCodec binaryCodec = PartyCodecType.BINARY.create();
+    private final PartyCodec jsonCodec = PartyCodecType.JSON.create();
+
+    @Test
+    void testPlayerRoundTrip() throws JsonProcessingException {
+        final PartyPlayer player = new UserDeserializer.DeserializedUser(UUID.randomUUID(), "Dominik48N", UUID.randomUUID(), 8);
+
+        final byte[] value = this.binaryCodec.encodePlayer(player);
+        final PartyPlayer decoded = this.binaryCodec.decodePlayer(value);
+
+        // magic, unique id, party flag, party id, member limit, name length, name
+        assertEquals(1 + 16 + 1 + 16 + 1 + 1 + 10, value.length);
+        assertEquals(player.uniqueId(), decoded.uniqueId());
+        assertEquals(player.name(), decoded.name());
+        assertEquals(player.partyId(), decoded.partyId());
+        assertEquals(player.memberLimit(), decoded.memberLimit());
+    }
+
+    @Test
+    void testPlayerWithoutPartyAndNegativeLimit() throws JsonProcessingException {
+        final PartyPlayer player = new UserDeserializer.DeserializedUser(UUID.randomUUID(), "Dominik48N", null, -1);
+
+        final PartyPlayer decoded = this.binaryCodec.decodePlayer(this.binaryCodec.encodePlayer(player));
+
+        assertTrue(decoded.partyId().isEmpty());
+        assertEquals(-1, decoded.memberLimit());
+    }
+
+    @Test
+    void testPartyRoundTrip() throws JsonProcessingException {
+        final Party party = new Party(UUID.randomUUID(), UUID.randomUUID(), List.of(UUID.randomUUID(), UUID.randomUUID()), 300);
+
+        final byte[] value = this.binaryCodec.encodeParty(party);
+
+        assertEquals(1 + 16 + 16 + 2 + 1 + 2 * 16, value.length);
+        assertEquals(party, this.binaryCodec.decodeParty(value));
+    }
+
+    @Test
+    void testDecodesOtherFormat() throws JsonProcessingException {
+        final Party party = new Party(UUID.randomUUID(), UUID.randomUUID(), List.of(UUID.randomUUID()), 5);
+        final PartyPlayer player = new UserDeserializer.DeserializedUser(UUID.randomUUID(), "Dominik48N", party.id(), 5);
+
+        assertEquals(party, this.binaryCodec.decodeParty(this.jsonCodec.encodeParty(party)));
+        assertEquals(party, this.jsonCodec.decodeParty(this.binaryCodec.encodeParty(party)));
+        assertEquals(player.name(), this.binaryCodec.decodePlayer(this.jsonCodec.encodePlayer(player)).name());
+        assertEquals(player.name(), this.jsonCodec.decodePlayer(this.binaryCodec.encodePlayer(player)).name());
+    }
+
+    @Test
+    void testMalformedValue() throws JsonProcessingException {
+        final byte[] value = this.binaryCodec.encodeParty(new Party(UUID.randomUUID(), UUID.randomUUID(), List.of(UUID.randomUUID()), 5));
+
+        assertThrows(JsonProcessingException.class, () -> this.binaryCodec.decodeParty(Arrays.copyOf(value, value.length - 1)));
+        assertThrows(JsonProcessingException.class, () -> new BinaryPartyCodec().decodePlayer(new byte[]{'{', '}'}));
+    }
+
+    @Test
+    void testMalformedNameLength() throws JsonProcessingException {
+        final byte[] value = this.binaryCodec.encodePlayer(new UserDeserializer.DeserializedUser(UUID.randomUUID(), "Dominik48N", null, 8));
+        // magic, unique id, party flag, member limit, then the name length
+        final int nameLength = 1 + 16 + 1 + 1;
+
+        final byte[] tooLong = value.clone();
+        tooLong[nameLength] = 11;
+        final byte[] negative = Bytes.concat(Arrays.copyOf(value, nameLength), new byte[]{(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F});
+
+        assertThrows(JsonProcessingException.class, () -> this.binaryCodec.decodePlayer(tooLong));
+        assertThrows(JsonProcessingException.class, () -> this.binaryCodec.decodePlayer(negative));
+    }
+}
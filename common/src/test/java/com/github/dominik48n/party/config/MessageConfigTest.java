@@ -17,10 +17,12 @@
 package com.github.dominik48n.party.config;
 
 import java.text.MessageFormat;
+import java.util.List;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.minimessage.MiniMessage;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import org.junit.jupiter.api.Test;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -53,4 +55,34 @@ public class MessageConfigTest {
         assertNotNull(message);
         assertEquals(expected, MiniMessage.miniMessage().serialize(message));
     }
+
+    @Test
+    void testMessageWithoutArgumentsIsParsedOnce() {
+        final MessageConfig config = new MessageConfig();
+        config.messages().put("test", new MessageFormat("<red>It''s done"));
+
+        final Component message = config.getMessage("test");
+
+        assertSame(message, config.getMessage("test"));
+        assertEquals("<red>It's done", MiniMessage.miniMessage().serialize(message));
+    }
+
+    @Test
+    void testMessageWithArgumentsIsParsedOncePerReplacement() {
+        final MessageConfig config = new MessageConfig();
+        config.messages().put("test", new MessageFormat("<green>{0} joined"));
+
+        final Component message = config.getMessage("test", "Dominik48N");
+
+        assertSame(message, config.getMessage("test", "Dominik48N"));
+        assertEquals("<green>Dominik48N joined", MiniMessage.miniMessage().serialize(message));
+    }
+
+    @Test
+    void testTemplateFormatsLikeMessageFormat() {
+        final Object[] replacements = {"Dominik48N", 1000};
+        for (final String pattern : List.of("<click:run_command:/party accept {0}>{0}</click>", "It''s {1} of '{0}' {2}", "{1,number,#} members")) {
+            assertEquals(new MessageFormat(pattern).format(replacements), MessageTemplate.compile(new MessageFormat(pattern)).format(replacements));
+        }
+    }
 }
@@ -16,10 +16,15 @@
 
 package com.github.dominik48n.party.config;
 
+import com.github.dominik48n.party.codec.PartyCodecType;
+import com.github.dominik48n.party.redis.KeyLayout;
+import com.github.dominik48n.party.storage.PartyStorageType;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.Test;
 import redis.clients.jedis.HostAndPort;
 
@@ -39,6 +44,79 @@ public class RedisConfigTest {
         assertEquals(hosts, config.hosts());
         assertEquals(user, config.username());
         assertEquals(password, config.password());
+        assertEquals(PartyStorageType.JSON, config.partyStorage());
+        assertEquals(PartyCodecType.JSON, config.codec());
+        assertEquals(KeyLayout.AUTO, config.keyLayout());
+        assertEquals(PartyCacheConfig.DEFAULT, config.partyCache());
+        assertEquals(ClientSideCacheConfig.DEFAULT, config.clientSideCache());
+        assertEquals(RedisPoolConfig.DEFAULT, config.pool());
+        assertFalse(config.replicas().enabled());
+        assertFalse(config.playerLeases().enabled());
+    }
+
+    @Test
+    void testPartyStorageFromDocument() throws IOException {
+        final Document document = new Document()
+                .append("hosts", Collections.singletonList("redis.example.com:6379"))
+                .append("party_storage", "hash");
+
+        assertEquals(PartyStorageType.HASH, RedisConfig.fromDocument(document).partyStorage());
+        assertEquals(PartyStorageType.JSON, RedisConfig.fromDocument(document.append("party_storage", "unknown")).partyStorage());
+    }
+
+    @Test
+    void testCodecFromDocument() throws IOException {
+        final Document document = new Document()
+                .append("hosts", Collections.singletonList("redis.example.com:6379"))
+                .append("codec", "binary");
+
+        assertEquals(PartyCodecType.BINARY, RedisConfig.fromDocument(document).codec());
+    }
+
+    @Test
+    void testKeyLayoutFromDocument() throws IOException {
+        final Document document = new Document()
+                .append("hosts", Collections.singletonList("redis.example.com:6379"))
+                .append("key_layout", "cluster");
+
+        assertEquals(KeyLayout.CLUSTER, RedisConfig.fromDocument(document).keyLayout());
+    }
+
+    @Test
+    void testPartyCacheFromDocument() throws IOException {
+        final Document document = new Document()
+                .append("hosts", Collections.singletonList("redis.example.com:6379"))
+                .append("party_cache", new Document().append("enabled", true).append("max_staleness_millis", 250L));
+
+        final PartyCacheConfig partyCache = RedisConfig.fromDocument(document).partyCache();
+        assertTrue(partyCache.enabled());
+        assertEquals(PartyCacheConfig.DEFAULT.maximumSize(), partyCache.maximumSize());
+        assertEquals(250L, partyCache.maxStalenessMillis());
+    }
+
+    @Test
+    void testPoolFromDocument() throws IOException {
+        final Document document = new Document()
+                .append("hosts", Collections.singletonList("redis.example.com:6379"))
+                .append("pool", new Document().append("max_total", 64).append("max_wait_millis", 500L));
+
+        final RedisPoolConfig pool = RedisConfig.fromDocument(document).pool();
+        assertEquals(64, pool.maxTotal());
+        assertEquals(500L, pool.maxWaitMillis());
+        assertEquals(RedisPoolConfig.DEFAULT.minIdle(), pool.minIdle());
+        assertEquals(RedisPoolConfig.DEFAULT.maxAttempts(), pool.maxAttempts());
+    }
+
+    @Test
+    void testReplicasFromDocument() throws IOException {
+        final Document document = new Document()
+                .append("hosts", Collections.singletonList("redis.example.com:6379"))
+                .append("replicas", new Document().append("hosts", List.of("replica-1.example.com", "replica-2.example.com:6380")));
+
+        final ReplicaConfig replicas = RedisConfig.fromDocument(document).replicas();
+        assertTrue(replicas.enabled());
+        assertEquals(List.of(new HostAndPort("replica-1.example.com", 6379), new HostAndPort("replica-2.example.com", 6380)), replicas.hosts());
+        assertEquals(ReplicaConfig.DEFAULT.maxStalenessMillis(), replicas.maxStalenessMillis());
     }
 
     @Test
@@ -46,11 +124,20 @@ public class RedisConfigTest {
         final List<HostAndPort> hosts = Collections.singletonList(new HostAndPort("redis.example.com", 5555));
         final String user = "admin", password = "topsecret";
 
-        final RedisConfig config = new RedisConfig(hosts, user, password);
+        final RedisConfig config = new RedisConfig(hosts, user, password, PartyStorageType.HASH, PartyCodecType.BINARY, KeyLayout.CLUSTER, new PartyCacheConfig(true, 200, 1500L), new ClientSideCacheConfig(true, 1024L, 30_000L), new RedisPoolConfig(32, 16, 4, 1000L, 500, 1500, 3), new ReplicaConfig(List.of(new HostAndPort("replica.example.com", 6380)), 500L), new PlayerLeaseConfig(false, 20_000L, 5_000L), new PubSubConfig(true, 2, 250L, 10_000L));
         final Document document = config.toDocument();
 
         assertEquals(RedisConfig.hostsToStringList(hosts), document.getStringList("hosts"));
         assertEquals(user, document.getString("username", "incorrect username"));
         assertEquals(password, document.getString("password", "incorrect password"));
+        assertEquals(PartyStorageType.HASH.name(), document.getString("party_storage", "incorrect party storage"));
+        assertEquals(PartyCodecType.BINARY.name(), document.getString("codec", "incorrect codec"));
+        assertEquals(KeyLayout.CLUSTER.name(), document.getString("key_layout", "incorrect key layout"));
+        assertEquals(new PartyCacheConfig(true, 200, 1500L), PartyCacheConfig.fromDocument(document.getDocument("party_cache")));
+        assertEquals(new ClientSideCacheConfig(true, 1024L, 30_000L), ClientSideCacheConfig.fromDocument(document.getDocument("client_side_cache")));
+        assertEquals(new RedisPoolConfig(32, 16, 4, 1000L, 500, 1500, 3), RedisPoolConfig.fromDocument(document.getDocument("pool")));
+        assertEquals(new ReplicaConfig(List.of(new HostAndPort("replica.example.com", 6380)), 500L), ReplicaConfig.fromDocument(document.getDocument("replicas")));
+        assertEquals(new PlayerLeaseConfig(false, 20_000L, 5_000L), PlayerLeaseConfig.fromDocument(document.getDocument("player_leases")));
+        assertEquals(new PubSubConfig(true, 2, 250L, 10_000L), PubSubConfig.fromDocument(document.getDocument("pub_sub")));
     }
 }
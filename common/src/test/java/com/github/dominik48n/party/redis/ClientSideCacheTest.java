@@ -0,0 +1,148 @@
+/*
+ * Copyright 2023 Dominik48N
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.dominik48n.party.redis;
+
+import com.github.dominik48n.party.config.ClientSideCacheConfig;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import redis.clients.jedis.util.SafeEncoder;
+
+public class ClientSideCacheTest {
+
+    private final String key = "party_player:" + 1;
+    private final byte[] value = SafeEncoder.encode("value");
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private ClientSideCache cache;
+
+    @BeforeEach
+    void setup() {
+        this.cache = new ClientSideCache(new ClientSideCacheConfig(true, 1024L, 60_000L), List.of("party:", "party_player:"));
+        // Stands in for Redis confirming the subscription to the invalidation channel
+        this.cache.invalidations().onSubscribe(ClientSideCache.INVALIDATE_CHANNEL, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.cache.close();
+    }
+
+    @Test
+    void testGetIsCached() {
+        assertArrayEquals(this.value, this.cache.get(this.key, this::load));
+        assertArrayEquals(this.value, this.cache.get(this.key, this::load));
+
+        assertEquals(1, this.loads.get());
+        assertEquals(1, this.cache.stats().hitCount());
+    }
+
+    @Test
+    void testInvalidation() {
+        this.cache.get(this.key, this::load);
+
+        this.cache.invalidations().onMessage(ClientSideCache.INVALIDATE_CHANNEL, this.key);
+        this.cache.get(this.key, this::load);
+
+        assertEquals(2, this.loads.get());
+    }
+
+    @Test
+    void testFlushInvalidatesEverything() {
+        this.cache.get(this.key, this::load);
+
+        this.cache.invalidations().onMessage(ClientSideCache.INVALIDATE_CHANNEL, null);
+        this.cache.get(this.key, this::load);
+
+        assertEquals(2, this.loads.get());
+    }
+
+    @Test
+    void testInvalidationDuringLoad() {
+        // The value read by this load is outdated, because the key was changed while it was loaded.
+        this.cache.get(this.key, () -> {
+            this.cache.invalidations().onMessage(ClientSideCache.INVALIDATE_CHANNEL, this.key);
+            return this.load();
+        });
+        this.cache.get(this.key, this::load);
+
+        assertEquals(2, this.loads.get());
+    }
+
+    @Test
+    void testFailedLoadIsNotKept() {
+        assertThrows(IllegalStateException.class, () -> this.cache.get(this.key, () -> {
+            throw new IllegalStateException("Redis is unreachable");
+        }));
+
+        this.cache.get(this.key, this::load);
+        this.cache.get(this.key, this::load);
+
+        assertEquals(1, this.loads.get());
+    }
+
+    @Test
+    void testLostConnectionStopsCaching() {
+        this.cache.get(this.key, this::load);
+
+        // The subscription of this cache has no connection, like a connection that was closed by the server
+        this.cache.checkConnection();
+        this.cache.get(this.key, this::load);
+        this.cache.get(this.key, this::load);
+
+        assertFalse(this.cache.tracking());
+        assertEquals(3, this.loads.get());
+    }
+
+    @Test
+    void testUntrackedKeyIsNotCached() {
+        this.cache.get("party_player_name:dominik48n", this::load);
+        this.cache.get("party_player_name:dominik48n", this::load);
+
+        assertEquals(2, this.loads.get());
+    }
+
+    @Test
+    void testNotCachedWithoutSubscription() {
+        final ClientSideCache disconnected = new ClientSideCache(new ClientSideCacheConfig(true, 1024L, 60_000L), List.of("party_player:"));
+
+        disconnected.get(this.key, this::load);
+        disconnected.get(this.key, this::load);
+
+        assertEquals(2, this.loads.get());
+        disconnected.close();
+    }
+
+    @Test
+    void testMemoryCap() {
+        final ClientSideCache small = new ClientSideCache(new ClientSideCacheConfig(true, 64L, 60_000L), List.of("party_player:"));
+        small.invalidations().onSubscribe(ClientSideCache.INVALIDATE_CHANNEL, 1);
+
+        for (int i = 0; i < 100; i++) small.get("party_player:" + i, this::load);
+
+        assertTrue(small.stats().evictionCount() > 0);
+        small.close();
+    }
+
+    private byte[] load() {
+        this.loads.incrementAndGet();
+        return this.value;
+    }
+}
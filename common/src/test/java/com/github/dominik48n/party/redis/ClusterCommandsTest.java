@@ -0,0 +1,116 @@
+/*
+ * Copyright 2023 Dominik48N
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.dominik48n.party.redis;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import static org.mockito.Mockito.*;
+import redis.clients.jedis.JedisCluster;
+import redis.clients.jedis.UnifiedJedis;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.util.SafeEncoder;
+
+public class ClusterCommandsTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    private final byte[] first = SafeEncoder.encode("first");
+    private final byte[] second = SafeEncoder.encode("second");
+    private final byte[] third = SafeEncoder.encode("third");
+
+    @AfterEach
+    void tearDown() {
+        this.executor.shutdown();
+    }
+
+    @Test
+    void testMgetStandalone() {
+        final UnifiedJedis jedis = mock(UnifiedJedis.class);
+        when(jedis.mget(SafeEncoder.encode("{a}1"), SafeEncoder.encode("{b}1"))).thenReturn(Arrays.asList(this.first, null));
+
+        assertEquals(Arrays.asList(this.first, null), ClusterCommands.mget(jedis, List.of("{a}1", "{b}1"), Runnable::run));
+        verify(jedis, times(1)).mget(any(byte[][].class));
+    }
+
+    @Test
+    void testMgetChunksLargeLookups() {
+        final UnifiedJedis jedis = mock(UnifiedJedis.class);
+        when(jedis.mget(any(byte[][].class))).thenAnswer(invocation -> Arrays.asList(new byte[invocation.getArguments().length][]));
+        final List<String> keys = IntStream.range(0, ClusterCommands.MGET_BATCH_SIZE * 2 + 1).mapToObj(i -> "party_player:" + i).toList();
+
+        assertEquals(keys.size(), ClusterCommands.mget(jedis, keys, Runnable::run).size());
+        verify(jedis, times(3)).mget(any(byte[][].class));
+    }
+
+    @Test
+    void testMgetCluster() {
+        final JedisCluster jedis = mock(JedisCluster.class);
+        when(jedis.mget(SafeEncoder.encode("{a}1"), SafeEncoder.encode("{a}2"))).thenReturn(List.of(this.first, this.third));
+        when(jedis.mget(SafeEncoder.encode("{b}1"))).thenReturn(List.of(this.second));
+
+        // One MGET per slot, but the values keep the order of the keys
+        assertEquals(
+                List.of(this.first, this.second, this.third),
+                ClusterCommands.mget(jedis, List.of("{a}1", "{b}1", "{a}2"), this.executor)
+        );
+    }
+
+    @Test
+    void testMgetPropagatesErrors() {
+        final JedisCluster jedis = mock(JedisCluster.class);
+        when(jedis.mget(SafeEncoder.encode("{a}1"))).thenReturn(List.of(this.first));
+        when(jedis.mget(SafeEncoder.encode("{b}1"))).thenThrow(new JedisConnectionException("Connection refused"));
+
+        assertThrows(JedisConnectionException.class, () -> ClusterCommands.mget(jedis, List.of("{a}1", "{b}1"), this.executor));
+    }
+
+    @Test
+    void testDelCluster() {
+        final JedisCluster jedis = mock(JedisCluster.class);
+
+        ClusterCommands.del(jedis, List.of("{a}1", "{b}1", "{a}2"));
+
+        verify(jedis).del("{a}1", "{a}2");
+        verify(jedis).del("{b}1");
+    }
+
+    @Test
+    void testDelIfEqualsCluster() {
+        final JedisCluster jedis = mock(JedisCluster.class);
+
+        ClusterCommands.delIfEquals(jedis, List.of("{a}1", "{b}1", "{a}2"), List.of("first", "second", "third"));
+
+        // Every key is compared with its own value, in one script per slot
+        verify(jedis).evalsha(anyString(), eq(List.of("{a}1", "{a}2")), eq(List.of("first", "third")));
+        verify(jedis).evalsha(anyString(), eq(List.of("{b}1")), eq(List.of("second")));
+    }
+
+    @Test
+    void testDelNothing() {
+        final UnifiedJedis jedis = mock(UnifiedJedis.class);
+
+        ClusterCommands.del(jedis, List.of());
+
+        verifyNoInteractions(jedis);
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2023 Dominik48N
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.dominik48n.party.redis;
+
+import com.google.common.collect.Lists;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+public class HandlerExecutorTest {
+
+    @Test
+    void testHandlersOfAPlayerRunInOrder() throws InterruptedException {
+        final UUID player = UUID.randomUUID();
+        final List<Integer> handled = Collections.synchronizedList(Lists.newArrayList());
+        final CountDownLatch done = new CountDownLatch(1);
+
+        try (final HandlerExecutor executor = new HandlerExecutor(4)) {
+            for (int i = 0; i < 1000; i++) {
+                final int message = i;
+                executor.execute(player, () -> handled.add(message));
+                // Other players are handled in parallel and must not disturb the order
+                executor.execute(UUID.randomUUID(), () -> {
+                });
+            }
+            executor.execute(player, done::countDown);
+
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            assertEquals(IntStream.range(0, 1000).boxed().toList(), handled);
+            assertEquals(4, executor.stats().threads());
+        }
+    }
+
+    @Test
+    void testInlineHandlersRunOnCallingThread() {
+        final Thread caller = Thread.currentThread();
+        final HandlerExecutor executor = new HandlerExecutor(0);
+
+        executor.execute(UUID.randomUUID(), () -> assertSame(caller, Thread.currentThread()));
+
+        final RedisHandlerStats stats = executor.stats();
+        assertEquals(0, stats.threads());
+        assertEquals(0, stats.queued());
+        assertEquals(1L, stats.handled());
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2023 Dominik48N
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.dominik48n.party.redis;
+
+import java.util.List;
+import java.util.UUID;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+public class RedisKeysTest {
+
+    private final UUID partyId = UUID.randomUUID();
+
+    @Test
+    void testStandardPartyKeys() {
+        assertEquals("party:" + this.partyId, RedisKeys.STANDARD.party(this.partyId));
+        assertEquals("party:" + this.partyId + ":members", RedisKeys.STANDARD.partyMembers(this.partyId));
+    }
+
+    @Test
+    void testClusterPartyKeys() {
+        // Only the part in braces is hashed, so both keys are stored in the same slot.
+        assertEquals("party:{" + this.partyId + "}", RedisKeys.CLUSTER.party(this.partyId));
+        assertEquals("party:{" + this.partyId + "}:members", RedisKeys.CLUSTER.partyMembers(this.partyId));
+    }
+
+    @Test
+    void testPartyId() {
+        assertEquals(this.partyId, RedisKeys.STANDARD.partyId(RedisKeys.STANDARD.party(this.partyId)));
+        assertEquals(this.partyId, RedisKeys.CLUSTER.partyId(RedisKeys.CLUSTER.party(this.partyId)));
+        assertNull(RedisKeys.STANDARD.partyId(RedisKeys.STANDARD.partyMembers(this.partyId)));
+        assertNull(RedisKeys.CLUSTER.partyId(RedisKeys.STANDARD.party(this.partyId)));
+        assertNull(RedisKeys.STANDARD.partyId("party:unrelated"));
+    }
+
+    @Test
+    void testPlayerKeys() {
+        final UUID uniqueId = UUID.randomUUID();
+        assertEquals("party_player:" + uniqueId, RedisKeys.CLUSTER.player(uniqueId));
+        assertEquals("party_player_name:dominik48n", RedisKeys.CLUSTER.playerName("Dominik48N"));
+        assertEquals("request:Dominik48N", RedisKeys.CLUSTER.requests("Dominik48N"));
+        assertEquals("party_player_proxy:" + uniqueId, RedisKeys.CLUSTER.playerProxy(uniqueId));
+        assertEquals("party_proxy:proxy-1:players", RedisKeys.CLUSTER.proxyPlayers("proxy-1"));
+        assertEquals(
+                List.of("party_player:" + uniqueId, "request:Dominik48N", "party_player_proxy:" + uniqueId),
+                RedisKeys.STANDARD.session(uniqueId, "Dominik48N")
+        );
+    }
+
+    @Test
+    void testOf() {
+        assertSame(RedisKeys.CLUSTER, RedisKeys.of(KeyLayout.AUTO, true));
+        assertSame(RedisKeys.STANDARD, RedisKeys.of(KeyLayout.AUTO, false));
+        assertSame(RedisKeys.CLUSTER, RedisKeys.of(KeyLayout.CLUSTER, false));
+    }
+}
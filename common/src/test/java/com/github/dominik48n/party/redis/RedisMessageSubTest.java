@@ -0,0 +1,79 @@
+/*
+ * Copyright 2023 Dominik48N
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.dominik48n.party.redis;
+
+import com.github.dominik48n.party.config.Document;
+import com.github.dominik48n.party.user.UserManager;
+import com.github.dominik48n.party.user.UserMock;
+import java.util.List;
+import java.util.UUID;
+import net.kyori.adventure.text.Component;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.Mockito.*;
+
+public class RedisMessageSubTest {
+
+    private UserManager<UserMock> userManager;
+    private RedisMessageSub<UserMock> subscription;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setup() {
+        this.userManager = mock(UserManager.class);
+        this.subscription = new RedisMessageSub<>(this.userManager);
+    }
+
+    @Test
+    void testMessageIsSentToAllRecipients() {
+        final UUID leader = UUID.randomUUID();
+        final UUID member = UUID.randomUUID();
+
+        this.subscription.onMessage(new Document()
+                .append("unique_ids", List.of(leader.toString(), "invalid", member.toString()))
+                .append("message", "Hello")
+                .toString());
+
+        verify(this.userManager).sendMessageToLocalUser(eq(leader), any(Component.class));
+        verify(this.userManager).sendMessageToLocalUser(eq(member), any(Component.class));
+        verifyNoMoreInteractions(this.userManager);
+    }
+
+    @Test
+    void testKeyedMessageIsRenderedLocally() {
+        final UUID uniqueId = UUID.randomUUID();
+        final Component component = Component.text("Dominik48N: Hello");
+        when(this.userManager.message("party.chat", "Dominik48N", "Hello")).thenReturn(component);
+
+        this.subscription.onMessage(new Document()
+                .append("unique_ids", List.of(uniqueId.toString()))
+                .append("message_key", "party.chat")
+                .append("replacements", List.of("Dominik48N", "Hello"))
+                .toString());
+
+        verify(this.userManager).sendMessageToLocalUser(uniqueId, component);
+    }
+
+    @Test
+    void testSingleRecipientMessage() {
+        final UUID uniqueId = UUID.randomUUID();
+
+        this.subscription.onMessage(new Document().append("unique_id", uniqueId.toString()).append("message", "Hello").toString());
+
+        verify(this.userManager).sendMessageToLocalUser(eq(uniqueId), any(Component.class));
+    }
+}
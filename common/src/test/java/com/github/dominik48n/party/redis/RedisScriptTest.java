@@ -0,0 +1,88 @@
+/*
+ * Copyright 2023 Dominik48N
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.dominik48n.party.redis;
+
+import java.io.UncheckedIOException;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import static org.mockito.Mockito.*;
+import redis.clients.jedis.UnifiedJedis;
+import redis.clients.jedis.exceptions.JedisNoScriptException;
+import redis.clients.jedis.util.SafeEncoder;
+
+public class RedisScriptTest {
+
+    private final List<String> keys = List.of("party:1");
+    private final List<String> args = List.of("argument");
+
+    @Test
+    void testSha() {
+        // SHA-1 of "return 1", as returned by SCRIPT LOAD
+        assertEquals("e0e1f9fabfc9d4800c877a703b823ac0578ff8db", new RedisScript("return 1").sha());
+    }
+
+    @Test
+    void testEvalBySha() {
+        final UnifiedJedis jedis = mock(UnifiedJedis.class);
+        final RedisScript script = new RedisScript("return 1");
+        when(jedis.evalsha(script.sha(), this.keys, this.args)).thenReturn(1L);
+
+        assertEquals(1L, script.eval(jedis, this.keys, this.args));
+        verify(jedis, never()).scriptLoad(anyString(), anyString());
+    }
+
+    @Test
+    void testEvalLoadsUnknownScript() {
+        final UnifiedJedis jedis = mock(UnifiedJedis.class);
+        final RedisScript script = new RedisScript("return 1");
+        when(jedis.evalsha(script.sha(), this.keys, this.args))
+                .thenThrow(new JedisNoScriptException("NOSCRIPT No matching script."))
+                .thenReturn(1L);
+
+        assertEquals(1L, script.eval(jedis, this.keys, this.args));
+        verify(jedis).scriptLoad(script.source(), "party:1");
+        verify(jedis, times(2)).evalsha(script.sha(), this.keys, this.args);
+    }
+
+    @Test
+    void testEvalBinaryLoadsUnknownScript() {
+        final UnifiedJedis jedis = mock(UnifiedJedis.class);
+        final RedisScript script = new RedisScript("return 1");
+        final byte[] sha = SafeEncoder.encode(script.sha());
+        final List<byte[]> keys = List.of(SafeEncoder.encode("party:1"));
+        final List<byte[]> args = List.of(new byte[]{1, 2, 3});
+        when(jedis.evalsha(sha, keys, args))
+                .thenThrow(new JedisNoScriptException("NOSCRIPT No matching script."))
+                .thenReturn(1L);
+
+        assertEquals(1L, script.evalBinary(jedis, keys, args));
+        verify(jedis).scriptLoad(SafeEncoder.encode(script.source()), keys.get(0));
+    }
+
+    @Test
+    void testFromResources() {
+        final RedisScript script = RedisScript.fromResources("codec", "party", "update_party_id");
+        assertTrue(script.source().contains("local function set_player_party"));
+        assertTrue(script.source().contains("return set_player_party(KEYS[1], ARGV[1])"));
+    }
+
+    @Test
+    void testFromMissingResource() {
+        assertThrows(UncheckedIOException.class, () -> RedisScript.fromResources("unknown"));
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2023 Dominik48N
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.dominik48n.party.redis;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import static org.mockito.Mockito.*;
+import redis.clients.jedis.JedisPubSub;
+import redis.clients.jedis.UnifiedJedis;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+
+public class RedisSubscriberTest {
+
+    private static final String[] CHANNELS = {"party:message"};
+
+    private final UnifiedJedis jedis = mock(UnifiedJedis.class);
+    private final JedisPubSub pubSub = mock(JedisPubSub.class);
+    private final AtomicReference<RedisSubscriber> subscriber = new AtomicReference<>();
+
+    @Test
+    void testResubscribesAndResyncsAfterConnectionLoss() throws InterruptedException {
+        final AtomicInteger resyncs = new AtomicInteger();
+        final AtomicInteger attempts = new AtomicInteger();
+        final CountDownLatch resubscribed = new CountDownLatch(1);
+        final CountDownLatch closed = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            this.subscriber.get().subscribed(CHANNELS.length);
+            if (attempts.incrementAndGet() == 1) throw new JedisConnectionException("Unexpected end of stream.");
+
+            resubscribed.countDown();
+            closed.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(this.jedis).subscribe(any(JedisPubSub.class), any(String[].class));
+
+        try (final RedisSubscriber subscriber = this.start(resyncs::incrementAndGet)) {
+            assertTrue(resubscribed.await(5, TimeUnit.SECONDS));
+
+            final RedisSubscriberHealth health = subscriber.health();
+            assertTrue(health.healthy());
+            assertEquals(1L, health.reconnects());
+            assertEquals(0L, health.disconnectedSinceMillis());
+            assertTrue(health.lastFailure().contains("Unexpected end of stream."));
+            // Only the subscription after the lost one has to resync, the first one had nothing cached yet.
+            assertEquals(1, resyncs.get());
+        } finally {
+            closed.countDown();
+        }
+        assertEquals(RedisSubscriberHealth.State.CLOSED, this.subscriber.get().health().state());
+    }
+
+    @Test
+    void testRetriesWhileRedisIsDown() throws InterruptedException {
+        final AtomicInteger resyncs = new AtomicInteger();
+        final CountDownLatch retried = new CountDownLatch(3);
+        doAnswer(invocation -> {
+            retried.countDown();
+            throw new JedisConnectionException("Connection refused");
+        }).when(this.jedis).subscribe(any(JedisPubSub.class), any(String[].class));
+
+        try (final RedisSubscriber subscriber = this.start(resyncs::incrementAndGet)) {
+            assertTrue(retried.await(5, TimeUnit.SECONDS));
+
+            final RedisSubscriberHealth health = subscriber.health();
+            assertEquals(RedisSubscriberHealth.State.RECONNECTING, health.state());
+            assertFalse(health.healthy());
+            assertTrue(health.disconnectedSinceMillis() > 0L);
+            assertEquals(0, resyncs.get());
+        }
+    }
+
+    private RedisSubscriber start(final Runnable resync) {
+        final RedisSubscriber subscriber = new RedisSubscriber(this.jedis, this.pubSub, CHANNELS, 1L, 4L, resync);
+        this.subscriber.set(subscriber);
+        subscriber.start();
+        return subscriber;
+    }
+}
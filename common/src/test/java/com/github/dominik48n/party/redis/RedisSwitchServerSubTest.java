@@ -0,0 +1,67 @@
+/*
+ * Copyright 2023 Dominik48N
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.dominik48n.party.redis;
+
+import com.github.dominik48n.party.config.Document;
+import com.github.dominik48n.party.user.UserManager;
+import com.github.dominik48n.party.user.UserMock;
+import java.util.List;
+import java.util.UUID;
+import net.kyori.adventure.text.Component;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.Mockito.*;
+
+public class RedisSwitchServerSubTest {
+
+    private UserManager<UserMock> userManager;
+    private RedisSwitchServerSub<UserMock> subscription;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setup() {
+        this.userManager = mock(UserManager.class);
+        this.subscription = new RedisSwitchServerSub<>(this.userManager);
+    }
+
+    @Test
+    void testWarpConnectsAndNotifiesAllRecipients() {
+        final UUID leader = UUID.randomUUID();
+        final UUID member = UUID.randomUUID();
+
+        this.subscription.onMessage(new Document()
+                .append("unique_ids", List.of(leader.toString(), member.toString()))
+                .append("server", "lobby")
+                .append("message", "Warping")
+                .toString());
+
+        verify(this.userManager).connectToServer(leader, "lobby");
+        verify(this.userManager).connectToServer(member, "lobby");
+        verify(this.userManager).sendMessageToLocalUser(eq(leader), any(Component.class));
+        verify(this.userManager).sendMessageToLocalUser(eq(member), any(Component.class));
+    }
+
+    @Test
+    void testSingleRecipientSwitch() {
+        final UUID uniqueId = UUID.randomUUID();
+
+        this.subscription.onMessage(new Document().append("unique_id", uniqueId.toString()).append("server", "lobby").toString());
+
+        verify(this.userManager).connectToServer(uniqueId, "lobby");
+        verifyNoMoreInteractions(this.userManager);
+    }
+}
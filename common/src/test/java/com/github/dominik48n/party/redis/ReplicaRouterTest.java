@@ -0,0 +1,84 @@
+/*
+ * Copyright 2023 Dominik48N
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.dominik48n.party.redis;
+
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.Mockito.*;
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.UnifiedJedis;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.params.SetParams;
+
+public class ReplicaRouterTest {
+
+    // Every proxy measures the lag with its own heartbeat, so the clocks of the proxies don't have to agree.
+    private static final String HEARTBEAT_KEY = ReplicaRouter.HEARTBEAT_KEY + ":proxy";
+
+    private UnifiedJedis primary;
+    private UnifiedJedis replicaJedis;
+    private ReplicaRouter.Replica replica;
+    private ReplicaRouter router;
+
+    @BeforeEach
+    void setup() {
+        this.primary = mock(UnifiedJedis.class);
+        this.replicaJedis = mock(UnifiedJedis.class);
+        this.replica = new ReplicaRouter.Replica(new HostAndPort("replica.example.com", 6379), this.replicaJedis);
+        this.router = new ReplicaRouter(this.primary, List.of(this.replica), 1000L, "proxy");
+
+        when(this.primary.get("key")).thenReturn("primary");
+        when(this.replicaJedis.get("key")).thenReturn("replica");
+    }
+
+    @Test
+    void testReadsFromPrimaryUntilReplicaIsChecked() {
+        assertEquals("primary", this.router.read(jedis -> jedis.get("key")));
+        verify(this.replicaJedis, never()).get("key");
+    }
+
+    @Test
+    void testReadsFromFreshReplica() {
+        when(this.replicaJedis.get(HEARTBEAT_KEY)).thenReturn(String.valueOf(System.currentTimeMillis()));
+        this.router.checkReplicas();
+
+        assertTrue(this.replica.usable());
+        assertEquals("replica", this.router.read(jedis -> jedis.get("key")));
+        verify(this.primary).set(eq(HEARTBEAT_KEY), anyString(), any(SetParams.class));
+    }
+
+    @Test
+    void testSkipsStaleReplica() {
+        when(this.replicaJedis.get(HEARTBEAT_KEY)).thenReturn(String.valueOf(System.currentTimeMillis() - 5000L));
+        this.router.checkReplicas();
+
+        assertFalse(this.replica.usable());
+        assertEquals("primary", this.router.read(jedis -> jedis.get("key")));
+    }
+
+    @Test
+    void testFallsBackToPrimaryIfReplicaIsUnreachable() {
+        when(this.replicaJedis.get(HEARTBEAT_KEY)).thenReturn(String.valueOf(System.currentTimeMillis()));
+        this.router.checkReplicas();
+        when(this.replicaJedis.get("key")).thenThrow(new JedisConnectionException("Connection refused"));
+
+        assertEquals("primary", this.router.read(jedis -> jedis.get("key")));
+        assertFalse(this.replica.usable());
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2023 Dominik48N
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.dominik48n.party.storage;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.github.dominik48n.party.api.Party;
+import com.github.dominik48n.party.config.PartyCacheConfig;
+import com.github.dominik48n.party.redis.RedisInvalidatePartySub;
+import com.github.dominik48n.party.redis.RedisManager;
+import com.github.dominik48n.party.redis.RedisSubscription;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import static org.mockito.Mockito.*;
+import org.mockito.MockitoAnnotations;
+
+public class CachedPartyStoreTest {
+
+    private final UUID partyId = UUID.randomUUID();
+    private final Party party = new Party(this.partyId, UUID.randomUUID(), List.of(UUID.randomUUID()), 5);
+
+    @Mock
+    private RedisManager redisManager;
+
+    @Mock
+    private PartyStore delegate;
+
+    private CachedPartyStore partyStore;
+
+    private AutoCloseable mocks;
+
+    @BeforeEach
+    void setup() throws JsonProcessingException {
+        this.mocks = MockitoAnnotations.openMocks(this);
+        this.partyStore = new CachedPartyStore(this.delegate, this.redisManager, new PartyCacheConfig(true, 100, 60_000L));
+        when(this.delegate.get(this.partyId)).thenReturn(Optional.of(this.party));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        this.mocks.close();
+    }
+
+    @Test
+    void testGetIsCached() throws JsonProcessingException {
+        assertEquals(Optional.of(this.party), this.partyStore.get(this.partyId));
+        assertEquals(Optional.of(this.party), this.partyStore.get(this.partyId));
+
+        verify(this.delegate, times(1)).get(this.partyId);
+        assertEquals(1, this.partyStore.stats().hitCount());
+    }
+
+    @Test
+    void testGetReturnsCopy() throws JsonProcessingException {
+        this.partyStore.get(this.partyId).orElseThrow().members().clear();
+
+        assertEquals(this.party.members(), this.partyStore.get(this.partyId).orElseThrow().members());
+    }
+
+    @Test
+    void testMissingPartyIsNotCached() throws JsonProcessingException {
+        final UUID missing = UUID.randomUUID();
+        when(this.delegate.get(missing)).thenReturn(Optional.empty());
+
+        assertFalse(this.partyStore.get(missing).isPresent());
+        assertFalse(this.partyStore.get(missing).isPresent());
+        verify(this.delegate, times(2)).get(missing);
+    }
+
+    @Test
+    void testReplicaReadIsNotCached() throws JsonProcessingException {
+        when(this.delegate.getFromReplica(this.partyId)).thenReturn(Optional.of(this.party));
+
+        assertEquals(Optional.of(this.party), this.partyStore.getFromReplica(this.partyId));
+        this.partyStore.get(this.partyId);
+        assertEquals(Optional.of(this.party), this.partyStore.getFromReplica(this.partyId));
+
+        // Only the read from the primary fills the cache, which then serves the replica read as well
+        verify(this.delegate, times(1)).getFromReplica(this.partyId);
+        verify(this.delegate, times(1)).get(this.partyId);
+    }
+
+    @Test
+    void testChangeInvalidates() throws JsonProcessingException {
+        this.partyStore.get(this.partyId);
+
+        this.partyStore.addMember(this.partyId, UUID.randomUUID());
+        this.partyStore.get(this.partyId);
+
+        verify(this.delegate, times(2)).get(this.partyId);
+        verify(this.redisManager).publish(RedisInvalidatePartySub.CHANNEL, this.partyId.toString());
+    }
+
+    @Test
+    void testRemoteInvalidation() throws JsonProcessingException {
+        final ArgumentCaptor<RedisSubscription> subscription = ArgumentCaptor.forClass(RedisSubscription.class);
+        verify(this.redisManager).registerSubscription(subscription.capture());
+        this.partyStore.get(this.partyId);
+
+        subscription.getValue().onMessage(this.partyId.toString());
+        this.partyStore.get(this.partyId);
+
+        verify(this.delegate, times(2)).get(this.partyId);
+    }
+}
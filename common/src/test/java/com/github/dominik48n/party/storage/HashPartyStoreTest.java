@@ -0,0 +1,253 @@
+/*
+ * Copyright 2023 Dominik48N
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.dominik48n.party.storage;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.github.dominik48n.party.api.Party;
+import com.github.dominik48n.party.api.player.PartyPlayer;
+import com.github.dominik48n.party.codec.PartyCodecType;
+import com.github.dominik48n.party.redis.RedisKeys;
+import com.github.dominik48n.party.redis.RedisManager;
+import com.github.dominik48n.party.redis.RedisScript;
+import com.github.dominik48n.party.user.UserDeserializer;
+import com.google.common.collect.Lists;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import static org.mockito.Mockito.*;
+import org.mockito.MockitoAnnotations;
+import redis.clients.jedis.UnifiedJedis;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.params.ScanParams;
+import redis.clients.jedis.resps.ScanResult;
+
+public class HashPartyStoreTest {
+
+    @Mock
+    private RedisManager redisManager;
+
+    @Mock
+    private UnifiedJedis jedis;
+
+    private HashPartyStore partyStore;
+
+    private AutoCloseable mocks;
+
+    @BeforeEach
+    void setup() {
+        this.mocks = MockitoAnnotations.openMocks(this);
+        when(this.redisManager.keys()).thenReturn(RedisKeys.STANDARD);
+        this.partyStore = new HashPartyStore(this.redisManager);
+        when(this.redisManager.jedis()).thenReturn(this.jedis);
+        when(this.redisManager.read(any())).thenAnswer(invocation -> invocation.<Function<UnifiedJedis, ?>>getArgument(0).apply(this.jedis));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        this.mocks.close();
+    }
+
+    @Test
+    void testGet() {
+        final UUID partyId = UUID.randomUUID();
+        final UUID leader = UUID.randomUUID();
+        final UUID member = UUID.randomUUID();
+        when(this.jedis.evalsha(
+                anyString(),
+                eq(List.of("party:" + partyId, "party:" + partyId + ":members")),
+                eq(List.of())
+        )).thenReturn(List.of(leader.toString(), "8", member.toString()));
+
+        final Optional<Party> party = this.partyStore.get(partyId);
+
+        assertTrue(party.isPresent());
+        assertEquals(partyId, party.get().id());
+        assertEquals(leader, party.get().leader());
+        assertEquals(8, party.get().maxMembers());
+        assertEquals(List.of(member), party.get().members());
+    }
+
+    @Test
+    void testGetUnconvertedPartyFromReplica() {
+        final UUID partyId = UUID.randomUUID();
+        final UUID leader = UUID.randomUUID();
+        final List<String> keys = List.of("party:" + partyId, "party:" + partyId + ":members");
+        final String readSha = RedisScript.fromResources("read_hash_party").sha();
+
+        // The replica only runs scripts that don't write, like a read-only replica of Redis
+        final UnifiedJedis replica = mock(UnifiedJedis.class);
+        when(replica.evalsha(anyString(), anyList(), anyList())).thenThrow(new JedisDataException("READONLY You can't write against a read only replica."));
+        doReturn(0L).when(replica).evalsha(eq(readSha), eq(keys), eq(List.of()));
+        when(this.redisManager.read(any())).thenAnswer(invocation -> invocation.<Function<UnifiedJedis, ?>>getArgument(0).apply(replica));
+        when(this.jedis.evalsha(argThat((String sha) -> !sha.equals(readSha)), eq(keys), eq(List.of()))).thenReturn(List.of(leader.toString(), "5"));
+
+        final Optional<Party> party = this.partyStore.getFromReplica(partyId);
+
+        assertEquals(Optional.of(new Party(partyId, leader, List.of(), 5)), party);
+        verify(replica).evalsha(eq(readSha), eq(keys), eq(List.of()));
+        verify(replica, never()).evalsha(argThat((String sha) -> !sha.equals(readSha)), anyList(), anyList());
+    }
+
+    @Test
+    void testGetMissing() {
+        assertFalse(this.partyStore.get(UUID.randomUUID()).isPresent());
+    }
+
+    @Test
+    void testCreate() {
+        final UUID partyId = UUID.randomUUID();
+        final UUID leader = UUID.randomUUID();
+
+        final UUID member = UUID.randomUUID();
+        when(this.jedis.evalsha(anyString(), anyList(), anyList())).thenReturn(1L);
+
+        assertEquals(PartyCreation.CREATED, this.partyStore.create(new Party(partyId, leader, List.of(member), 5)));
+
+        verify(this.jedis).evalsha(
+                anyString(),
+                eq(List.of("party:" + partyId, "party:" + partyId + ":members", "party_player:" + leader)),
+                eq(List.of(partyId.toString(), leader.toString(), "5", member.toString()))
+        );
+    }
+
+    @Test
+    void testAddMemberInCluster() {
+        when(this.redisManager.keys()).thenReturn(RedisKeys.CLUSTER);
+        when(this.redisManager.cluster()).thenReturn(true);
+        this.partyStore = new HashPartyStore(this.redisManager);
+        final UUID partyId = UUID.randomUUID();
+        final UUID player = UUID.randomUUID();
+
+        this.partyStore.addMember(partyId, player);
+
+        // The party and the player are stored in different slots, so they are updated by separate scripts.
+        verify(this.jedis).evalsha(
+                anyString(),
+                eq(List.of("party:{" + partyId + "}", "party:{" + partyId + "}:members")),
+                eq(List.of(partyId.toString(), player.toString()))
+        );
+        verify(this.jedis).evalsha(anyString(), eq(List.of("party_player:" + player)), eq(List.of(partyId.toString())));
+    }
+
+    @Test
+    void testCreateExisting() {
+        when(this.jedis.evalsha(anyString(), anyList(), anyList())).thenReturn(0L);
+
+        assertEquals(PartyCreation.ID_TAKEN, this.partyStore.create(new Party(UUID.randomUUID(), UUID.randomUUID(), List.of(), 5)));
+    }
+
+    @Test
+    void testCreateWithUnavailableLeader() {
+        when(this.jedis.evalsha(anyString(), anyList(), anyList())).thenReturn(-1L);
+
+        assertEquals(PartyCreation.LEADER_UNAVAILABLE, this.partyStore.create(new Party(UUID.randomUUID(), UUID.randomUUID(), List.of(), 5)));
+    }
+
+    @Test
+    void testCreateInClusterWithUnavailableLeader() {
+        when(this.redisManager.keys()).thenReturn(RedisKeys.CLUSTER);
+        when(this.redisManager.cluster()).thenReturn(true);
+        this.partyStore = new HashPartyStore(this.redisManager);
+        final UUID partyId = UUID.randomUUID();
+        final UUID leader = UUID.randomUUID();
+        when(this.jedis.evalsha(anyString(), eq(List.of("party:{" + partyId + "}", "party:{" + partyId + "}:members")), anyList())).thenReturn(1L);
+        when(this.jedis.evalsha(anyString(), eq(List.of("party_player:" + leader)), eq(List.of(partyId.toString(), "1")))).thenReturn(0L);
+
+        assertEquals(PartyCreation.LEADER_UNAVAILABLE, this.partyStore.create(new Party(partyId, leader, List.of(), 5)));
+        // The leader joined another party before it could be set, so the new party is removed again
+        verify(this.jedis).del("party:{" + partyId + "}", "party:{" + partyId + "}:members");
+    }
+
+    @Test
+    void testDelete() {
+        final UUID partyId = UUID.randomUUID();
+
+        this.partyStore.delete(partyId);
+
+        verify(this.jedis).del("party:" + partyId, "party:" + partyId + ":members");
+    }
+
+    @Test
+    void testLogoutPassesOnlineMembers() throws JsonProcessingException {
+        final UUID partyId = UUID.randomUUID();
+        final PartyPlayer leader = new UserDeserializer.DeserializedUser(UUID.randomUUID(), "Dominik48N", partyId, 5);
+        final PartyPlayer member = new UserDeserializer.DeserializedUser(UUID.randomUUID(), "randomUser", partyId, 8);
+        final List<String> partyKeys = List.of("party:" + partyId, "party:" + partyId + ":members");
+        final List<String> keys = Lists.newArrayList(partyKeys);
+        keys.addAll(RedisKeys.STANDARD.session(leader.uniqueId(), leader.name()));
+        when(this.jedis.evalsha(anyString(), eq(partyKeys), eq(List.of()))).thenReturn(List.of(leader.uniqueId().toString(), "5", member.uniqueId().toString()));
+        when(this.jedis.mget(any(byte[][].class))).thenReturn(List.of(PartyCodecType.JSON.create().encodePlayer(member)));
+        when(this.jedis.evalsha(anyString(), eq(keys), anyList())).thenReturn(List.of("leader", "randomUser", member.uniqueId().toString()));
+
+        final PartyLogout logout = this.partyStore.logout(partyId, List.of(leader));
+
+        assertEquals(new PartyLogout(PartyLogout.Outcome.LEADER, "randomUser", List.of(member.uniqueId())), logout);
+        // The script may only access its KEYS, so it gets the online member instead of reading the player key itself.
+        verify(this.jedis).evalsha(
+                anyString(),
+                eq(keys),
+                eq(List.of("1", leader.uniqueId().toString(), member.uniqueId().toString(), "8", "randomUser"))
+        );
+    }
+
+    @Test
+    void testLogoutRetriesIfMembersChanged() throws JsonProcessingException {
+        final UUID partyId = UUID.randomUUID();
+        final PartyPlayer leader = new UserDeserializer.DeserializedUser(UUID.randomUUID(), "Dominik48N", partyId, 5);
+        final UUID offline = UUID.randomUUID();
+        final List<String> partyKeys = List.of("party:" + partyId, "party:" + partyId + ":members");
+        final List<String> keys = Lists.newArrayList(partyKeys);
+        keys.addAll(RedisKeys.STANDARD.session(leader.uniqueId(), leader.name()));
+        when(this.jedis.evalsha(anyString(), eq(partyKeys), eq(List.of()))).thenReturn(List.of(leader.uniqueId().toString(), "5", offline.toString()));
+        when(this.jedis.mget(any(byte[][].class))).thenReturn(Collections.singletonList(null));
+        when(this.jedis.evalsha(anyString(), eq(keys), anyList()))
+                .thenReturn(List.of("stale", ""))
+                .thenReturn(List.of("deleted", ""));
+
+        final PartyLogout logout = this.partyStore.logout(partyId, List.of(leader));
+
+        assertEquals(new PartyLogout(PartyLogout.Outcome.DELETED, null, List.of()), logout);
+        // Offline members are passed as well, so the script can tell them apart from members that joined in between.
+        verify(this.jedis, times(2)).evalsha(
+                anyString(),
+                eq(keys),
+                eq(List.of("1", leader.uniqueId().toString(), offline.toString(), "", ""))
+        );
+    }
+
+    @Test
+    void testMigrate() {
+        final UUID jsonParty = UUID.randomUUID();
+        final UUID hashParty = UUID.randomUUID();
+        when(this.jedis.scan(eq(ScanParams.SCAN_POINTER_START), any(ScanParams.class))).thenReturn(new ScanResult<>(
+                ScanParams.SCAN_POINTER_START,
+                List.of("party:" + jsonParty, "party:" + hashParty, "party:" + hashParty + ":members", "party:unrelated")
+        ));
+        when(this.jedis.evalsha(anyString(), eq(List.of("party:" + jsonParty, "party:" + jsonParty + ":members")), eq(List.of()))).thenReturn(1L);
+        when(this.jedis.evalsha(anyString(), eq(List.of("party:" + hashParty, "party:" + hashParty + ":members")), eq(List.of()))).thenReturn(0L);
+
+        assertEquals(1, this.partyStore.migrate());
+        verify(this.jedis, times(2)).evalsha(anyString(), anyList(), anyList());
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2023 Dominik48N
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.dominik48n.party.storage;
+
+import com.github.dominik48n.party.api.Party;
+import com.github.dominik48n.party.api.player.PartyPlayer;
+import com.github.dominik48n.party.user.UserDeserializer;
+import com.google.common.collect.Lists;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class InMemoryPartyStoreTest {
+
+    private final PartyPlayer leader = new UserDeserializer.DeserializedUser(UUID.randomUUID(), "Dominik48N", null, 5);
+    private final PartyPlayer member = new UserDeserializer.DeserializedUser(UUID.randomUUID(), "randomUser", null, 8);
+
+    private InMemoryPlayerStore playerStore;
+    private InMemoryPartyStore partyStore;
+
+    @BeforeEach
+    void setup() {
+        this.playerStore = new InMemoryPlayerStore();
+        this.partyStore = new InMemoryPartyStore(this.playerStore);
+        this.playerStore.save(this.leader);
+        this.playerStore.save(this.member);
+    }
+
+    @Test
+    void testCreateAndAddMember() {
+        final Party party = this.createParty();
+        assertEquals(PartyCreation.ID_TAKEN, this.partyStore.create(party));
+
+        this.partyStore.addMember(party.id(), this.member.uniqueId());
+        this.partyStore.addMember(party.id(), this.member.uniqueId());
+
+        assertEquals(List.of(this.member.uniqueId()), this.partyStore.get(party.id()).orElseThrow().members());
+        assertEquals(Optional.of(party.id()), this.playerStore.get(this.leader.uniqueId()).orElseThrow().partyId());
+        assertEquals(Optional.of(party.id()), this.playerStore.get(this.member.uniqueId()).orElseThrow().partyId());
+    }
+
+    @Test
+    void testCreateWithUnavailableLeader() {
+        final Party party = this.createParty();
+        final Party secondParty = new Party(UUID.randomUUID(), this.leader.uniqueId(), Lists.newArrayList(), 5);
+        final Party offlineParty = new Party(UUID.randomUUID(), UUID.randomUUID(), Lists.newArrayList(), 5);
+
+        assertEquals(PartyCreation.LEADER_UNAVAILABLE, this.partyStore.create(secondParty));
+        assertEquals(PartyCreation.LEADER_UNAVAILABLE, this.partyStore.create(offlineParty));
+        assertFalse(this.partyStore.get(secondParty.id()).isPresent());
+        assertEquals(Optional.of(party.id()), this.playerStore.get(this.leader.uniqueId()).orElseThrow().partyId());
+    }
+
+    @Test
+    void testGetReturnsCopy() {
+        final Party party = this.createParty();
+        this.partyStore.get(party.id()).orElseThrow().members().add(this.member.uniqueId());
+
+        assertTrue(this.partyStore.get(party.id()).orElseThrow().members().isEmpty());
+    }
+
+    @Test
+    void testRemoveMemberAndChangeLeader() {
+        final Party party = this.createParty();
+        this.partyStore.addMember(party.id(), this.member.uniqueId());
+
+        this.partyStore.changeLeader(party.id(), this.leader.uniqueId(), this.member.uniqueId(), 8);
+        assertEquals(new Party(party.id(), this.member.uniqueId(), List.of(this.leader.uniqueId()), 8), this.partyStore.get(party.id()).orElseThrow());
+
+        this.partyStore.removeMember(party.id(), this.leader.uniqueId());
+        assertTrue(this.partyStore.get(party.id()).orElseThrow().members().isEmpty());
+        assertTrue(this.playerStore.get(this.leader.uniqueId()).orElseThrow().partyId().isEmpty());
+    }
+
+    @Test
+    void testLogoutOfLeaderTransfersLeadership() {
+        final Party party = this.createParty();
+        this.partyStore.addMember(party.id(), this.member.uniqueId());
+
+        final PartyLogout logout = this.partyStore.logout(party.id(), List.of(this.leader));
+
+        assertEquals(new PartyLogout(PartyLogout.Outcome.LEADER, "randomUser", List.of(this.member.uniqueId())), logout);
+        assertEquals(new Party(party.id(), this.member.uniqueId(), List.of(), 8), this.partyStore.get(party.id()).orElseThrow());
+        assertTrue(this.playerStore.get(this.leader.uniqueId()).isEmpty());
+        assertTrue(this.playerStore.uniqueId("dominik48n").isEmpty());
+    }
+
+    @Test
+    void testLogoutOfLastPlayerDeletesParty() {
+        final Party party = this.createParty();
+
+        assertEquals(PartyLogout.Outcome.DELETED, this.partyStore.logout(party.id(), List.of(this.leader)).outcome());
+        assertTrue(this.partyStore.get(party.id()).isEmpty());
+        assertEquals(PartyLogout.Outcome.NONE, this.partyStore.logout(party.id(), List.of(this.member)).outcome());
+    }
+
+    @Test
+    void testRequests() {
+        this.playerStore.createRequest("Dominik48N", "randomUser", 30);
+        this.playerStore.createRequest("Dominik48N", "anotherUser", 0);
+
+        assertTrue(this.playerStore.existsRequest("Dominik48N", "randomUser"));
+        assertFalse(this.playerStore.existsRequest("Dominik48N", "anotherUser"));
+        assertEquals(List.of("randomUser"), this.playerStore.requests("Dominik48N"));
+
+        this.playerStore.delete(List.of(this.leader));
+        assertTrue(this.playerStore.requests("Dominik48N").isEmpty());
+    }
+
+    private Party createParty() {
+        final Party party = new Party(UUID.randomUUID(), this.leader.uniqueId(), Lists.newArrayList(), this.leader.memberLimit());
+        assertEquals(PartyCreation.CREATED, this.partyStore.create(party));
+        return party;
+    }
+}
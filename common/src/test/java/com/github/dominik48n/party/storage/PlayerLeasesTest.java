@@ -0,0 +1,167 @@
+/*
+ * Copyright 2023 Dominik48N
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.dominik48n.party.storage;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.github.dominik48n.party.api.player.PartyPlayer;
+import com.github.dominik48n.party.codec.PartyCodecType;
+import com.github.dominik48n.party.config.PlayerLeaseConfig;
+import com.github.dominik48n.party.redis.RedisKeys;
+import com.github.dominik48n.party.redis.RedisManager;
+import com.github.dominik48n.party.user.UserDeserializer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import static org.mockito.Mockito.*;
+import org.mockito.MockitoAnnotations;
+import redis.clients.jedis.UnifiedJedis;
+import redis.clients.jedis.params.SetParams;
+import redis.clients.jedis.util.SafeEncoder;
+
+public class PlayerLeasesTest {
+
+    private static final PlayerLeaseConfig CONFIG = new PlayerLeaseConfig(true, 30_000L, 10_000L);
+
+    private final PartyPlayer player = new UserDeserializer.DeserializedUser(UUID.randomUUID(), "Dominik48N", null, 5);
+
+    @Mock
+    private RedisManager redisManager;
+
+    @Mock
+    private UnifiedJedis jedis;
+
+    @Mock
+    private Consumer<Collection<UUID>> logout;
+
+    @Mock
+    private Consumer<Collection<UUID>> restore;
+
+    private AutoCloseable mocks;
+    private PlayerLeases leases;
+    private RedisPlayerStore playerStore;
+
+    @BeforeEach
+    void setup() {
+        this.mocks = MockitoAnnotations.openMocks(this);
+        when(this.redisManager.keys()).thenReturn(RedisKeys.STANDARD);
+        when(this.redisManager.proxyId()).thenReturn("proxy-1");
+        this.leases = new PlayerLeases(this.redisManager, CONFIG);
+        this.playerStore = new RedisPlayerStore(this.redisManager, PartyCodecType.JSON.create(), this.leases);
+        when(this.redisManager.jedis()).thenReturn(this.jedis);
+        when(this.jedis.zrangeByScore(eq("party_proxies"), anyDouble(), anyDouble())).thenReturn(List.of());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        this.mocks.close();
+    }
+
+    @Test
+    void testSaveLeasesPlayer() throws JsonProcessingException {
+        this.playerStore.save(this.player);
+
+        verify(this.jedis).set(eq(SafeEncoder.encode("party_player:" + this.player.uniqueId())), any(byte[].class), any(SetParams.class));
+        verify(this.jedis).set(eq("party_player_name:dominik48n"), eq(this.player.uniqueId().toString()), any(SetParams.class));
+        verify(this.jedis).set(eq("party_player_proxy:" + this.player.uniqueId()), eq("proxy-1"), any(SetParams.class));
+        verify(this.jedis).sadd(this.proxyPlayersKey(), this.player.uniqueId().toString());
+    }
+
+    @Test
+    void testHeartbeatExtendsLeases() throws JsonProcessingException {
+        this.playerStore.save(this.player);
+
+        this.leases.heartbeat(this.logout, this.restore);
+
+        verify(this.jedis).zadd(eq("party_proxies"), anyDouble(), eq("proxy-1"));
+        verify(this.jedis).evalsha(
+                anyString(),
+                eq(List.of(
+                        this.proxyPlayersKey(),
+                        "party_player:" + this.player.uniqueId(),
+                        "party_player_name:dominik48n",
+                        "party_player_proxy:" + this.player.uniqueId()
+                )),
+                eq(List.of(String.valueOf(CONFIG.leaseMillis() * 2)))
+        );
+        verifyNoInteractions(this.logout);
+    }
+
+    @Test
+    void testLogoutReleasesLease() throws JsonProcessingException {
+        this.playerStore.save(this.player);
+        when(this.jedis.mget(any(byte[][].class))).thenReturn(Arrays.asList(null, null));
+
+        this.playerStore.loadForLogout(List.of(this.player.uniqueId(), UUID.randomUUID()));
+
+        verify(this.jedis).srem(this.proxyPlayersKey(), this.player.uniqueId().toString());
+    }
+
+    @Test
+    void testReapLogsOutPlayersOfDeadProxy() {
+        final UUID orphan = UUID.randomUUID();
+        final UUID movedPlayer = UUID.randomUUID();
+        when(this.jedis.zrangeByScore(eq("party_proxies"), anyDouble(), anyDouble())).thenReturn(List.of("dead"));
+        when(this.jedis.zrem("party_proxies", "dead")).thenReturn(1L);
+        when(this.jedis.smembers("party_proxy:dead:players")).thenReturn(new LinkedHashSet<>(List.of(orphan.toString(), movedPlayer.toString())));
+        when(this.jedis.mget(any(byte[][].class))).thenReturn(List.of(SafeEncoder.encode("dead"), SafeEncoder.encode("alive")));
+
+        this.leases.heartbeat(this.logout, this.restore);
+
+        // The player who logged in on another proxy meanwhile keeps its session
+        verify(this.logout).accept(List.of(orphan));
+        verify(this.jedis).del("party_proxy:dead:players");
+    }
+
+    @Test
+    void testReapSkipsProxyClaimedByAnotherProxy() {
+        when(this.jedis.zrangeByScore(eq("party_proxies"), anyDouble(), anyDouble())).thenReturn(List.of("dead"));
+        when(this.jedis.zrem("party_proxies", "dead")).thenReturn(0L);
+
+        this.leases.heartbeat(this.logout, this.restore);
+
+        verify(this.jedis, never()).smembers(anyString());
+        verifyNoInteractions(this.logout);
+    }
+
+    @Test
+    void testReapedProxyRestoresPlayers() throws JsonProcessingException {
+        this.playerStore.save(this.player);
+        when(this.jedis.zadd(eq("party_proxies"), anyDouble(), eq("proxy-1"))).thenReturn(1L);
+        when(this.jedis.mget(any(byte[][].class))).thenReturn(Collections.singletonList(null));
+
+        this.leases.heartbeat(this.logout, this.restore);
+        this.leases.heartbeat(this.logout, this.restore);
+        verifyNoInteractions(this.restore);
+
+        // The player was logged out by the proxy that reaped this proxy, which has finished by the following heartbeat
+        this.leases.heartbeat(this.logout, this.restore);
+        verify(this.restore).accept(List.of(this.player.uniqueId()));
+        verify(this.jedis, times(2)).sadd(this.proxyPlayersKey(), this.player.uniqueId().toString());
+    }
+
+    private String proxyPlayersKey() {
+        return "party_proxy:proxy-1:players";
+    }
+}
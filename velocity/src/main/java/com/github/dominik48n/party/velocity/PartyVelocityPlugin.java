@@ -21,6 +21,7 @@ import com.github.dominik48n.party.api.PartyAPI;
 import com.github.dominik48n.party.config.ProxyPluginConfig;
 import com.github.dominik48n.party.database.DatabaseAdapter;
 import com.github.dominik48n.party.redis.RedisManager;
+import com.github.dominik48n.party.storage.PartyStorageType;
 import com.github.dominik48n.party.util.Constants;
 import com.github.dominik48n.party.util.UpdateChecker;
 import com.github.dominik48n.party.velocity.listener.OnlinePlayersListener;
@@ -97,7 +98,13 @@ public class PartyVelocityPlugin {
         }
 
         final VelocityUserManager userManager = new VelocityUserManager(this.redisManager, this.config, this.server, this.logger);
-        this.partyProvider = new DefaultPartyProvider<>(this.redisManager, userManager, this.config.messageConfig());
+        this.partyProvider = new DefaultPartyProvider<>(
+                this.redisManager,
+                userManager,
+                this.config.messageConfig(),
+                this.config.redisConfig()
+        );
+        this.migratePartyStorage(this.partyProvider);
 
         this.redisManager.subscribes(userManager);
 
@@ -111,6 +118,21 @@ public class PartyVelocityPlugin {
         if (this.config.updateChecker()) this.registerUpdateChecker();
     }
 
+    /**
+     * Converts parties that are still stored in an older layout into the configured one.
+     * This runs in the background, because the parties are also converted the first time they are accessed.
+     *
+     * @param partyProvider the {@link DefaultPartyProvider} that owns the parties
+     */
+    private void migratePartyStorage(final @NotNull DefaultPartyProvider<Player> partyProvider) {
+        if (this.config.redisConfig().partyStorage() != PartyStorageType.HASH) return;
+
+        this.server.getScheduler().buildTask(this, () -> {
+            final int migrated = partyProvider.migratePartyStorage();
+            if (migrated > 0) PartyVelocityPlugin.this.logger.info("Converted {} parties to the new storage layout.", migrated);
+        }).schedule();
+    }
+
     /**
      * Registers the update checker for the PartyVelocityPlugin.
      * The update checker checks for the latest version of the party system and logs a message if a new version is available.
@@ -137,10 +159,8 @@ public class PartyVelocityPlugin {
 
     @Subscribe
     public void onProxyShutdown(final ProxyShutdownEvent event) {
-        for (final Player player : this.server.getAllPlayers()) {
-            PartyAPI.get().onlinePlayerProvider().logout(player.getUniqueId());
-            PartyAPI.get().clearPartyRequest(player.getUsername());
-        }
+        PartyAPI.get().onlinePlayerProvider().logout(this.server.getAllPlayers().stream().map(Player::getUniqueId).toList());
+        if (this.partyProvider != null) this.partyProvider.close();
 
         if (this.redisManager != null) {
             this.logger.info("Close connection to redis...");
@@ -60,7 +60,6 @@ public class OnlinePlayersListener {
         final Player player = event.getPlayer();
 
         PartyAPI.get().onlinePlayerProvider().logout(player.getUniqueId());
-        PartyAPI.get().clearPartyRequest(player.getUsername());
 
         this.userManager.removePlayerFromCache(player);
     }